@@ -0,0 +1,114 @@
+import java.util.BitSet;
+
+// to represent a search of the passages of a maze for a path from a start cell to a goal
+// cell, one visited cell at a time so the world can animate it
+// cells are addressed by their index in the grid, and once the goal is found the parents
+// lead from it back to the start, whichever way the search went
+abstract class ASolver {
+  static final String KEYS = "bdatw"; // the keys of the searches forKey knows
+  AWallGrid walls;
+  int start;
+  int goal;
+  BitSet seen; // the cells that have been reached from the start
+  int[] parent; // the cell every seen cell was reached from, the start is its own parent
+  int[] visitOrder; // the cells in the order they were visited
+  int visitedCount; // the number of cells in visitOrder, the expansions of the search
+  boolean found; // whether the goal has been reached
+  int maxFrontier; // the most cells that have waited in the frontier at once
+  int[] around = new int[4]; // the cells a cell has passages to, filled by walls.neighbors
+
+  ASolver(AWallGrid walls, int start, int goal) {
+    this.walls = walls;
+    this.start = start;
+    this.goal = goal;
+    this.seen = new BitSet(walls.cellCount());
+    this.parent = new int[walls.cellCount()];
+    this.visitOrder = new int[walls.cellCount()];
+  }
+
+  // to start the search of the given key on the given walls, a weighted search takes the
+  // costs of the passages from the given seed
+  // "d" is depth first, "a" is a*, "t" is breadth first from both ends, "w" is dijkstra's
+  // over weighted passages and anything else is breadth first
+  static ASolver forKey(String key, AWallGrid walls, int start, int goal, long seed) {
+    if (key.equals("d")) {
+      return new MazeSolver(walls, start, goal, true);
+    } else if (key.equals("a")) {
+      return new AStarSolver(walls, start, goal);
+    } else if (key.equals("t")) {
+      return new BidirectionalSolver(walls, start, goal);
+    } else if (key.equals("w")) {
+      return new DijkstraSolver(walls, start, goal, seed);
+    } else {
+      return new MazeSolver(walls, start, goal, false);
+    }
+  }
+
+  // to name the search for the counters on the screen
+  abstract String name();
+
+  // to find whether the search is over, because the goal was found or there is
+  // nothing left to visit
+  abstract boolean isDone();
+
+  // EFFECT: to visit the next cell of the search
+  // returns the visited cell, or -1 if the search is already over
+  abstract int step();
+
+  // EFFECT: to start the search over from the start on the walls as they are now, reusing
+  // every array, a weighted search takes the costs of its passages from the given seed
+  // every search calls it once its arrays are made
+  void restart(long seed) {
+    this.seen.clear();
+    this.visitedCount = 0;
+    this.found = false;
+    this.maxFrontier = 0;
+  }
+
+  // EFFECT: to record the given size of the frontier if it is the biggest so far
+  void noteFrontier(int size) {
+    if (size > this.maxFrontier) {
+      this.maxFrontier = size;
+    }
+  }
+
+  // EFFECT: to record that the given cell was visited
+  void visit(int cell) {
+    this.visitOrder[this.visitedCount] = cell;
+    this.visitedCount++;
+  }
+
+  // EFFECT: to run the search to the end
+  // returns whether the goal was found
+  boolean solve() {
+    while (this.step() != -1) {
+      // every call visits one cell
+    }
+    return this.found;
+  }
+
+  // to count the cells on the path from the start to the goal, both included
+  // returns 0 if the goal has not been found
+  int pathLength() {
+    if (!this.found) {
+      return 0;
+    }
+    int length = 1;
+    for (int cell = this.goal; cell != this.start; cell = this.parent[cell]) {
+      length++;
+    }
+    return length;
+  }
+
+  // to list the cells on the path from the goal back to the start
+  // returns an empty array if the goal has not been found
+  int[] path() {
+    int[] path = new int[this.pathLength()];
+    int cell = this.goal;
+    for (int i = 0; i < path.length; i++) {
+      path[i] = cell;
+      cell = this.parent[cell];
+    }
+    return path;
+  }
+}
@@ -0,0 +1,135 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+// to search the passages of a maze for a path from a start cell to a goal cell with a*,
+// always visiting next the cell whose distance from the start plus manhattan distance to
+// the goal is the smallest, so the search leans toward the goal
+// every passage costs one step, so the manhattan distance never overestimates and the
+// path found is a shortest one
+// the frontier is a binary heap kept in two parallel arrays, and a cell that is reached
+// again by a shorter way is simply pushed again, its old entry is skipped once it comes up
+class AStarSolver extends ASolver {
+  int[] cost; // the number of steps from the start to every seen cell
+  BitSet closed; // the cells that have been visited
+  long[] keys; // the priority of every entry of the heap, its total then its estimate
+  int[] cells; // the cell of every entry of the heap
+  int heapSize; // the number of entries in the heap
+
+  AStarSolver(AWallGrid walls, int start, int goal) {
+    super(walls, start, goal);
+    this.cost = new int[walls.cellCount()];
+    this.closed = new BitSet(walls.cellCount());
+    this.keys = new long[16];
+    this.cells = new int[16];
+    this.restart(0);
+  }
+
+  // EFFECT: to start the search over from the start, with only the start in the heap
+  void restart(long seed) {
+    super.restart(seed);
+    this.closed.clear();
+    this.heapSize = 0;
+    this.seen.set(this.start);
+    this.parent[this.start] = this.start;
+    this.push(this.start);
+  }
+
+  // to name the search for the counters on the screen
+  String name() {
+    return "A*";
+  }
+
+  // to find the manhattan distance from the given cell to the goal
+  int estimate(int cell) {
+    int cols = this.walls.cols;
+    return Math.abs(cell % cols - this.goal % cols) + Math.abs(cell / cols - this.goal / cols);
+  }
+
+  // EFFECT: to add the given cell to the heap with its current cost
+  // among entries with the same total, the one closest to the goal comes first
+  void push(int cell) {
+    if (this.heapSize == this.keys.length) {
+      this.keys = Arrays.copyOf(this.keys, this.keys.length * 2);
+      this.cells = Arrays.copyOf(this.cells, this.cells.length * 2);
+    }
+    int estimate = this.estimate(cell);
+    long key = ((long) (this.cost[cell] + estimate) << 32) | estimate;
+    int i = this.heapSize;
+    this.heapSize++;
+    while (i > 0 && this.keys[(i - 1) >>> 1] > key) {
+      int up = (i - 1) >>> 1;
+      this.keys[i] = this.keys[up];
+      this.cells[i] = this.cells[up];
+      i = up;
+    }
+    this.keys[i] = key;
+    this.cells[i] = cell;
+    this.noteFrontier(this.heapSize);
+  }
+
+  // EFFECT: to take the entry with the smallest key out of the heap
+  // returns the cell of that entry
+  int pop() {
+    int top = this.cells[0];
+    this.heapSize--;
+    long key = this.keys[this.heapSize];
+    int cell = this.cells[this.heapSize];
+    int i = 0;
+    int child = 1;
+    while (child < this.heapSize) {
+      if (child + 1 < this.heapSize && this.keys[child + 1] < this.keys[child]) {
+        child++;
+      }
+      if (this.keys[child] >= key) {
+        break;
+      }
+      this.keys[i] = this.keys[child];
+      this.cells[i] = this.cells[child];
+      i = child;
+      child = 2 * i + 1;
+    }
+    this.keys[i] = key;
+    this.cells[i] = cell;
+    return top;
+  }
+
+  // to find whether the search is over, because the goal was found or there is
+  // nothing left to visit
+  boolean isDone() {
+    return this.found || this.heapSize == 0;
+  }
+
+  // EFFECT: to visit the most promising cell of the heap and push the cells it has
+  // passages to that are now closer to the start than before
+  // returns the visited cell, or -1 if the search is already over
+  int step() {
+    int next = -1;
+    while (next == -1 && !this.isDone()) {
+      int cell = this.pop();
+      if (!this.closed.get(cell)) {
+        next = cell;
+      }
+    }
+    if (next == -1) {
+      return -1;
+    }
+    this.closed.set(next);
+    this.visit(next);
+    if (next == this.goal) {
+      this.found = true;
+    } else {
+      int count = this.walls.neighbors(next, this.around);
+      for (int i = 0; i < count; i++) {
+        int cell = this.around[i];
+        int cost = this.cost[next] + 1;
+        if (!this.closed.get(cell) && (!this.seen.get(cell) || cost < this.cost[cell])) {
+          this.seen.set(cell);
+          this.cost[cell] = cost;
+          this.parent[cell] = next;
+          this.push(cell);
+        }
+      }
+    }
+    return next;
+  }
+}
@@ -0,0 +1,84 @@
+// to represent the walls of a maze as far as they can be read, with two bits per cell: the
+// wall on the right of a cell and the wall below it
+// the right walls of the last column and the bottom walls of the last row are the border
+// of the maze, they always stand so no query has to check whether it is on the edge
+// the searches, the index of the exit and the pictures only ever read the walls, so they
+// take any grid, and only a WallGrid has walls that can be knocked down
+abstract class AWallGrid {
+  int rows;
+  int cols;
+
+  AWallGrid(int rows, int cols) {
+    this.rows = rows;
+    this.cols = cols;
+  }
+
+  // to count the cells in the grid
+  int cellCount() {
+    return this.rows * this.cols;
+  }
+
+  // to find whether the wall on the right of the given cell is standing
+  abstract boolean hasRightWall(int cell);
+
+  // to find whether the wall below the given cell is standing
+  abstract boolean hasBottomWall(int cell);
+
+  // to count the walls that have been knocked down
+  abstract long passageCount();
+
+  // to count the longs that hold the wall bits
+  abstract long wordCount();
+
+  // to find the long of wall bits at the given index as open bits, a set bit means the
+  // wall is down like in OffHeapWallGrid and MazeFile
+  abstract long openWord(long index);
+
+  // to find how many bytes the wall bits take up
+  abstract long byteSize();
+
+  // to find whether there is a passage between the two given cells
+  // cells that are not next to each other are never connected
+  boolean isOpen(int cell1, int cell2) {
+    if (cell2 < cell1) {
+      return this.isOpen(cell2, cell1);
+    } else if (cell2 == cell1 + 1) {
+      return !this.hasRightWall(cell1);
+    } else if (cell2 == cell1 + this.cols) {
+      return !this.hasBottomWall(cell1);
+    } else {
+      return false;
+    }
+  }
+
+  // to find whether a player standing on (x, y) can step onto (nextX, nextY)
+  boolean canMove(int x, int y, int nextX, int nextY) {
+    return nextX >= 0 && nextX < this.cols && nextY >= 0 && nextY < this.rows
+        && this.isOpen(y * this.cols + x, nextY * this.cols + nextX);
+  }
+
+  // EFFECT: to write the cells that the given cell has a passage to into the given array,
+  // in the order up, left, right, down
+  // returns the number of cells written, at most 4
+  int neighbors(int cell, int[] out) {
+    int count = 0;
+    if (cell >= this.cols && !this.hasBottomWall(cell - this.cols)) {
+      out[count] = cell - this.cols;
+      count++;
+    }
+    // the cell before the first cell of a row is on the right border, so its wall stands
+    if (cell > 0 && !this.hasRightWall(cell - 1)) {
+      out[count] = cell - 1;
+      count++;
+    }
+    if (!this.hasRightWall(cell)) {
+      out[count] = cell + 1;
+      count++;
+    }
+    if (!this.hasBottomWall(cell)) {
+      out[count] = cell + this.cols;
+      count++;
+    }
+    return count;
+  }
+}
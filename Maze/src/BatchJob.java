@@ -0,0 +1,69 @@
+// to represent one maze of a batch: its size, seed and bias, and the search to run on it
+// from the top left cell to the bottom right one
+final class BatchJob {
+  final int rows;
+  final int cols;
+  final long seed;
+  final String bias; // "h", "v" or "noBias"
+  final String solver; // the key of the search, "b", "d", "a", "t" or "w"
+
+  BatchJob(int rows, int cols, long seed, String bias, String solver) {
+    if (rows < 1 || cols < 1) {
+      throw new IllegalArgumentException("A maze needs at least one cell: " + rows + " by "
+          + cols);
+    }
+    if (!bias.equals("h") && !bias.equals("v") && !bias.equals("noBias")) {
+      throw new IllegalArgumentException("The bias must be h, v or noBias: " + bias);
+    }
+    if (!solver.equals("b") && !solver.equals("d") && !solver.equals("a")
+        && !solver.equals("t") && !solver.equals("w")) {
+      throw new IllegalArgumentException("The solver must be b, d, a, t or w: " + solver);
+    }
+    this.rows = rows;
+    this.cols = cols;
+    this.seed = seed;
+    this.bias = bias;
+    this.solver = solver;
+  }
+
+  // to read a job from a line of the form "rows cols seed bias solver", the fields split
+  // by spaces or commas
+  static BatchJob parse(String line) {
+    String[] fields = line.trim().split("[,\\s]+");
+    if (fields.length != 5) {
+      throw new IllegalArgumentException("A job needs rows, cols, seed, bias and solver: "
+          + line);
+    }
+    try {
+      return new BatchJob(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]),
+          Long.parseLong(fields[2]), fields[3], fields[4]);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("The rows, cols and seed of a job must be numbers: "
+          + line);
+    }
+  }
+
+  // to build the maze of this job and search it, timing both
+  BatchResult run() {
+    return this.run(null);
+  }
+
+  // to find the maze of this job in the given catalog, or build it if there is no catalog,
+  // and search it, timing both
+  BatchResult run(MazeCatalog catalog) {
+    long start = System.nanoTime();
+    MazeLayout layout;
+    if (catalog == null) {
+      layout = MazeGenerator.generate(this.rows, this.cols, this.seed, this.bias);
+    } else {
+      layout = catalog.get(this.rows, this.cols, this.seed, this.bias);
+    }
+    long generated = System.nanoTime();
+    ASolver search = ASolver.forKey(this.solver, layout.walls, 0, this.rows * this.cols - 1,
+        this.seed);
+    search.solve();
+    long solved = System.nanoTime();
+    return new BatchResult(this, search.name(), generated - start, solved - generated,
+        search.visitedCount - 1, search.pathLength());
+  }
+}
@@ -0,0 +1,45 @@
+// to represent what happened when a job of a batch was run, with the steps and wrong
+// moves counted the way the world counts them on the screen
+final class BatchResult {
+  static final String CSV_HEADER = "rows,cols,seed,bias,solver,generateNanos,solveNanos,"
+      + "steps,wrongMoves,pathLength";
+
+  final BatchJob job;
+  final String solverName;
+  final long generateNanos;
+  final long solveNanos;
+  final int steps; // the cells visited after the first one
+  final int pathLength; // the cells on the path from the start to the end, both included
+
+  BatchResult(BatchJob job, String solverName, long generateNanos, long solveNanos,
+      int steps, int pathLength) {
+    this.job = job;
+    this.solverName = solverName;
+    this.generateNanos = generateNanos;
+    this.solveNanos = solveNanos;
+    this.steps = steps;
+    this.pathLength = pathLength;
+  }
+
+  // to count the visited cells that are not on the path
+  int wrongMoves() {
+    return this.steps - this.pathLength + 1;
+  }
+
+  // to write this result as a line of csv, in the order of CSV_HEADER
+  String toCsv() {
+    return this.job.rows + "," + this.job.cols + "," + this.job.seed + "," + this.job.bias
+        + "," + this.solverName + "," + this.generateNanos + "," + this.solveNanos + ","
+        + this.steps + "," + this.wrongMoves() + "," + this.pathLength;
+  }
+
+  // to write this result as a json object on one line
+  String toJson() {
+    return "{\"rows\": " + this.job.rows + ", \"cols\": " + this.job.cols + ", \"seed\": "
+        + this.job.seed + ", \"bias\": \"" + this.job.bias + "\", \"solver\": \""
+        + this.solverName + "\", \"generateNanos\": " + this.generateNanos
+        + ", \"solveNanos\": " + this.solveNanos + ", \"steps\": " + this.steps
+        + ", \"wrongMoves\": " + this.wrongMoves() + ", \"pathLength\": " + this.pathLength
+        + "}";
+  }
+}
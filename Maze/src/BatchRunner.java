@@ -0,0 +1,124 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// to build and search many seeded mazes from the command line without opening a window
+//   java BatchRunner [--threads n] [--format csv|jsonl] [--cache-mb n] [jobs file]
+// every line of the jobs file, or of the standard input when there is no file, is a job
+// "rows cols seed bias solver", blank lines and lines starting with # are skipped
+// the jobs run on a fixed pool of threads, one per core unless told otherwise, and every
+// result is written to the standard output as soon as its job finishes, so the lines come
+// out in the order the jobs finish rather than the order they were given
+// with --cache-mb the jobs share a catalog of that many megabytes of walls, so jobs that
+// search the same maze build it once, and their generation time is the time to look it up
+class BatchRunner {
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int threads = Runtime.getRuntime().availableProcessors();
+    boolean json = false;
+    MazeCatalog catalog = null;
+    String file = null;
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("--threads") && i + 1 < args.length) {
+        i++;
+        threads = Integer.parseInt(args[i]);
+      } else if (args[i].equals("--format") && i + 1 < args.length) {
+        i++;
+        if (!args[i].equals("csv") && !args[i].equals("jsonl")) {
+          throw new IllegalArgumentException("The format must be csv or jsonl: " + args[i]);
+        }
+        json = args[i].equals("jsonl");
+      } else if (args[i].equals("--cache-mb") && i + 1 < args.length) {
+        i++;
+        catalog = new MazeCatalog(Long.parseLong(args[i]) << 20);
+      } else if (file == null && !args[i].startsWith("--")) {
+        file = args[i];
+      } else {
+        throw new IllegalArgumentException("Usage: BatchRunner [--threads n] "
+            + "[--format csv|jsonl] [--cache-mb n] [jobs file]");
+      }
+    }
+    Reader in;
+    if (file == null) {
+      in = new InputStreamReader(System.in, StandardCharsets.UTF_8);
+    } else {
+      in = new FileReader(file, StandardCharsets.UTF_8);
+    }
+    ArrayList<BatchJob> jobs;
+    try (BufferedReader lines = new BufferedReader(in)) {
+      jobs = BatchRunner.readJobs(lines);
+    }
+    Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+    BatchRunner.run(jobs, threads, json, catalog, out);
+  }
+
+  // to read the jobs of the given lines, skipping blank lines and lines starting with #
+  static ArrayList<BatchJob> readJobs(BufferedReader lines) throws IOException {
+    ArrayList<BatchJob> jobs = new ArrayList<BatchJob>();
+    int number = 0;
+    for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+      number++;
+      String trimmed = line.trim();
+      if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+        try {
+          jobs.add(BatchJob.parse(trimmed));
+        } catch (IllegalArgumentException e) {
+          throw new IllegalArgumentException("Line " + number + ": " + e.getMessage());
+        }
+      }
+    }
+    return jobs;
+  }
+
+  // EFFECT: to run the given jobs on a pool of the given number of threads, with their mazes
+  // from the given catalog unless it is null, and write every result to the given writer
+  // as a line of csv, after a header, or of json as soon as its job finishes
+  // returns the number of results written
+  static int run(ArrayList<BatchJob> jobs, int threads, boolean json, MazeCatalog catalog,
+      Writer out) throws IOException, InterruptedException {
+    if (threads < 1) {
+      throw new IllegalArgumentException("A batch needs at least one thread: " + threads);
+    }
+    if (!json) {
+      out.write(BatchResult.CSV_HEADER);
+      out.write('\n');
+      out.flush();
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      ExecutorCompletionService<BatchResult> finished =
+          new ExecutorCompletionService<BatchResult>(pool);
+      for (BatchJob job : jobs) {
+        finished.submit(() -> job.run(catalog));
+      }
+      for (int i = 0; i < jobs.size(); i++) {
+        BatchResult result;
+        try {
+          result = finished.take().get();
+        } catch (ExecutionException e) {
+          throw new IllegalStateException("A job of the batch failed", e.getCause());
+        }
+        if (json) {
+          out.write(result.toJson());
+        } else {
+          out.write(result.toCsv());
+        }
+        out.write('\n');
+        out.flush();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    return jobs.size();
+  }
+}
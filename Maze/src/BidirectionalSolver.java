@@ -0,0 +1,111 @@
+import java.util.BitSet;
+
+// to search the passages of a maze for a path from a start cell to a goal cell breadth
+// first from both ends at once, always growing the side with the smaller frontier, until
+// one side reaches a cell the other side has seen
+// the two searches together cover about two circles of half the radius of a search from
+// one end, and when they meet the parents of the goal side are turned around so that the
+// parents lead from the goal back to the start like in every other search
+class BidirectionalSolver extends ASolver {
+  BitSet seenBack; // the cells that have been reached from the goal
+  int[] parentBack; // the cell every cell seen from the goal was reached from
+  int[] forward; // the cells waiting to be visited from the start
+  int forwardHead;
+  int forwardTail;
+  int[] backward; // the cells waiting to be visited from the goal
+  int backwardHead;
+  int backwardTail;
+
+  BidirectionalSolver(AWallGrid walls, int start, int goal) {
+    super(walls, start, goal);
+    this.seenBack = new BitSet(walls.cellCount());
+    this.parentBack = new int[walls.cellCount()];
+    this.forward = new int[walls.cellCount()];
+    this.backward = new int[walls.cellCount()];
+    this.restart(0);
+  }
+
+  // EFFECT: to start the search over from both ends, with only the start and the goal in
+  // the two frontiers
+  void restart(long seed) {
+    super.restart(seed);
+    this.seenBack.clear();
+    this.seen.set(this.start);
+    this.parent[this.start] = this.start;
+    this.forward[0] = this.start;
+    this.forwardHead = 0;
+    this.forwardTail = 1;
+    this.seenBack.set(this.goal);
+    this.parentBack[this.goal] = this.goal;
+    this.backward[0] = this.goal;
+    this.backwardHead = 0;
+    this.backwardTail = 1;
+  }
+
+  // to name the search for the counters on the screen
+  String name() {
+    return "Bidirectional BFS";
+  }
+
+  // to find whether the search is over, because the two sides met or one of them has
+  // nothing left to visit
+  boolean isDone() {
+    return this.found || this.forwardHead == this.forwardTail
+        || this.backwardHead == this.backwardTail;
+  }
+
+  // EFFECT: to visit the next cell of the smaller frontier and add the cells it has
+  // passages to that its side has not seen yet, stopping as soon as the sides meet
+  // returns the visited cell, or -1 if the search is already over
+  int step() {
+    if (this.isDone()) {
+      return -1;
+    }
+    boolean fromStart = this.forwardTail - this.forwardHead
+        <= this.backwardTail - this.backwardHead;
+    int next;
+    if (fromStart) {
+      next = this.forward[this.forwardHead];
+      this.forwardHead++;
+    } else {
+      next = this.backward[this.backwardHead];
+      this.backwardHead++;
+    }
+    this.visit(next);
+    // a start that is the goal is found by visiting it, like in every other search
+    this.found = this.start == this.goal;
+    int count = this.walls.neighbors(next, this.around);
+    for (int i = 0; i < count && !this.found; i++) {
+      int cell = this.around[i];
+      if (fromStart && this.seenBack.get(cell)) {
+        this.join(next, cell);
+      } else if (fromStart && !this.seen.get(cell)) {
+        this.seen.set(cell);
+        this.parent[cell] = next;
+        this.forward[this.forwardTail] = cell;
+        this.forwardTail++;
+      } else if (!fromStart && this.seen.get(cell)) {
+        this.join(cell, next);
+      } else if (!fromStart && !this.seenBack.get(cell)) {
+        this.seenBack.set(cell);
+        this.parentBack[cell] = next;
+        this.backward[this.backwardTail] = cell;
+        this.backwardTail++;
+      }
+    }
+    this.noteFrontier(this.forwardTail - this.forwardHead + this.backwardTail
+        - this.backwardHead);
+    return next;
+  }
+
+  // EFFECT: to join the two sides across the passage from the given cell seen from the
+  // start to the given cell seen from the goal, turning the parents of the goal side
+  // around so they lead back to the start
+  void join(int fromStart, int fromGoal) {
+    this.parent[fromGoal] = fromStart;
+    for (int cell = fromGoal; cell != this.goal; cell = this.parentBack[cell]) {
+      this.parent[this.parentBack[cell]] = cell;
+    }
+    this.found = true;
+  }
+}
@@ -0,0 +1,106 @@
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.BitSet;
+
+import javalib.impworld.*;
+import javalib.worldimages.*;
+
+// to represent a cell in a maze
+class Cell {
+  int x;
+  int y;
+
+  Cell(int x, int y) {
+    this.x = x;
+    this.y = y;
+  }
+
+  // to find the index of a cell in the cell list
+  public int findIndex(int cols) {
+    return this.x + this.y * cols;
+  }
+
+  // EFFECT: to paint the required wall onto the picture of the maze in the given color
+  // if the boolean right is true then we paint the right wall else the bottom one
+  // the two ends of the wall are corners shared with other walls, MazeLayer paints those
+  public void placeWallHelper(MazeLayer layer, boolean right, Color color) {
+    int cellSize = layer.cellSize;
+    if (right) {
+      layer.fill((this.x + 1) * cellSize, this.y * cellSize + 1, 1, cellSize - 1, color);
+    } else {
+      layer.fill(this.x * cellSize + 1, (this.y + 1) * cellSize, cellSize - 1, 1, color);
+    }
+  }
+
+  // EFFECT: to paint a square of half the size of the cell in its middle
+  public void paintSquare(MazeLayer layer, Color color) {
+    int cellSize = layer.cellSize;
+    int side = cellSize / 2;
+    layer.fill(this.x * cellSize + (cellSize - side) / 2,
+        this.y * cellSize + (cellSize - side) / 2, side, side, color);
+  }
+
+  // EFFECT: to paint a cell visited by a search onto the picture of the maze
+  public void drawVisited(MazeLayer layer) {
+    this.paintSquare(layer, MazeLayer.VISITED);
+  }
+
+  // EFFECT: to paint a cell of the path from the start to the end onto the picture of the maze
+  public void drawPath(MazeLayer layer) {
+    this.paintSquare(layer, MazeLayer.PATH);
+  }
+
+  // to find the x coordinate of the cell that we would reach
+  // provided we clicked the given button
+  public int findNextX(String key) {    
+    if (key.equals("right")) {
+      return this.x + 1;
+    } else if (key.equals("left")) {
+      return this.x - 1;
+    } else {
+      return this.x;
+    }
+  }
+
+  //to find the y coordinate of the cell that we would reach
+  // provided we clicked the given button
+  public int findNextY(String key) {
+    if (key.equals("down")) {
+      return this.y + 1;
+    } else if (key.equals("up")) {
+      return this.y - 1;
+    } else {
+      return this.y;
+    }
+  }
+
+  // returns the current cell if the key press is not valid
+  // returns the next cell corresponding to the key press if the key press is valid
+  // given that it has the coordinates of where it will be on the next key press
+  // also adds this cell to the visited list if we have not visited it
+  // the indices of the visited cells are kept in seen too, so a move takes the same time
+  // however many cells have been visited
+  public Cell validKey(int nextX, int nextY, AWallGrid walls, ArrayList<Cell> cellList,
+      ArrayList<Cell> visited, BitSet seen) {
+    if (walls.canMove(this.x, this.y, nextX, nextY)) {
+      int index = nextY * walls.cols + nextX;
+      Cell c = cellList.get(index);
+      if (!seen.get(index)) {
+        seen.set(index);
+        visited.add(c);
+      }
+      return c;
+    }
+    return this;
+  }
+
+  // EFFECT: when in manual mode, this method draws the current position of the user in 
+  // the maze
+  // the square stays big enough to see when the view is zoomed out
+  public void drawCell(WorldScene scene, MazeLayer layer) {
+    int side = Math.max(layer.cellSize / 2, 3);
+    WorldImage square = new RectangleImage(side, side, OutlineMode.SOLID,
+        new Color(128, 0, 128));
+    scene.placeImageXY(square, layer.screenX(this.x), layer.screenY(this.y));
+  }
+}
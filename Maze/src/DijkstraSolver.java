@@ -0,0 +1,156 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+// to search the passages of a maze for the cheapest path from a start cell to a goal cell,
+// where every passage costs between 0 and MAX_COST, with dijkstra's algorithm
+// the costs come from hashing the seed with the wall of the passage, so they need no
+// storage and a maze has the same costs every time it is built from the same seed
+// the frontier is dial's bucket queue: no queued cell costs more than MAX_COST past the
+// cheapest one, so MAX_COST + 1 buckets used round and round hold every cell by its cost,
+// and taking the cheapest cell only moves on to the next bucket that is not empty
+// the entries of all buckets are linked lists in two parallel arrays, and a cell that is
+// reached again more cheaply is simply pushed again, its old entry is skipped once it
+// comes up
+class DijkstraSolver extends ASolver {
+  static final int MAX_COST = 99; // the most a single passage costs
+
+  long costSeed; // the seed the cost of every passage is hashed from
+  int[] cost; // the cost of the cheapest way found from the start to every seen cell
+  BitSet closed; // the cells that have been visited
+  int[] bucketHead; // the first entry of every bucket, -1 for an empty bucket
+  int[] entryCell; // the cell of every entry
+  int[] entryNext; // the entry after every entry in its bucket, or in the free list
+  int entryCount; // the number of entries ever handed out
+  int free; // the first entry that can be handed out again, -1 if there is none
+  int queued; // the number of entries in the buckets
+  int current; // the cost of the cheapest queued cell, its bucket is current % (MAX_COST + 1)
+
+  DijkstraSolver(AWallGrid walls, int start, int goal, long costSeed) {
+    super(walls, start, goal);
+    this.cost = new int[walls.cellCount()];
+    this.closed = new BitSet(walls.cellCount());
+    this.bucketHead = new int[MAX_COST + 1];
+    this.entryCell = new int[16];
+    this.entryNext = new int[16];
+    this.restart(costSeed);
+  }
+
+  // EFFECT: to start the search over from the start with the costs of the given seed, with
+  // only the start in the buckets and every entry free to hand out again
+  void restart(long seed) {
+    super.restart(seed);
+    this.costSeed = seed;
+    this.closed.clear();
+    Arrays.fill(this.bucketHead, -1);
+    this.entryCount = 0;
+    this.free = -1;
+    this.queued = 0;
+    this.current = 0;
+    this.cost[this.start] = 0;
+    this.seen.set(this.start);
+    this.parent[this.start] = this.start;
+    this.push(this.start);
+  }
+
+  // to find the cost of the passage between the two given cells of a maze whose costs
+  // come from the given seed, the same whichever way the passage is taken
+  static int passageCost(long seed, int cell1, int cell2) {
+    int low = Math.min(cell1, cell2);
+    // the wall bit of the passage, like in WallGrid: the right wall or the bottom wall
+    long wall = 2L * low + (Math.max(cell1, cell2) == low + 1 ? 0 : 1);
+    return (int) Long.remainderUnsigned(
+        RandomPermutation.mix(seed + wall * 0x9E3779B97F4A7C15L), MAX_COST + 1);
+  }
+
+  // to name the search for the counters on the screen
+  String name() {
+    return "Dijkstra";
+  }
+
+  // EFFECT: to add the given cell to the bucket of its current cost
+  void push(int cell) {
+    int entry = this.free;
+    if (entry != -1) {
+      this.free = this.entryNext[entry];
+    } else {
+      if (this.entryCount == this.entryCell.length) {
+        this.entryCell = Arrays.copyOf(this.entryCell, this.entryCell.length * 2);
+        this.entryNext = Arrays.copyOf(this.entryNext, this.entryNext.length * 2);
+      }
+      entry = this.entryCount;
+      this.entryCount++;
+    }
+    int bucket = this.cost[cell] % (MAX_COST + 1);
+    this.entryCell[entry] = cell;
+    this.entryNext[entry] = this.bucketHead[bucket];
+    this.bucketHead[bucket] = entry;
+    this.queued++;
+    this.noteFrontier(this.queued);
+  }
+
+  // EFFECT: to take an entry out of the cheapest bucket that is not empty, moving current
+  // on to its cost, and hand the entry out again later
+  // returns the cell of that entry
+  int pop() {
+    int bucket = this.current % (MAX_COST + 1);
+    while (this.bucketHead[bucket] == -1) {
+      this.current++;
+      bucket = this.current % (MAX_COST + 1);
+    }
+    int entry = this.bucketHead[bucket];
+    this.bucketHead[bucket] = this.entryNext[entry];
+    this.entryNext[entry] = this.free;
+    this.free = entry;
+    this.queued--;
+    return this.entryCell[entry];
+  }
+
+  // to find whether the search is over, because the goal was found or there is
+  // nothing left to visit
+  boolean isDone() {
+    return this.found || this.queued == 0;
+  }
+
+  // EFFECT: to visit the cheapest cell of the buckets and push the cells it has passages
+  // to that are now cheaper to reach than before
+  // returns the visited cell, or -1 if the search is already over
+  int step() {
+    int next = -1;
+    while (next == -1 && !this.isDone()) {
+      int cell = this.pop();
+      if (!this.closed.get(cell)) {
+        next = cell;
+      }
+    }
+    if (next == -1) {
+      return -1;
+    }
+    this.closed.set(next);
+    this.visit(next);
+    if (next == this.goal) {
+      this.found = true;
+    } else {
+      int count = this.walls.neighbors(next, this.around);
+      for (int i = 0; i < count; i++) {
+        int cell = this.around[i];
+        int cost = this.cost[next] + DijkstraSolver.passageCost(this.costSeed, next, cell);
+        if (!this.closed.get(cell) && (!this.seen.get(cell) || cost < this.cost[cell])) {
+          this.seen.set(cell);
+          this.cost[cell] = cost;
+          this.parent[cell] = next;
+          this.push(cell);
+        }
+      }
+    }
+    return next;
+  }
+
+  // to find the cost of the path from the start to the goal
+  // returns -1 if the goal has not been found
+  int pathCost() {
+    if (!this.found) {
+      return -1;
+    }
+    return this.cost[this.goal];
+  }
+}
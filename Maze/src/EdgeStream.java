@@ -0,0 +1,84 @@
+// to hand out every edge of a grid exactly once, in the random order kruskal's considers
+// them, numbered the way MazeGenerator numbers them
+// nothing is listed or sorted up front: the horizontal and the vertical edges are each
+// shuffled by a RandomPermutation, and the two shuffles are merged as if every edge had
+// drawn a random weight, the biased direction from half the range of the other one
+// so a biased direction runs out twice as fast during the first half of the stream and the
+// other direction has the second half to itself, and without a bias the two shuffles are
+// simply one shuffle of all the edges
+class EdgeStream {
+  int horizontalCount; // the horizontal edges are numbered from 0
+  int verticalCount; // the vertical edges are numbered from horizontalCount
+  String bias; // "h" favors horizontal passages, "v" vertical ones, anything else neither
+  boolean biased; // whether the bias is "h" or "v"
+  RandomPermutation horizontal; // the shuffle of the horizontal edges, or of every edge
+  // when there is no bias
+  RandomPermutation vertical; // the shuffle of the vertical edges, empty when there is no
+  // bias
+  int horizontalTaken; // the number of edges handed out from the horizontal shuffle
+  int verticalTaken; // the number of edges handed out from the vertical shuffle
+
+  EdgeStream(int rows, int cols, long seed, String bias) {
+    this.horizontalCount = rows * (cols - 1);
+    this.verticalCount = (rows - 1) * cols;
+    this.horizontal = new RandomPermutation(0, seed);
+    this.vertical = new RandomPermutation(0, ~seed);
+    this.reset(seed, bias);
+  }
+
+  // EFFECT: to start handing out the edges of the same grid again, in the order of the
+  // given seed and bias, reusing both shuffles
+  void reset(long seed, String bias) {
+    this.bias = bias;
+    this.biased = bias.equals("h") || bias.equals("v");
+    this.horizontalTaken = 0;
+    this.verticalTaken = 0;
+    if (this.biased) {
+      this.horizontal.reset(this.horizontalCount, seed);
+      this.vertical.reset(this.verticalCount, ~seed);
+    } else {
+      this.horizontal.reset(this.horizontalCount + this.verticalCount, seed);
+      this.vertical.reset(0, ~seed);
+    }
+  }
+
+  // to find whether any edge is left to hand out
+  boolean hasNext() {
+    return this.horizontalTaken + this.verticalTaken
+        < this.horizontalCount + this.verticalCount;
+  }
+
+  // EFFECT: to hand out the next edge of the stream
+  int next() {
+    if (!this.biased) {
+      int edge = this.horizontal.get(this.horizontalTaken);
+      this.horizontalTaken++;
+      return edge;
+    } else if (this.takeHorizontal()) {
+      int edge = this.horizontal.get(this.horizontalTaken);
+      this.horizontalTaken++;
+      return edge;
+    } else {
+      int edge = this.horizontalCount + this.vertical.get(this.verticalTaken);
+      this.verticalTaken++;
+      return edge;
+    }
+  }
+
+  // to find whether the next edge of a biased stream comes from the horizontal shuffle
+  // every edge stands for an evenly spread weight in its direction's range, and the edge
+  // with the lower weight goes first
+  boolean takeHorizontal() {
+    if (this.horizontalTaken == this.horizontalCount) {
+      return false;
+    } else if (this.verticalTaken == this.verticalCount) {
+      return true;
+    }
+    double horizontalRange = this.bias.equals("h") ? 0.5 : 1.0;
+    double verticalRange = this.bias.equals("v") ? 0.5 : 1.0;
+    double horizontalWeight = (this.horizontalTaken + 0.5) / this.horizontalCount
+        * horizontalRange;
+    double verticalWeight = (this.verticalTaken + 0.5) / this.verticalCount * verticalRange;
+    return horizontalWeight <= verticalWeight;
+  }
+}
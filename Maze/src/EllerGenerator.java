@@ -0,0 +1,174 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// to build a maze one row at a time with eller's algorithm, keeping only the current row
+// in memory, so a maze can have as many rows as its output can hold
+// every cell of a row belongs to a set of cells that are already joined through the rows
+// above: neighbors in different sets may be joined across the wall between them, then
+// every set sends at least one passage down into the next row, and the last row joins
+// whatever sets are left
+// the walls of a row are kept the way WallGrid keeps them, two bits per cell with the
+// right wall on the even bit and the bottom wall on the odd bit
+class EllerGenerator {
+  int cols;
+  long seed;
+  String bias; // "h" favors horizontal passages, "v" vertical ones, anything else neither
+  SplittableRandom rand; // cheaper per draw than Random, which matters at three draws a cell
+  double joinChance; // the chance of joining two neighbors in different sets
+  double downChance; // the chance of a cell opening a passage into the next row
+  long row; // the number of rows built so far
+  long[] rowBits; // the walls of the current row
+  UnionFind sets; // the sets of the cells of the current row, by column
+  int[] roots; // the set of every column of the previous row
+  int[] firstOf; // the first column of the current row that carries on a set from above
+  int[] seen; // the number of cells of a set met so far, by the set's root column
+  int[] pick; // the cell of a set that goes down if no other one does
+  int[] downs; // the number of cells of a set that go down
+
+  EllerGenerator(int cols, long seed, String bias) {
+    this.cols = cols;
+    this.seed = seed;
+    this.bias = bias;
+    this.rand = new SplittableRandom(seed);
+    if (bias.equals("h")) {
+      this.joinChance = 0.75;
+      this.downChance = 0.25;
+    } else if (bias.equals("v")) {
+      this.joinChance = 0.25;
+      this.downChance = 0.75;
+    } else {
+      this.joinChance = 0.5;
+      this.downChance = 0.5;
+    }
+    this.row = 0;
+    this.rowBits = new long[(int) ((2L * cols + 63) >>> 6)];
+    this.sets = new UnionFind(cols);
+    this.roots = new int[cols];
+    this.firstOf = new int[cols];
+    this.seen = new int[cols];
+    this.pick = new int[cols];
+    this.downs = new int[cols];
+  }
+
+  // to find whether the wall on the right of the given column of the current row is standing
+  boolean hasRightWall(int x) {
+    return (this.rowBits[x >>> 5] & (1L << (2 * x))) != 0;
+  }
+
+  // to find whether the wall below the given column of the current row is standing
+  boolean hasBottomWall(int x) {
+    return (this.rowBits[x >>> 5] & (1L << (2 * x + 1))) != 0;
+  }
+
+  // EFFECT: to build the next row of the maze, the last row joins every set that is left
+  void nextRow(boolean last) {
+    if (this.row == 0) {
+      this.sets.reset();
+    } else {
+      this.carrySets();
+    }
+    Arrays.fill(this.rowBits, -1L);
+    // to join neighbors across the walls of the row
+    for (int x = 0; x < this.cols - 1; x++) {
+      if (!this.sets.sameSet(x, x + 1) && (last || this.rand.nextDouble() < this.joinChance)) {
+        this.rowBits[x >>> 5] &= ~(1L << (2 * x));
+        this.sets.union(x, x + 1);
+      }
+    }
+    if (!last) {
+      this.openDown();
+    }
+    this.row++;
+  }
+
+  // EFFECT: to give the cells of a new row their sets: a cell below a passage stays in the
+  // set of the cell above it, and every other cell starts a set of its own
+  void carrySets() {
+    for (int x = 0; x < this.cols; x++) {
+      this.roots[x] = this.sets.find(x);
+      this.firstOf[x] = -1;
+    }
+    for (int x = 0; x < this.cols; x++) {
+      this.sets.size[x] = 1;
+      if (this.hasBottomWall(x)) {
+        this.sets.parent[x] = x;
+      } else if (this.firstOf[this.roots[x]] == -1) {
+        this.firstOf[this.roots[x]] = x;
+        this.sets.parent[x] = x;
+      } else {
+        int first = this.firstOf[this.roots[x]];
+        this.sets.parent[x] = first;
+        this.sets.size[first]++;
+      }
+    }
+  }
+
+  // EFFECT: to open passages into the next row, at random but at least one for every set
+  void openDown() {
+    for (int x = 0; x < this.cols; x++) {
+      int root = this.sets.find(x);
+      this.seen[root]++;
+      // every cell of a set is equally likely to be the one picked
+      if (this.rand.nextInt(this.seen[root]) == 0) {
+        this.pick[root] = x;
+      }
+      if (this.rand.nextDouble() < this.downChance) {
+        this.rowBits[x >>> 5] &= ~(1L << (2 * x + 1));
+        this.downs[root]++;
+      }
+    }
+    for (int x = 0; x < this.cols; x++) {
+      if (this.sets.parent[x] == x) {
+        if (this.downs[x] == 0) {
+          int picked = this.pick[x];
+          this.rowBits[picked >>> 5] &= ~(1L << (2 * picked + 1));
+        }
+        this.seen[x] = 0;
+        this.downs[x] = 0;
+      }
+    }
+  }
+
+  // EFFECT: to knock down the walls of the given row of the given grid that are open in the
+  // current row, the grid must have as many columns as this maze
+  void copyRow(WallGrid walls, int y) {
+    for (int x = 0; x < this.cols; x++) {
+      if (!this.hasRightWall(x)) {
+        walls.removeRightWall(y * this.cols + x);
+      }
+      if (!this.hasBottomWall(x)) {
+        walls.removeBottomWall(y * this.cols + x);
+      }
+    }
+  }
+
+  // EFFECT: to knock down the walls of the given row of the given off heap grid that are
+  // open in the current row, the grid must have as many columns as this maze
+  void copyRow(OffHeapWallGrid walls, long y) {
+    walls.openRow(y, this.rowBits);
+  }
+
+  // EFFECT: to build a maze with as many rows as the given off heap grid into it
+  void fill(OffHeapWallGrid walls) {
+    for (long y = 0; y < walls.rows; y++) {
+      this.nextRow(y == walls.rows - 1);
+      this.copyRow(walls, y);
+    }
+  }
+
+  // EFFECT: to build a maze of the given number of rows and write it to the given stream
+  // row by row, every row as (2 * cols + 7) / 8 bytes holding its wall bits from the lowest
+  // bit of the first byte on
+  void write(long rows, OutputStream out) throws IOException {
+    byte[] buffer = new byte[(2 * this.cols + 7) / 8];
+    for (long y = 0; y < rows; y++) {
+      this.nextRow(y == rows - 1);
+      for (int i = 0; i < buffer.length; i++) {
+        buffer[i] = (byte) (this.rowBits[i >>> 3] >>> (8 * (i & 7)));
+      }
+      out.write(buffer);
+    }
+  }
+}
@@ -0,0 +1,46 @@
+// to represent the walls of a maze read straight out of the open bits of a MazeFile, so
+// a loaded maze is drawn and searched without copying its walls onto the heap
+// the bits are the ones of OffHeapWallGrid, a set bit means the wall is down, and the
+// mapping is read only, so the walls of a loaded maze can only be read
+class MappedWallGrid extends AWallGrid {
+  OffHeapLongs open; // the open bits of cell i are bits 2i and 2i + 1, 32 cells to a long
+
+  MappedWallGrid(int rows, int cols, OffHeapLongs open) {
+    super(rows, cols);
+    this.open = open;
+  }
+
+  // to find whether the wall on the right of the given cell is standing
+  boolean hasRightWall(int cell) {
+    return (this.open.get(cell >>> 5) & (1L << (2 * cell))) == 0;
+  }
+
+  // to find whether the wall below the given cell is standing
+  boolean hasBottomWall(int cell) {
+    return (this.open.get(cell >>> 5) & (1L << (2 * cell + 1))) == 0;
+  }
+
+  // to count the walls that have been knocked down
+  long passageCount() {
+    long passages = 0;
+    for (long i = 0; i < this.open.length; i++) {
+      passages += Long.bitCount(this.open.get(i));
+    }
+    return passages;
+  }
+
+  // to count the longs that hold the wall bits
+  long wordCount() {
+    return this.open.length;
+  }
+
+  // to find the long of open bits at the given index, as the file has it
+  long openWord(long index) {
+    return this.open.get(index);
+  }
+
+  // to find how many bytes the wall bits take up in the file
+  long byteSize() {
+    return 8 * this.open.length;
+  }
+}
@@ -1,209 +1,54 @@
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.BitSet;
 import java.util.Random;
-import java.util.Stack;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
 
 import tester.*;
 import javalib.impworld.*;
 import java.awt.Color;
 import javalib.worldimages.*;
-
-// to represent a cell in a maze
-class Cell {
-  int x;
-  int y;
-  ArrayList<Cell> neighbor = new ArrayList<Cell>();
-
-  Cell(int x, int y) {
-    this.x = x;
-    this.y = y;
-  }
-
-  // to find which tree does this cell belong to
-  public int findRepresentatives(HashMap<Integer, Integer> map, int cols) {
-    int index = this.y * cols + this.x;
-    int representativeIndex = map.get(index);
-    if (representativeIndex == index) {
-      return index;
-    } else {
-      return new Cell(representativeIndex % cols,
-          representativeIndex / cols).findRepresentatives(map, cols);
-    }
-  }
-
-  // to find the index of a cell in the cell list
-  public int findIndex(int cols) {
-    return this.x + this.y * cols;
-  }
-
-  // to find whether the given cell is to the right of this cell
-  public boolean checkRightRelation(Cell cell2) {
-    return cell2.x == (this.x + 1)
-        && cell2.y == this.y;
-  }
-
-  // EFFECT: to place the required wall on the scene
-  // if the boolean right is true then we draw the right wall else the bottom one
-  public void placeWallHelper(WorldScene scene, int cellSize, boolean right) {
-    WorldImage verticalWall = new RectangleImage(1, cellSize, OutlineMode.OUTLINE, Color.BLACK);
-    WorldImage horizontalWall = new RectangleImage(cellSize, 1, OutlineMode.OUTLINE, Color.BLACK);
-
-    if (right) {
-      scene.placeImageXY(verticalWall, (this.x + 1) * cellSize, this.y * cellSize + cellSize / 2);
-    } else {
-      scene.placeImageXY(horizontalWall, this.x * cellSize + cellSize / 2,
-          (this.y + 1) * cellSize);
-    }
-  }
-
-  // EFFECT: to add the given cell as the neighbor of this cell
-  public void addNeighbor(Cell c) {
-    this.neighbor.add(c);
-
-  }
-
-  // EFFECT: to draw the all the cells visited by dfs or bfs
-  public void drawVisited(WorldScene scene, int cellSize) {
-    WorldImage square = new RectangleImage(cellSize / 2, cellSize / 2, OutlineMode.SOLID,
-        new Color(135, 206, 250));    
-    scene.placeImageXY(square, this.x * cellSize + cellSize / 2,
-        this.y * cellSize + cellSize / 2);
-  }
-
-  // EFFECT: to draw the correct path from the start to the end
-  public void drawPath(WorldScene scene, int cellSize) {
-    WorldImage square = new RectangleImage(cellSize / 2, cellSize / 2, OutlineMode.SOLID,
-        new Color(0, 0, 128));   
-    scene.placeImageXY(square, this.x * cellSize + cellSize / 2,
-        this.y * cellSize + cellSize / 2);
-
-  }
-
-  // to find the x coordinate of the cell that we would reach
-  // provided we clicked the given button
-  public int findNextX(String key) {    
-    if (key.equals("right")) {
-      return this.x + 1;
-    } else if (key.equals("left")) {
-      return this.x - 1;
-    } else {
-      return this.x;
-    }
-  }
-
-  //to find the y coordinate of the cell that we would reach
-  // provided we clicked the given button
-  public int findNextY(String key) {
-    if (key.equals("down")) {
-      return this.y + 1;
-    } else if (key.equals("up")) {
-      return this.y - 1;
-    } else {
-      return this.y;
-    }
-  }
-
-  // returns the current cell if the key press is not valid
-  // returns the next cell corresponding to the key press if the key press is valid
-  // given that it has the coordinates of where it will be on the next key press
-  // also adds this cell to the visited list if we have not visited it
-  public Cell validKey(int nextX, int nextY, ArrayList<Cell> visited) {
-    for (Cell c : this.neighbor) {
-      if (c.x == nextX && c.y == nextY) {
-        if (!visited.contains(c)) {
-          visited.add(c);
-        }
-        return c;
-      }
-    }
-    return this;
-  }
-
-  // EFFECT: when in manual mode, this method draws the current position of the user in 
-  // the maze
-  public void drawCell(WorldScene scene, int cellSize) {
-    WorldImage square = new RectangleImage(cellSize / 2, cellSize / 2, OutlineMode.SOLID,
-        new Color(128, 0, 128));
-    scene.placeImageXY(square, this.x * cellSize + cellSize / 2,
-        this.y * cellSize + cellSize / 2);
-  }
-}
-
-// to represent edges that connect cells
-class Edge implements Comparator<Edge> {
-  Cell cell1;
-  Cell cell2;
-  int weight;
-  boolean connected;
-
-  Edge(Cell cell1, Cell cell2, int weight, boolean connected) {
-    this.cell1 = cell1;
-    this.cell2 = cell2;
-    this.weight = weight;
-    this.connected = connected;
-  }
-
-  // just to give an edge to the comparator
-  Edge(){
-
-  }
-
-  // to compare the weight of two edges and find the minimum
-  public int compare(Edge o1, Edge o2) {
-    return o1.weight - o2.weight;
-  }
-
-  // to find if the representatives of the cells in this edge are the same
-  public boolean sameRepresentatives(HashMap<Integer, Integer> map, int cols) {
-    return this.cell1.findRepresentatives(map, cols) == this.cell2.findRepresentatives(map, cols);
-  }
-
-  // EFFECT: to change the status of an edge to connected
-  public void connectCells() {
-    this.connected = true;
-  }
-
-  // EFFECT: to make cell1's representative equal to cell2's representative
-  public void changeRepresentative(HashMap<Integer, Integer> map, int cols) {
-    map.put(this.cell1.findRepresentatives(map, cols), this.cell2.findRepresentatives(map, cols));
-  }
-
-  // EFFECT: to place the right wall of a cell on the scene if the cell and its
-  // right neighbor are not connected. If a cell and its bottom neighbor
-  // are not connected then we place the bottom wall
-  public void placeWall(WorldScene scene, int cellSize) {
-    if (!this.connected) {
-      if (this.cell1.checkRightRelation(this.cell2)) {
-        this.cell1.placeWallHelper(scene, cellSize, true);
-      } else {
-        this.cell1.placeWallHelper(scene, cellSize, false);
-      }
-    }
-  }
-
-  // EFFECT: Makes cell1 the neighbor of cell 2 and vice versa
-  public void addNeighbor() {
-    this.cell1.addNeighbor(this.cell2);
-    this.cell2.addNeighbor(this.cell1);
-  }
-}
-
+import javax.imageio.ImageIO;
 
 class Maze extends World {
+  static final int MAX_VIEW_WIDTH = 1200; // the most pixels across the view of the maze
+  static final int MAX_VIEW_HEIGHT = 800; // the most pixels down the view of the maze
+  static final String SEARCH_KEYS = ASolver.KEYS; // the keys of the searches, in searches
+  static final String MAZE_FILE = "maze.bin"; // where "k" saves the maze and "l" loads it
+  static final String MAZE_PICTURE = "maze.png"; // where "e" exports a picture of the maze
+  static final String MAZE_METRICS = "metrics.jsonl"; // where "j" adds a snapshot of the
+  // metrics
+  static final double BRAID_CHANCE = 0.5; // the chance a dead end is opened before the
+  // first weighted search of a maze
+
   int rows;
   int cols;
   int cellSize;
-  int counter; // to move through the edges in the worklist
   int currPos; // to backtrack from the end of the maze to the start
   int keyCounter; // to count the score in manual mode
   // the score will be equal to the number of keys pressed
   boolean bfs; // to signal onTick when to implement bfs
   boolean dfs; // to signal onTick when to implement dfs
+  boolean astar; // to signal onTick when to implement a*
+  boolean bidirectional; // to signal onTick when to implement bfs from both ends
+  boolean weighted; // to signal onTick when to implement dijkstra's over weighted passages
   boolean manual; // to toggle manual mode
   boolean render; // to toggle drawing and solving of the maze 
   boolean animatePath; // to toggle animation of the part once the solution
@@ -212,19 +57,39 @@ class Maze extends World {
   boolean winMessage; // to indicate the user that the maze has been solved 
   Cell currentCell; // to indicate where the user is in the maze
   ArrayList<Cell> cellList = new ArrayList<Cell>(); //to represent the grid of cells  
-  ArrayList<Edge> workList = new ArrayList<Edge>(); // all the edges in the grid
-  // we run kruskal's on this
-  ArrayList<Edge> edgesInTree = new ArrayList<Edge>(); // records all the edges in the tree
-  HashMap<Integer, Integer> map = new HashMap<Integer, Integer>(); // the hashmap for kruskal's
-  HashMap<Integer, Integer> cameFromEdge = new HashMap<Integer, Integer>();
-  // helps backtrack the path from the end cell to the beginning
-  Queue<Cell> workQueue = new LinkedList<Cell>(); // the queue used by bfs
-  Stack<Cell> workStack = new Stack<Cell>(); // the stack used by dfs
+  MazeGenerator generator; // builds the maze one edge per tick
+  AWallGrid walls; // the walls of the maze, knocked down by the generator as it runs, or
+  // read from a loaded file
+  ASolver solver; // the bfs, dfs, a*, bidirectional or weighted search, its parents help
+  // backtrack
+  // the path from the end cell to the beginning, null until a search is started
+  ASolver[] searches = new ASolver[SEARCH_KEYS.length()]; // the search of every key that has
+  // run on this world, kept to start over without new arrays
   ArrayList<Cell> visited = new ArrayList<Cell>(); // the list of cells visited by bfs or dfs or 
   // in the manual mode
+  BitSet walked = new BitSet(); // the indices of the cells visited in the manual mode
   ArrayList<Cell> path = new ArrayList<Cell>(); // the list of cells containing the path between
   // the beginning and end of the maze
   Random rand;
+  MazeLayer layer; // the picture of the maze kept between frames
+  TickBudget generateBudget; // how much of the maze is built in a tick
+  TickBudget searchBudget; // how many cells the search visits in a tick
+  TickBudget pathBudget; // how many cells of the path are animated in a tick
+  MazeMetrics metrics; // where the time of the current maze went, started over for every maze
+  boolean showMetrics; // to toggle the overlay of the metrics
+  boolean showHint; // to toggle the hint of the way to the exit in manual mode
+  PathIndex exitIndex; // the finished maze hung from its exit, so the way out of any cell
+  // is its parent, null until the first maze of these walls is finished
+  boolean exitIndexed; // whether exitIndex is hung from the current maze
+  boolean braided; // whether the current maze has been braided for a weighted search
+  boolean background; // whether new mazes and searches are handed to the worker
+  MazeWorker worker; // builds and searches off the world's thread, null until first used
+  boolean workerBuilds; // whether the worker is building the current maze
+  boolean workerSearches; // whether the worker has the current search
+  MazeSnapshot taken; // the last snapshot of the worker the world has taken in
+  RaceView race; // the searches racing over the finished maze, null when there is no race
+  int savedVisited; // the cells the search saved with the loaded maze visited, -1 unless
+  // its path is shown
 
   Maze(int rows, int cols, Random rand) {
     this.rows = rows;
@@ -232,6 +97,9 @@ class Maze extends World {
     this.rand = rand;
     this.bfs = false;
     this.dfs = false;
+    this.astar = false;
+    this.bidirectional = false;
+    this.weighted = false;
     this.render = true;
     this.animatePath = false;
     this.showVisited = true;
@@ -239,11 +107,18 @@ class Maze extends World {
     this.winMessage = false;
     this.keyCounter = 0;
     this.cellSize = 30;
-    this.counter = 0;
+    this.showMetrics = false;
+    this.showHint = false;
+    this.exitIndexed = false;
+    this.braided = false;
+    this.background = false;
+    this.workerBuilds = false;
+    this.workerSearches = false;
+    this.savedVisited = -1;
+    this.setBudgets(TickBudget.steps(1), TickBudget.steps(1), TickBudget.steps(1));
 
     this.initializeCellList();
-    this.initializeHashMap();
-    this.initializeWorkList("noBias");
+    this.initializeGenerator("noBias");
     this.path.add(this.cellList.get(this.cellList.size() - 1));
     this.currPos = this.cellList.size() - 1;
     this.currentCell = this.cellList.get(0);
@@ -253,54 +128,53 @@ class Maze extends World {
   public void onKeyReleased(String key) {
     if (!this.manual && key.equals("b")) {
       // to implement bfs 
-      this.workQueue.add(this.cellList.get(0));
-      this.bfs = true;
+      this.bfs = this.startSearch(key);
     } else if (!this.manual && key.equals("d")) {
       // to implement dfs
-      this.workStack.push(this.cellList.get(0));
-      this.dfs = true;
+      this.dfs = this.startSearch(key);
+    } else if (!this.manual && key.equals("a")) {
+      // to implement a*
+      this.astar = this.startSearch(key);
+    } else if (!this.manual && key.equals("t")) {
+      // to implement bfs from both ends
+      this.bidirectional = this.startSearch(key);
+    } else if (!this.manual && key.equals("w")) {
+      // to implement dijkstra's over passages that cost between 0 and 99, on the maze
+      // braided so there is more than one way to the exit; the search before is cleared
+      // first, it reads the walls the braiding knocks down
+      this.replaceSearch(key);
+      this.braidForWeights();
+      this.weighted = this.startSearch(key);
     } else if (key.equals("n")) {
       // new random maze
       this.rand = new Random();
       this.bfs = false;
       this.dfs = false;
+      this.astar = false;
+      this.bidirectional = false;
+      this.weighted = false;
       this.render = true;
       this.animatePath = false;
-      this.counter = 0;
       this.keyCounter = 0;
       this.winMessage = false;
-      this.edgesInTree = new ArrayList<Edge>();
-      this.cameFromEdge = new HashMap<Integer, Integer>();
-      this.workQueue = new LinkedList<Cell>();
-      this.workList = new ArrayList<Edge>();
-      this.workStack = new Stack<Cell>();
-      this.visited = new ArrayList<Cell>();
-      this.path = new ArrayList<Cell>();
-      this.initializeHashMap();
-      this.initializeWorkList("noBias");
+      this.clearSearch();
+      this.initializeGenerator("noBias");
       this.currentCell = this.cellList.get(0);
-      this.path.add(this.cellList.get(this.cellList.size() - 1));
-      this.currPos = this.cellList.size() - 1;
-      for (Cell c : this.cellList) {
-        c.neighbor = new ArrayList<Cell>();
-      } 
     } else if (key.equals("r")) {
       // refresh the maze
       // recreate the same maze without closing the program
       this.bfs = false;
       this.dfs = false;
+      this.astar = false;
+      this.bidirectional = false;
+      this.weighted = false;
       this.render = true;
       this.animatePath = false;
       this.winMessage = false;
       this.keyCounter = 0;
       this.currentCell = this.cellList.get(0);
-      this.cameFromEdge = new HashMap<Integer, Integer>();
-      this.workQueue = new LinkedList<Cell>();
-      this.workStack = new Stack<Cell>();
-      this.visited = new ArrayList<Cell>();
-      this.path = new ArrayList<Cell>();
-      this.path.add(this.cellList.get(this.cellList.size() - 1));
-      this.currPos = this.cellList.size() - 1;
+      this.clearSearch();
+      this.layer.repaint(this.visited, this.path, this.showVisited);
     } else if (key.equals("s")) {
       // to toggle the viewing of visited cells
       if (this.showVisited) {
@@ -310,83 +184,290 @@ class Maze extends World {
       }
     } else if (key.equals("m")) {
       // to toggle the manual mode
+      this.stopRace();
       if (this.manual) {
         this.manual = false;
-        this.visited = new ArrayList<Cell>();
+        this.visited.clear();
+        this.walked.clear();
         this.currentCell = this.cellList.get(0);
       } else {
         this.manual = true;
-        this.visited = new ArrayList<Cell>(Arrays.asList(this.cellList.get(0)));
+        this.visited.clear();
+        this.walked.clear();
+        this.visited.add(this.cellList.get(0));
+        this.walked.set(0);
       }
+      this.layer.repaint(this.visited, this.path, this.showVisited);
     } else if (this.manual && (key.equals("up")
         || key.equals("down") || key.equals("left") || key.equals("right"))) {
       // to move once manual mode is toggled
       int nextX = this.currentCell.findNextX(key);
       int nextY = this.currentCell.findNextY(key);
       this.keyCounter++;
-      this.currentCell = this.currentCell.validKey(nextX, nextY, this.visited);         
+      this.currentCell = this.currentCell.validKey(nextX, nextY, this.walls, this.cellList,
+          this.visited, this.walked);
+      this.layer.show(this.currentCell);
       if (currentCell.equals(this.cellList.get(this.cellList.size() - 1))) {          
         this.winMessage = true;        
       }
+    } else if (key.equals("1")) {
+      // to do one step of every phase a tick
+      this.background = false;
+      this.setBudgets(TickBudget.steps(1), TickBudget.steps(1), TickBudget.steps(1));
+    } else if (key.equals("2")) {
+      // to spend about half of a frame of a 60 hertz screen on every phase
+      this.background = false;
+      this.setBudgets(TickBudget.millis(8), TickBudget.millis(8), TickBudget.millis(8));
+    } else if (key.equals("3")) {
+      // to finish every phase in the tick it starts
+      this.background = false;
+      this.setBudgets(TickBudget.instant(), TickBudget.instant(), TickBudget.instant());
+    } else if (key.equals("4")) {
+      // to build the next mazes and run the searches on the worker, a tick only takes in
+      // what it has done
+      this.background = true;
+    } else if (key.equals("i")) {
+      // to toggle the overlay of the metrics
+      this.showMetrics = !this.showMetrics;
+    } else if (key.equals("j")) {
+      // to add a snapshot of the metrics to the end of the file of metrics
+      this.appendMetrics(Paths.get(MAZE_METRICS));
+    } else if (key.equals("k")) {
+      // to save the maze, with the path of the search if it found the exit
+      this.saveFile(Paths.get(MAZE_FILE));
+    } else if (key.equals("l")) {
+      // to load the saved maze in place of this one
+      this.loadFile(Paths.get(MAZE_FILE));
+    } else if (key.equals("g")) {
+      // to toggle the hint of the way to the exit in manual mode
+      this.showHint = !this.showHint;
+    } else if (key.equals("e")) {
+      // to export a picture of the whole maze as it is shown
+      this.exportFile(Paths.get(MAZE_PICTURE));
+    } else if (key.equals("x")) {
+      // to race every search over the finished maze side by side, or end the race
+      if (this.race != null) {
+        this.stopRace();
+      } else if (!this.manual && !this.render) {
+        this.race = new RaceView(new SolverRace(this.walls, SEARCH_KEYS, this.generator.seed),
+            this.cellList, this.layer.image.width, this.layer.image.height);
+        this.race.race.start();
+      }
+    } else if (key.equals("+") || key.equals("=")) {
+      // to zoom in on the middle of the view
+      this.layer.zoomIn();
+    } else if (key.equals("-")) {
+      // to zoom out from the middle of the view, past a pixel a cell into the overview
+      this.layer.zoomOut();
+    } else if (!this.manual && (key.equals("up")
+        || key.equals("down") || key.equals("left") || key.equals("right"))) {
+      // to move the view a quarter of its size in the direction of the key
+      Cell direction = new Cell(0, 0);
+      this.layer.pan(direction.findNextX(key) * this.layer.image.width / 4,
+          direction.findNextY(key) * this.layer.image.height / 4);
     } else if (key.equals("h") || key.equals("v")) {  
       // to create a new random maze with vertical or horizontal bias
       this.rand = new Random();
       this.bfs = false;
       this.dfs = false;
+      this.astar = false;
+      this.bidirectional = false;
+      this.weighted = false;
       this.render = true;
       this.animatePath = false;
-      this.counter = 0;
       this.keyCounter = 0;
       this.winMessage = false;
-      this.edgesInTree = new ArrayList<Edge>();
-      this.cameFromEdge = new HashMap<Integer, Integer>();
-      this.workQueue = new LinkedList<Cell>();
-      this.workList = new ArrayList<Edge>();
-      this.workStack = new Stack<Cell>();
-      this.visited = new ArrayList<Cell>();
-      this.path = new ArrayList<Cell>();
-      this.initializeHashMap();
-      this.initializeWorkList(key);
+      this.clearSearch();
+      this.initializeGenerator(key);
       this.currentCell = this.cellList.get(0);
-      this.path.add(this.cellList.get(this.cellList.size() - 1));
-      this.currPos = this.cellList.size() - 1;
-      for (Cell c : this.cellList) {
-        c.neighbor = new ArrayList<Cell>();
-      }
     }
   }
 
   // to update the world on every tick
+  // every phase does as many steps as its budget allows
+  // a phase the worker does is only taken in, and a search that is under way when the
+  // world goes to the background is handed to the worker where it is
   public void onTick() {
-    if (this.render && this.edgesInTree.size() < this.rows * this.cols - 1) {
-      Edge currentEdge = this.workList.get(counter);
-      if (!currentEdge.sameRepresentatives(this.map, this.cols)) {
-        currentEdge.connectCells();    
-        this.edgesInTree.add(currentEdge);
-        currentEdge.addNeighbor();
-        currentEdge.changeRepresentative(this.map, this.cols); 
-      }
-      counter++;
+    if (this.workerBuilds || this.workerSearches) {
+      this.takeSnapshot();
+    }
+    if (this.race != null) {
+      this.race.takeIn();
+    }
+    long start = System.nanoTime();
+    int done = 0;
+    while (this.render && !this.workerBuilds && !this.generator.isDone()
+        && this.generateBudget.allows(done, start)) {
+      int edge = this.generator.step();
+      this.layer.openWall(this.generator.edgeCell1(edge), this.generator.edgeCell2(edge));
+      done++;
     }
-    if (this.render && this.edgesInTree.size() == this.rows * this.cols - 1) {
+    if (done > 0) {
+      this.metrics.generateNanos += System.nanoTime() - start;
+    }
+    if (this.render && this.generator.isDone()) {
       this.render = false;
+      this.indexExit();
+    }
+    if (!this.render && this.background && !this.workerSearches && this.searching()) {
+      this.taken = this.worker().search(this.solver);
+      this.workerSearches = true;
     }
-    if (this.bfs  && !this.render) {
-      this.bfs();
+    start = System.nanoTime();
+    done = 0;
+    while (!this.render && !this.workerSearches && this.searching()
+        && this.searchBudget.allows(done, start)) {
+      if (this.bfs) {
+        this.bfs();
+      }
+      if (this.dfs) {
+        this.dfs();
+      }
+      if (this.astar) {
+        this.astar();
+      }
+      if (this.bidirectional) {
+        this.bidirectional();
+      }
+      if (this.weighted) {
+        this.weighted();
+      }
+      done++;
     }
-    if (this.dfs  && !this.render) {
-      this.dfs();
+    if (done > 0) {
+      this.metrics.searchNanos += System.nanoTime() - start;
     }
-    if (this.animatePath) {
+    start = System.nanoTime();
+    done = 0;
+    while (this.animatePath && this.pathBudget.allows(done, start)) {
       this.animatePath(this.currPos);
+      done++;
     }
+    if (done > 0) {
+      this.metrics.pathNanos += System.nanoTime() - start;
+    }
+  }
+
+  // to find whether a search is under way
+  boolean searching() {
+    return this.bfs || this.dfs || this.astar || this.bidirectional || this.weighted;
+  }
+
+  // to find the worker of this world, made the first time it is needed
+  MazeWorker worker() {
+    if (this.worker == null) {
+      this.worker = new MazeWorker(this.rows, this.cols, MazeWorker.PUBLISH_NANOS);
+    }
+    return this.worker;
+  }
+
+  // EFFECT: to take in what the worker has published since the last snapshot taken: the
+  // walls it knocked down while it builds, the cells it visited while it searches and the
+  // path once its search is over
+  // once its job is done, the world has the maze or the search back as if it had done the
+  // work itself
+  // more than MazeLayer.REPAINT_CELLS new walls are knocked down in the grid alone, and the
+  // view is painted again once in the next frame
+  // the worker publishes the end of a job as the last thing it does, so waiting for its
+  // thread then is over at once and leaves it with no thread
+  void takeSnapshot() {
+    MazeSnapshot snapshot = this.worker.latest;
+    if (this.workerBuilds) {
+      boolean repaint = snapshot.edges - this.taken.edges > MazeLayer.REPAINT_CELLS;
+      for (int i = this.taken.edges; i < snapshot.edges; i++) {
+        int edge = snapshot.edgeLog[i];
+        this.generator.follow(edge);
+        if (!repaint) {
+          this.layer.openWall(this.generator.edgeCell1(edge),
+              this.generator.edgeCell2(edge));
+        }
+      }
+      this.layer.stale = this.layer.stale || repaint;
+      this.metrics.generateNanos += snapshot.nanos - this.taken.nanos;
+      if (snapshot.done) {
+        // the sets of the world never ran, they count what the sets of the worker did
+        this.generator.sets.finds = snapshot.finds;
+        this.generator.sets.hops = snapshot.hops;
+        this.generator.sets.unions = snapshot.unions;
+        this.exitIndex = snapshot.exitIndex;
+        this.exitIndexed = true;
+        this.workerBuilds = false;
+      }
+    } else {
+      for (int i = this.taken.visited; i < snapshot.visited; i++) {
+        this.visited.add(this.cellList.get(snapshot.visitLog[i]));
+      }
+      this.metrics.searchNanos += snapshot.nanos - this.taken.nanos;
+      if (snapshot.done) {
+        for (int i = 1; i < snapshot.path.length; i++) {
+          this.path.add(this.cellList.get(snapshot.path[i]));
+        }
+        this.bfs = false;
+        this.dfs = false;
+        this.astar = false;
+        this.bidirectional = false;
+        this.weighted = false;
+        this.workerSearches = false;
+      }
+    }
+    if (snapshot.done) {
+      this.worker.await();
+    }
+    this.taken = snapshot;
+  }
+
+  // to count the cells the current search has expanded, as far as the world has seen
+  int expanded() {
+    if (this.workerSearches) {
+      return this.taken.visited;
+    } else {
+      return this.solver.visitedCount;
+    }
+  }
+
+  // to list the metrics of the current maze and search in the order of MazeMetrics.NAMES,
+  // with the counters of the last snapshot taken for the phase the worker is doing, or of
+  // the search saved with a loaded maze
+  long[] metricValues() {
+    UnionFind sets = this.generator.sets;
+    if (this.workerBuilds) {
+      return this.metrics.values(this.taken.finds, this.taken.hops, this.taken.unions, 0, 0,
+          0);
+    } else if (this.workerSearches) {
+      return this.metrics.values(sets.finds, sets.hops, sets.unions, this.taken.visited,
+          this.taken.maxFrontier, this.taken.path.length);
+    } else if (this.savedVisited >= 0) {
+      // the file keeps no frontier
+      return this.metrics.values(sets.finds, sets.hops, sets.unions, this.savedVisited, 0,
+          this.path.size());
+    } else {
+      return this.metrics.values(sets, this.solver);
+    }
+  }
+
+  // to write the id the catalog knows the current maze by
+  String mazeId() {
+    return MazeCatalog.id(this.rows, this.cols, this.generator.seed, this.generator.bias);
+  }
+
+  // to write a snapshot of the metrics of the current maze and search as json
+  String metricsJson() {
+    return this.metrics.toJson(this.metricValues());
+  }
+
+  // EFFECT: to set how much work building the maze, searching it and animating the path
+  // may each do in a tick
+  void setBudgets(TickBudget generate, TickBudget search, TickBudget path) {
+    this.generateBudget = generate;
+    this.searchBudget = search;
+    this.pathBudget = path;
   }
 
   // EFFECT: to animate the solution of the dfs or bfs search on every tick
   void animatePath(int currPos) {
-    int prevPos = this.cameFromEdge.get(currPos);
-    if (prevPos == 0) {
-      this.path.add(this.cellList.get(0));
+    int prevPos = this.solver.parent[currPos];
+    if (prevPos == this.solver.start) {
+      this.path.add(this.cellList.get(prevPos));
       this.animatePath = false;
     } else {
       this.path.add(this.cellList.get(prevPos));
@@ -394,99 +475,375 @@ class Maze extends World {
     }
   }
 
-  // EFFECT: to perform a single step of the breadth first search
-  void bfs() {
-    if (this.bfs) {
-      if (this.workQueue.size() != 0) {
-        Cell next = this.workQueue.remove();
-        if (!this.visited.contains(next)) {   
-          if (next.equals(this.cellList.get(this.cellList.size() - 1))) {
-            this.visited.add(next);
-            this.animatePath = true;
-            this.bfs = false;
-          } else {
-            this.visited.add(next);
-            for (Cell c : next.neighbor) {
-              if (!this.visited.contains(c)) {
-                this.workQueue.add(c);
-                this.cameFromEdge.put(this.cellList.indexOf(c), this.cellList.indexOf(next));
-              }
-            }
-          }              
-        }      
+  // EFFECT: to hang the finished maze from its exit, unless it already is, so the hint of
+  // every cell is a lookup: the next move is the parent of the cell and the moves left are
+  // its depth
+  // a later maze of the same walls is hung again in the arrays of the first
+  void indexExit() {
+    if (!this.exitIndexed) {
+      if (this.exitIndex == null || this.exitIndex.walls != this.walls) {
+        this.exitIndex = new PathIndex(this.walls, this.cellList.size() - 1);
+      } else {
+        this.exitIndex.build();
       }
+      this.exitIndexed = true;
     }
   }
 
-  // EFFECT: to perform a single step of the depth first search
-  void dfs() {
-    if (this.dfs) {
-      if (this.workStack.size() != 0) {
-        Cell next = this.workStack.pop();
-        if (!this.visited.contains(next)) {   
-          if (next.equals(this.cellList.get(this.cellList.size() - 1))) {
-            this.visited.add(next);
-            this.animatePath = true;
-            this.dfs = false;
-          } else {
-            this.visited.add(next);
-            for (Cell c : next.neighbor) {
-              if (!this.visited.contains(c)) {
-                this.workStack.add(c);
-                this.cameFromEdge.put(this.cellList.indexOf(c), this.cellList.indexOf(next));
-              }
-            }
-          }              
-        }      
+  // EFFECT: to braid the finished maze before its first weighted search, so the costs of
+  // the passages have loops to choose between and the cheapest path is not always the
+  // shortest one; the maze is hung from its exit again and the view painted again
+  // the walls of a loaded maze are read only and stay as they are, and nothing is braided
+  // while a search or a race reads the walls
+  void braidForWeights() {
+    if (!this.braided && !this.render && this.solver == null && this.race == null
+        && this.walls == this.generator.walls) {
+      MazeGenerator.braid(this.generator.walls, this.generator.seed, BRAID_CHANCE);
+      this.braided = true;
+      this.exitIndexed = false;
+      this.indexExit();
+      this.layer.stale = true;
+    }
+  }
+
+  // to find the key that moves the player from the given cell one cell closer to the exit,
+  // "" at the exit
+  // the maze must be indexed
+  String hintKey(Cell cell) {
+    int index = cell.y * this.cols + cell.x;
+    int next = this.exitIndex.parent[index];
+    if (next == index) {
+      return "";
+    } else if (next == index + 1) {
+      return "right";
+    } else if (next == index - 1) {
+      return "left";
+    } else if (next > index) {
+      return "down";
+    } else {
+      return "up";
+    }
+  }
+
+  // to count the moves from the given cell to the exit, the maze must be indexed
+  int movesLeft(Cell cell) {
+    return this.exitIndex.depth[cell.y * this.cols + cell.x];
+  }
+
+  // to write the hint of the given cell: how many moves the exit is and the way to it
+  // the maze must be indexed
+  String hint(Cell cell) {
+    int moves = this.movesLeft(cell);
+    if (moves == 0) {
+      return "At the exit";
+    } else {
+      return "Exit: " + moves + (moves == 1 ? " move" : " moves") + ", go "
+          + this.hintKey(cell);
+    }
+  }
+
+  // EFFECT: to set up the search of the given key from the first cell to the last one,
+  // unless it has already been started on this maze; the search of another key is
+  // cleared first, so every key runs the search it names
+  // a search of a key that has run before on these walls starts over in the arrays it
+  // had
+  // returns whether the search has cells left to visit, so a key pressed once the search
+  // is over neither steps it nor animates its path again
+  boolean startSearch(String key) {
+    this.replaceSearch(key);
+    if (this.solver == null) {
+      int kind = Math.max(0, SEARCH_KEYS.indexOf(key));
+      if (this.searches[kind] == null) {
+        this.searches[kind] = ASolver.forKey(key, this.walls, 0, this.cellList.size() - 1,
+            this.generator.seed);
+      } else {
+        this.searches[kind].restart(this.generator.seed);
       }
+      this.solver = this.searches[kind];
     }
+    return this.workerSearches || !this.solver.isDone();
   }
 
-  // EFFECT: to create a list of all the edges in the maze and sort them by weights
-  void initializeWorkList(String key) {
-    // to add the horizontal edges  
-    if (key.equals("h")) {
-      for (int i = 0, j = 1; j < this.rows * this.cols; i++, j++) {
-        if (j % this.cols != 0) {
-          Edge newEdge = new Edge(this.cellList.get(i), this.cellList.get(j),
-              this.rand.nextInt(50), false);
-          this.workList.add(newEdge);
-        }
+  // EFFECT: to clear the search, its flag and the animation of its path, unless it is the
+  // search of the given key, and paint the view again without them
+  // the path saved with a loaded maze is always cleared, a new search runs in its place
+  void replaceSearch(String key) {
+    if (this.savedVisited >= 0 || (this.solver != null && !this.solverKey().equals(key))) {
+      this.bfs = false;
+      this.dfs = false;
+      this.astar = false;
+      this.bidirectional = false;
+      this.weighted = false;
+      this.animatePath = false;
+      this.clearSearch();
+      this.layer.repaint(this.visited, this.path, this.showVisited);
+    }
+  }
+
+  // to find the key of the current search, "" if there is none
+  String solverKey() {
+    for (int i = 0; i < this.searches.length; i++) {
+      if (this.solver != null && this.searches[i] == this.solver) {
+        return SEARCH_KEYS.substring(i, i + 1);
       }
-    } else {
-      for (int i = 0, j = 1; j < this.rows * this.cols; i++, j++) {
-        if (j % this.cols != 0) {
-          Edge newEdge = new Edge(this.cellList.get(i), this.cellList.get(j),
-              this.rand.nextInt(100), false);
-          this.workList.add(newEdge);
+    }
+    return "";
+  }
+
+  // EFFECT: to save the finished maze to the given file, with the path of the search if it
+  // found the exit, nothing is saved while the maze is being built
+  // the maze is written next to the file and moved over it, so a maze mapped from the
+  // file keeps its walls; a failure is reported on the standard error
+  // a search the worker still has is left out, it has not found the exit yet
+  void saveFile(Path file) {
+    if (this.generator.isDone()) {
+      Path written = Paths.get(file + ".part");
+      ASolver search = this.workerSearches ? null : this.solver;
+      try {
+        try (OutputStream out = Files.newOutputStream(written)) {
+          MazeFile.save(this.walls, this.generator.seed, this.generator.bias, search,
+              this.solverKey(), out);
         }
+        Files.move(written, file, StandardCopyOption.REPLACE_EXISTING);
+      } catch (IOException e) {
+        System.err.println("Could not save the maze to " + file + ": " + e.getMessage());
       }
     }
+  }
 
-    // to add the vertical edges
-    if (key.equals("v")) {
-      for (int i = 0, j = i + this.cols; j < this.rows * this.cols; i++, j++) {
-        Edge newEdge = new Edge(this.cellList.get(i), this.cellList.get(j),
-            this.rand.nextInt(50), false);
-        this.workList.add(newEdge);
-      }
-      Collections.sort(this.workList, new Edge());
-    } else {
-      for (int i = 0, j = i + this.cols; j < this.rows * this.cols; i++, j++) {
-        Edge newEdge = new Edge(this.cellList.get(i), this.cellList.get(j),
-            this.rand.nextInt(100), false);
-        this.workList.add(newEdge);
+  // EFFECT: to export a png of the whole finished maze to the given file at the cell size
+  // of the world, with the path and, when they are shown, the visited cells as painted,
+  // nothing is exported while the maze is being built; a failure is reported on the
+  // standard error
+  void exportFile(Path file) {
+    if (this.generator.isDone()) {
+      Path written = Paths.get(file + ".part");
+      int width = this.cols * this.cellSize + 1;
+      try {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(written),
+            PngWriter.CHUNK_BYTES)) {
+          MazeExport.writePng(this.walls,
+              this.showVisited ? this.layer.visitedCells : new BitSet(), this.layer.onPath,
+              this.cellSize, MazeExport.stripHeight(width), out);
+        }
+        Files.move(written, file, StandardCopyOption.REPLACE_EXISTING);
+      } catch (IOException e) {
+        System.err.println("Could not export the maze to " + file + ": " + e.getMessage());
       }
-      Collections.sort(this.workList, new Edge());
     }
   }
 
-  // EFFECT: to add the index of cells in the cellList as keys and set
-  // their respective values to themselves
-  void initializeHashMap() {
-    for (int i = 0; i < this.rows * this.cols; i++) {
-      this.map.put(i, i);
-    }  
+  // EFFECT: to add a snapshot of the metrics to the end of the given file as a line of
+  // json, the way BatchRunner writes its results with --format jsonl; the file is made if
+  // it is missing, and a failure is reported on the standard error
+  void appendMetrics(Path file) {
+    try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+      out.write(this.metricsJson());
+      out.write("\n");
+    } catch (IOException e) {
+      System.err.println("Could not write the metrics to " + file + ": " + e.getMessage());
+    }
+  }
+
+  // EFFECT: to load the maze saved in the given file in place of this one
+  // a file that cannot be read or holds a maze of another size is reported on the
+  // standard error and this maze stays
+  void loadFile(Path file) {
+    try {
+      this.load(MazeFile.open(file));
+    } catch (IOException | IllegalArgumentException e) {
+      System.err.println("Could not load the maze from " + file + ": " + e.getMessage());
+    }
+  }
+
+  // EFFECT: to show the maze of the given file, complete and ready to search, with its
+  // walls read straight from the file, and the path of the search saved with it and the
+  // cells that search visited
+  // throws an IllegalArgumentException if the maze in the file is not the size of this one,
+  // does not join every cell or has a saved path that does not run through it, before
+  // anything of this maze has changed
+  void load(MazeFile file) {
+    if (file.rows != this.rows || file.cols != this.cols) {
+      throw new IllegalArgumentException("The saved maze is " + file.rows + "x" + file.cols
+          + ", this one is " + this.rows + "x" + this.cols);
+    }
+    MappedWallGrid walls = file.walls();
+    PathIndex exitIndex = new PathIndex(walls, this.cellList.size() - 1);
+    if (!Maze.runsThrough(file, walls)) {
+      throw new IllegalArgumentException("The saved path does not run through the maze");
+    }
+    this.bfs = false;
+    this.dfs = false;
+    this.astar = false;
+    this.bidirectional = false;
+    this.weighted = false;
+    this.render = false;
+    this.animatePath = false;
+    this.keyCounter = 0;
+    this.winMessage = false;
+    if (this.workerBuilds) {
+      this.worker.stop();
+      this.workerBuilds = false;
+    }
+    this.clearSearch();
+    this.generator.adopt(file.seed, file.bias);
+    this.useWalls(walls);
+    this.exitIndex = exitIndex;
+    this.exitIndexed = true;
+    for (long i = 1; i < file.pathLength(); i++) {
+      this.path.add(this.cellList.get((int) file.pathCell(i)));
+    }
+    if (file.pathLength() > 0) {
+      this.savedVisited = (int) file.visitedCount;
+    }
+    this.metrics.reset();
+    this.layer.reset(this.cellSize, this.visited, this.path, this.showVisited);
+    this.currentCell = this.cellList.get(0);
+  }
+
+  // to find whether the path saved in the given file, if there is one, runs through
+  // passages of the given walls from the last cell back to the first one and its search
+  // visited at least its cells and at most every cell
+  static boolean runsThrough(MazeFile file, AWallGrid walls) {
+    long length = file.pathLength();
+    if (length == 0) {
+      return true;
+    }
+    boolean runs = file.pathCell(0) == walls.cellCount() - 1 && file.pathCell(length - 1) == 0
+        && file.visitedCount >= length && file.visitedCount <= walls.cellCount();
+    for (long i = 1; i < length && runs; i++) {
+      long cell = file.pathCell(i);
+      runs = cell >= 0 && cell < walls.cellCount()
+          && walls.isOpen((int) file.pathCell(i - 1), (int) cell);
+    }
+    return runs;
+  }
+
+  // EFFECT: to draw and search the given walls from now on
+  // the kept searches were made for the walls before, so they are dropped when the walls
+  // are another grid
+  void useWalls(AWallGrid walls) {
+    if (walls != this.walls) {
+      this.walls = walls;
+      this.layer.walls = walls;
+      Arrays.fill(this.searches, null);
+      this.exitIndex = null;
+      this.exitIndexed = false;
+    }
+  }
+
+  // EFFECT: to drop the search, or the saved search of a loaded maze, empty the visited
+  // cells and the path in place and start the path at the last cell again
+  // a search the worker has is stopped first, which gives it back to the world, and a race
+  // is ended
+  void clearSearch() {
+    if (this.workerSearches) {
+      this.worker.stop();
+      this.workerSearches = false;
+    }
+    this.stopRace();
+    this.solver = null;
+    this.savedVisited = -1;
+    this.visited.clear();
+    this.walked.clear();
+    this.path.clear();
+    this.path.add(this.cellList.get(this.cellList.size() - 1));
+    this.currPos = this.cellList.size() - 1;
+  }
+
+  // EFFECT: to end the race, if there is one, and drop its panels
+  // the walls of the race are only read while it runs, so it is over before anything
+  // raises or knocks down a wall
+  void stopRace() {
+    if (this.race != null) {
+      this.race.race.stop();
+      this.race = null;
+    }
+  }
+
+  // EFFECT: to perform a single step of the breadth first search
+  void bfs() {
+    if (this.bfs) {
+      this.bfs = this.searchStep();
+    }
+  }
+
+  // EFFECT: to perform a single step of the depth first search
+  void dfs() {
+    if (this.dfs) {
+      this.dfs = this.searchStep();
+    }
+  }
+
+  // EFFECT: to perform a single step of the a* search
+  void astar() {
+    if (this.astar) {
+      this.astar = this.searchStep();
+    }
+  }
+
+  // EFFECT: to perform a single step of the breadth first search from both ends
+  void bidirectional() {
+    if (this.bidirectional) {
+      this.bidirectional = this.searchStep();
+    }
+  }
+
+  // EFFECT: to perform a single step of dijkstra's search over weighted passages
+  void weighted() {
+    if (this.weighted) {
+      this.weighted = this.searchStep();
+    }
+  }
+
+  // EFFECT: to visit the next cell of the search and start animating the path once the
+  // end of the maze has been visited
+  // a search that was already over visits nothing and its path is not animated again
+  // returns whether the search has more cells to visit
+  boolean searchStep() {
+    int next = this.solver.step();
+    if (next != -1) {
+      this.visited.add(this.cellList.get(next));
+      this.animatePath = this.animatePath || this.solver.found;
+    }
+    return !this.solver.isDone();
+  }
+
+  // EFFECT: to start building a new random maze with the given bias, the maze is built
+  // one edge per tick by onTick
+  // "h" favors horizontal passages, "v" vertical ones and anything else neither
+  // the first maze makes the generator, the metrics and the picture, every later one
+  // clears them in place, so building maze after maze leaves next to no garbage
+  // in the background the maze is built by the worker and the world's walls follow it
+  void initializeGenerator(String key) {
+    this.braided = false;
+    if (this.workerBuilds) {
+      this.worker.stop();
+      this.workerBuilds = false;
+    }
+    if (this.generator == null) {
+      this.generator = new MazeGenerator(this.rows, this.cols, this.rand.nextLong(), key);
+      this.walls = this.generator.walls;
+      this.metrics = new MazeMetrics();
+      this.layer = new MazeLayer(this.walls, this.cellList, this.cellSize,
+          Math.min(this.cols * this.cellSize, MAX_VIEW_WIDTH),
+          Math.min(this.rows * this.cellSize, MAX_VIEW_HEIGHT));
+    } else {
+      this.generator.reset(this.rand.nextLong(), key);
+      this.exitIndexed = false;
+      this.useWalls(this.generator.walls);
+      this.metrics.reset();
+      this.layer.reset(this.cellSize, this.visited, this.path, this.showVisited);
+    }
+    if (this.background) {
+      if (this.exitIndex == this.worker().exitIndex) {
+        // the worker hangs the new maze in the index of the last one it built
+        this.exitIndex = null;
+      }
+      this.taken = this.worker().build(this.generator.seed, this.generator.bias);
+      this.workerBuilds = true;
+    }
   }
 
   // EFFECT: to add cells to the cell list that should contain all the cells in the maze
@@ -496,9 +853,10 @@ class Maze extends World {
     }  
   }
 
-  // to count the number of steps taken by breadth or depth first search
+  // to count the number of steps taken by breadth or depth first search, or by the search
+  // saved with a loaded maze
   int stepCounter() {
-    int size = this.visited.size();
+    int size = this.savedVisited >= 0 ? this.savedVisited : this.visited.size();
     if (size == 0) {
       return 0;
     } else {
@@ -509,41 +867,40 @@ class Maze extends World {
 
   // to render the maze with all its passages
   public WorldScene makeScene() {
-    int width = this.cols * this.cellSize;
-    int length = this.rows * this.cellSize;
+    long start = System.nanoTime();
+    int width = this.layer.image.width;
+    int length = this.layer.image.height;
     WorldScene scene = new WorldScene(width, length);
     int steps = this.stepCounter();
     int wrongMoves = steps - this.path.size() + 1;
-    // to draw the maze
-    for (int i = 0; i < this.workList.size(); i++) {
-      Edge currentEdge = this.workList.get(i);
-      currentEdge.placeWall(scene, this.cellSize);
-    }
-
-    // to highlight the first cell 
-    scene.placeImageXY(new RectangleImage(cellSize / 2, cellSize / 2, OutlineMode.SOLID,
-        new Color(135, 206, 250)), this.cellSize / 2, this.cellSize / 2);
-
-    // to toggle the visited cells
-    if (this.showVisited) {
-      for (int i = 0; i < this.visited.size(); i++) {
-        this.visited.get(i).drawVisited(scene, this.cellSize);
-      }
-    }
-
-    // to draw the solution path
-    for (int i = 0; i < this.path.size(); i++) {
-      this.path.get(i).drawPath(scene, this.cellSize);
-    }
+    // to draw the walls, the first cell, the visited cells and the solution path, only the
+    // cells that changed since the last frame are painted again
+    this.layer.update(this.visited, this.path, this.showVisited);
+    this.layer.raster.show();
+    scene.placeImageXY(this.layer.image, this.layer.image.width / 2,
+        this.layer.image.height / 2);
 
     // to draw which cell we are at when we are in manual mode
     // to draw the number of steps during manual mode
     if (this.manual) {      
-      this.currentCell.drawCell(scene, this.cellSize);
+      this.currentCell.drawCell(scene, this.layer);
       scene.placeImageXY(new TextImage("Steps: " + this.keyCounter, 15, FontStyle.BOLD,
           Color.BLACK), width / 2, length + 15);
     }
 
+    // to mark the next cell on the way to the exit and how far the exit is
+    if (this.manual && this.showHint && this.exitIndexed) {
+      String key = this.hintKey(this.currentCell);
+      if (!key.equals("")) {
+        int side = Math.max(this.layer.cellSize / 4, 2);
+        scene.placeImageXY(new RectangleImage(side, side, OutlineMode.SOLID, Color.ORANGE),
+            this.layer.screenX(this.currentCell.findNextX(key)),
+            this.layer.screenY(this.currentCell.findNextY(key)));
+      }
+      scene.placeImageXY(new TextImage(this.hint(this.currentCell), 15, FontStyle.BOLD,
+          Color.BLACK), width / 2, length + 33);
+    }
+
     // to indicate that the user has won the game
     if (this.winMessage) {
       scene.placeImageXY(new TextImage("You won!", 20, FontStyle.BOLD,
@@ -561,8 +918,34 @@ class Maze extends World {
 
       scene.placeImageXY(new TextImage("Wrong moves: " + wrongMoves, 15, FontStyle.BOLD,
           Color.BLACK), width / 2 + 20, length + 33);
+
+      // to compare how many cells each search had to expand
+      if (this.solver != null) {
+        scene.placeImageXY(new TextImage(this.solver.name() + " expanded: "
+            + this.expanded(), 15, FontStyle.BOLD, Color.BLACK),
+            width / 2 + 20, length + 51);
+      } else if (this.savedVisited >= 0) {
+        scene.placeImageXY(new TextImage("Saved search expanded: " + this.savedVisited, 15,
+            FontStyle.BOLD, Color.BLACK), width / 2 + 20, length + 51);
+      }
+    }
+
+    // to show the race side by side over the top of the maze
+    if (this.race != null) {
+      this.race.draw(scene);
+    }
+
+    // to show the metrics over the top of the maze
+    if (this.showMetrics) {
+      String[] lines = this.metrics.lines(this.metricValues());
+      scene.placeImageXY(new RectangleImage(260, 16 * lines.length + 8, OutlineMode.SOLID,
+          new Color(255, 255, 255, 200)), width / 2, 16 * lines.length / 2 + 4);
+      for (int i = 0; i < lines.length; i++) {
+        scene.placeImageXY(new TextImage(lines[i], 12, Color.BLACK), width / 2, 16 * i + 12);
+      }
     }
 
+    this.metrics.frame(System.nanoTime() - start);
     return scene;
   }
 
@@ -574,14 +957,12 @@ class ExamplesMaze {
 
   Maze maze1;
   Maze maze2;
-  HashMap<Integer, Integer> repMap;
+  UnionFind repSets;
   Cell cell0;
   Cell cell1;
   Cell cell2;
   Cell cell3;
-  Edge edge0;
-  Edge edge1;
-  Edge edge2;
+  WallGrid grid;
   WorldScene scene;
   WorldScene testScene; 
 
@@ -589,18 +970,12 @@ class ExamplesMaze {
   void initData() {
     this.maze1 = new Maze(2, 3, new Random(5));
     this.maze2 = new Maze(25, 25, new Random(1));
-    this.repMap = new HashMap<Integer, Integer>();
-    this.repMap.put(0, 0);
-    this.repMap.put(1, 1);
-    this.repMap.put(2, 2);
-    this.repMap.put(3, 3);
+    this.repSets = new UnionFind(4);
     this.cell0 = new Cell(0, 0);
     this.cell1 = new Cell(1, 0);
     this.cell2 = new Cell(0, 1);
     this.cell3 = new Cell(1, 1);
-    this.edge0 = new Edge(this.cell0, this.cell1, 45, false);
-    this.edge1 = new Edge(this.cell1, this.cell2, 23, false);
-    this.edge2 = new Edge(this.cell0, this.cell2, 12, false);
+    this.grid = new WallGrid(2, 2);
     this.scene = new WorldScene(this.maze1.cols * this.maze1.cellSize,
         this.maze1.rows * this.maze1.cellSize);
     this.testScene = new WorldScene(90, 60);
@@ -615,71 +990,1661 @@ class ExamplesMaze {
         new Cell(2, 1)))); 
   }
 
-  //to test the method initializeHashMap() in the class Maze
-  void testInitializeHashMap(Tester t) {
+  //to test the method initializeGenerator(String) in the class Maze
+  void testInitializeGenerator(Tester t) {
+    initData();
+    t.checkExpect(this.maze1.generator.bias, "noBias");
+    t.checkExpect(this.maze1.walls, this.maze1.generator.walls);
+    t.checkExpect(this.maze1.walls.passageCount(), 0L);
+    this.maze1.initializeGenerator("h");
+    t.checkExpect(this.maze1.generator.bias, "h");
+    t.checkExpect(this.maze1.walls.rows, 2);
+    t.checkExpect(this.maze1.walls.cols, 3);
+  }
+
+  // to test the method onTick() in the class Maze
+  void testOnTick(Tester t) {
+    initData();
+    this.maze1.onTick();
+    t.checkExpect(this.maze1.walls.passageCount(), 1L);
+    for (int i = 0; i < 4; i++) {
+      this.maze1.onTick();
+    }
+    t.checkExpect(this.maze1.walls.passageCount(), 5L);
+    t.checkExpect(this.maze1.render, false);
+    // the world builds the same maze as the headless generator with the same seed
+    MazeLayout layout = MazeGenerator.generate(2, 3, this.maze1.generator.seed, "noBias");
+    t.checkExpect(this.maze1.generator.walls.bits, layout.walls.bits);
+  }
+
+  // to test the method allows(int, long) in the class TickBudget
+  void testTickBudget(Tester t) {
+    long now = System.nanoTime();
+    t.checkExpect(TickBudget.steps(3).allows(0, now), true);
+    t.checkExpect(TickBudget.steps(3).allows(2, now), true);
+    t.checkExpect(TickBudget.steps(3).allows(3, now), false);
+    t.checkExpect(TickBudget.instant().allows(1000000, now), true);
+    // a tick always does a step, and the clock is only read every CLOCK_EVERY steps
+    t.checkExpect(TickBudget.millis(5).allows(0, now - 1000000000L), true);
+    t.checkExpect(TickBudget.millis(5).allows(1, now - 1000000000L), true);
+    t.checkExpect(TickBudget.millis(5).allows(32, now - 1000000000L), false);
+    t.checkExpect(TickBudget.millis(5000).allows(32, now), true);
+    t.checkExpect(TickBudget.millis(5).nanos, 5000000L);
+  }
+
+  // to test the method onTick() in the class Maze with budgets of more than a step
+  void testOnTickBudgets(Tester t) {
+    initData();
+    this.maze1.setBudgets(TickBudget.steps(4), TickBudget.steps(1), TickBudget.steps(1));
+    this.maze1.onTick();
+    t.checkExpect(this.maze1.walls.passageCount(), 4L);
+    this.maze1.onTick();
+    t.checkExpect(this.maze1.render, false);
+
+    // an instant budget builds, solves and animates a whole maze in a tick each
+    this.maze2.onKeyReleased("3");
+    this.maze2.onTick();
+    t.checkExpect(this.maze2.render, false);
+    t.checkExpect(this.maze2.walls.passageCount(), 624L);
+    this.maze2.onKeyReleased("b");
+    this.maze2.onTick();
+    t.checkExpect(this.maze2.bfs, false);
+    t.checkExpect(this.maze2.animatePath, false);
+    t.checkExpect(this.maze2.path.size(), this.maze2.solver.pathLength());
+    t.checkExpect(this.maze2.path.get(this.maze2.path.size() - 1), this.maze2.cellList.get(0));
+    this.maze2.onKeyReleased("1");
+    t.checkExpect(this.maze2.searchBudget.steps, 1);
+    this.maze2.onKeyReleased("2");
+    t.checkExpect(this.maze2.pathBudget.nanos, 8000000L);
+  }
+
+  // to test the methods frame(long), values(UnionFind, ASolver), toJson(UnionFind, ASolver)
+  // and lines(UnionFind, ASolver) in the class MazeMetrics
+  void testMazeMetrics(Tester t) {
+    MazeMetrics metrics = new MazeMetrics();
+    metrics.frame(70);
+    metrics.frame(30);
+    t.checkExpect(metrics.frames, 2L);
+    t.checkExpect(metrics.renderNanos, 100L);
+    t.checkExpect(metrics.lastRenderNanos, 30L);
+    t.checkExpect(metrics.maxFrameBytes >= metrics.frameBytes, true);
+
+    UnionFind sets = new UnionFind(4);
+    sets.union(0, 1);
+    sets.union(1, 0);
+    sets.union(2, 3);
+    sets.union(1, 3);
+    // the last union hangs the set of 0 and 1 under the one of 2 and 3, so 0 is two
+    // parents away from its representative, find jumps both of them in a single hop, the
+    // other hop was the second union finding 0 under 1
+    sets.find(0);
+    t.checkExpect(sets.finds, 9L);
+    t.checkExpect(sets.hops, 2L);
+    t.checkExpect(sets.unions, 3L);
+
+    WallGrid walls = new WallGrid(1, 3);
+    walls.removeWall(0, 1);
+    walls.removeWall(1, 2);
+    ASolver solver = new MazeSolver(walls, 0, 2, false);
+    solver.solve();
+    long[] values = metrics.values(sets, solver);
+    t.checkExpect(values.length, MazeMetrics.NAMES.length);
+    t.checkExpect(values[5], 2L);
+    t.checkExpect(values[8], 3L);
+    t.checkExpect(values[9], 3L);
+    t.checkExpect(values[10], 1L);
+    t.checkExpect(values[11], 3L);
+    t.checkExpect(metrics.values(null, null)[9], 0L);
+    t.checkExpect(metrics.values(9, 2, 3, 3, 1, 3), values);
+    t.checkExpect(metrics.lines(values)[8], "unions: 3");
+    t.checkExpect(metrics.lines(sets, solver)[9], "nodesExpanded: 3");
+    String json = metrics.toJson(sets, solver);
+    t.checkExpect(json.startsWith("{\"generateNanos\": 0, \"searchNanos\": 0,"), true);
+    t.checkExpect(json.contains("\"unions\": 3, \"nodesExpanded\": 3, "
+        + "\"frontierHighWater\": 1, \"pathLength\": 3, "), true);
+    t.checkExpect(json.endsWith("}"), true);
+
+    // a branching maze keeps more than one cell waiting
+    MazeLayout layout = MazeGenerator.generate(25, 25, 1, "noBias");
+    ASolver wide = new MazeSolver(layout.walls, 0, 624, false);
+    wide.solve();
+    t.checkExpect(wide.maxFrontier > 1, true);
+  }
+
+  // to test the timing of the phases in the methods onTick() and makeScene() and the key
+  // "i" in the class Maze
+  void testMazeMetricsPhases(Tester t) {
+    initData();
+    this.maze1.onKeyReleased("3");
+    this.maze1.onTick();
+    t.checkExpect(this.maze1.metrics.generateNanos > 0, true);
+    t.checkExpect(this.maze1.metrics.searchNanos, 0L);
+    t.checkExpect(this.maze1.generator.sets.unions, 5L);
+    this.maze1.onKeyReleased("b");
+    this.maze1.onTick();
+    t.checkExpect(this.maze1.metrics.searchNanos > 0, true);
+    t.checkExpect(this.maze1.metrics.pathNanos > 0, true);
+    this.maze1.makeScene();
+    t.checkExpect(this.maze1.metrics.frames, 1L);
+    t.checkExpect(this.maze1.metricsJson().contains("\"frames\": 1,"), true);
+    this.maze1.onKeyReleased("i");
+    t.checkExpect(this.maze1.showMetrics, true);
+    this.maze1.makeScene();
+    t.checkExpect(this.maze1.metrics.frames, 2L);
+    this.maze1.onKeyReleased("i");
+    t.checkExpect(this.maze1.showMetrics, false);
+    // a new maze starts the metrics over
+    this.maze1.onKeyReleased("n");
+    t.checkExpect(this.maze1.metrics.frames, 0L);
+  }
+
+  // to test the method appendMetrics(Path) in the class Maze
+  void testAppendMetrics(Tester t) {
+    try {
+      initData();
+      Path file = Files.createTempFile("metrics", ".jsonl");
+      file.toFile().deleteOnExit();
+      this.maze1.onKeyReleased("3");
+      this.maze1.onTick();
+      this.maze1.makeScene();
+      String first = this.maze1.metricsJson();
+      this.maze1.appendMetrics(file);
+      this.maze1.makeScene();
+      String second = this.maze1.metricsJson();
+      this.maze1.appendMetrics(file);
+      // every snapshot is a line of its own, after the ones before
+      t.checkExpect(Files.readAllLines(file, StandardCharsets.UTF_8),
+          Arrays.asList(first, second));
+      t.checkExpect(first.contains("\"frames\": 1,"), true);
+      t.checkExpect(second.contains("\"frames\": 2,"), true);
+      // a file that cannot be written is reported and nothing is thrown
+      Path folder = Files.createTempDirectory("metrics");
+      folder.toFile().deleteOnExit();
+      this.maze1.appendMetrics(folder);
+      t.checkExpect(Files.isDirectory(folder), true);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  // EFFECT: to let the worker of the given world finish every job it has or is handed, and
+  // take in the last snapshot of each
+  void runWorker(Maze maze) {
+    int ticks = 0;
+    maze.onTick();
+    while ((maze.workerBuilds || maze.workerSearches) && ticks < 100) {
+      maze.worker.await();
+      maze.onTick();
+      ticks++;
+    }
+  }
+
+  // to test the class MazeWorker and the class MazeSnapshot
+  void testMazeWorker(Tester t) {
+    MazeWorker worker = new MazeWorker(20, 30, 0);
+    t.checkExpect(worker.latest, null);
+    MazeSnapshot first = worker.build(7, "h");
+    // the first snapshot is the one before any step, however far the worker has got
+    t.checkExpect(first.edges, 0);
+    t.checkExpect(first.done, false);
+    t.checkExpect(worker.latest.edges <= 599, true);
+    worker.await();
+    t.checkExpect(worker.thread, null);
+    MazeSnapshot built = worker.latest;
+    t.checkExpect(built.done, true);
+    t.checkExpect(built.edges, 599);
+    t.checkExpect(built.visitLog, null);
+    t.checkExpect(built.path.length, 0);
+
+    // the same edges in the same order as a generator of the same seed on this thread
+    MazeGenerator here = new MazeGenerator(20, 30, 7, "h");
+    boolean same = true;
+    for (int i = 0; i < 599; i++) {
+      same = same && built.edgeLog[i] == here.step();
+    }
+    t.checkExpect(same, true);
+    t.checkExpect(built.finds, here.sets.finds);
+    t.checkExpect(built.unions, 599L);
+    t.checkExpect(worker.generator.walls.bits, here.walls.bits);
+    t.checkExpect(built.exitIndex.root, 599);
+    t.checkExpect(built.exitIndex.depth, new PathIndex(here.walls, 599).depth);
+
+    // a search handed to the worker is the same search it would be on this thread
+    ASolver search = new MazeSolver(here.walls, 0, 599, true);
+    ASolver mine = new MazeSolver(here.walls, 0, 599, true);
+    mine.solve();
+    search.step();
+    first = worker.search(search);
+    t.checkExpect(first.visited, 1);
+    t.checkExpect(first.done, false);
+    worker.await();
+    MazeSnapshot searched = worker.latest;
+    t.checkExpect(searched.done, true);
+    t.checkExpect(searched.visited, mine.visitedCount);
+    t.checkExpect(searched.maxFrontier, mine.maxFrontier);
+    t.checkExpect(searched.path, mine.path());
+    t.checkExpect(searched.exitIndex, null);
+    t.checkExpect(Arrays.copyOf(searched.visitLog, searched.visited),
+        Arrays.copyOf(mine.visitOrder, mine.visitedCount));
+    // the snapshot of the build did not change after it was published
+    t.checkExpect(built.edges, 599);
+    t.checkExpect(built.done, true);
+
+    // a stopped job ends where it is, and the next maze is built in the same generator
+    MazeWorker big = new MazeWorker(300, 300, MazeWorker.PUBLISH_NANOS);
+    big.build(1, "noBias");
+    MazeGenerator generator = big.generator;
+    big.stop();
+    t.checkExpect(big.thread, null);
+    t.checkExpect(big.stopped, false);
+    big.build(2, "v");
+    big.await();
+    t.checkExpect(big.generator == generator, true);
+    t.checkExpect(big.latest.done, true);
+    t.checkExpect(big.generator.walls.bits,
+        MazeGenerator.generate(300, 300, 2, "v").walls.bits);
+    big.stop();
+    t.checkExpect(big.latest.done, true);
+  }
+
+  // to test building and searching a maze on the worker of the world
+  void testBackground(Tester t) {
     initData();
-    HashMap<Integer, Integer> testMap = new HashMap<Integer, Integer>();
-    testMap.put(0, 0);
-    testMap.put(1, 1);
-    testMap.put(2, 2);
-    testMap.put(3, 3);
-    testMap.put(4, 4);
-    testMap.put(5, 5);
-    t.checkExpect(this.maze1.map, testMap);
+    this.maze2.onKeyReleased("4");
+    t.checkExpect(this.maze2.background, true);
+    // the maze under way when the world goes to the background is built by the world
+    this.maze2.onTick();
+    t.checkExpect(this.maze2.workerBuilds, false);
+    this.maze2.onKeyReleased("n");
+    t.checkExpect(this.maze2.workerBuilds, true);
+    t.checkExpect(this.maze2.render, true);
+    this.maze2.makeScene();
+    this.runWorker(this.maze2);
+    t.checkExpect(this.maze2.workerBuilds, false);
+    t.checkExpect(this.maze2.render, false);
+    t.checkExpect(this.maze2.generator.isDone(), true);
+    long seed = this.maze2.generator.seed;
+    MazeLayout layout = MazeGenerator.generate(25, 25, seed, "noBias");
+    t.checkExpect(this.maze2.generator.walls.bits, layout.walls.bits);
+    t.checkExpect(this.maze2.generator.sets.unions, 624L);
+    t.checkExpect(this.maze2.metrics.generateNanos > 0, true);
+    t.checkExpect(this.maze2.exitIndexed, true);
+    t.checkExpect(this.maze2.exitIndex == this.maze2.worker.exitIndex, true);
+    t.checkExpect(this.maze2.metricsJson().contains("\"unions\": 624,"), true);
+
+    // the search is the one the world would have run, and its path comes whole
+    ASolver mine = new MazeSolver(layout.walls, 0, 624, false);
+    mine.solve();
+    this.maze2.onKeyReleased("b");
+    this.maze2.onTick();
+    t.checkExpect(this.maze2.workerSearches, true);
+    t.checkExpect(this.maze2.expanded() <= mine.visitedCount, true);
+    this.maze2.makeScene();
+    this.runWorker(this.maze2);
+    t.checkExpect(this.maze2.workerSearches, false);
+    t.checkExpect(this.maze2.bfs, false);
+    t.checkExpect(this.maze2.animatePath, false);
+    t.checkExpect(this.maze2.expanded(), mine.visitedCount);
+    t.checkExpect(this.maze2.visited.size(), mine.visitedCount);
+    t.checkExpect(this.maze2.visited.get(mine.visitedCount - 1).findIndex(25),
+        mine.visitOrder[mine.visitedCount - 1]);
+    t.checkExpect(this.maze2.path.size(), mine.pathLength());
+    t.checkExpect(this.maze2.path.get(1).findIndex(25), mine.parent[624]);
+    t.checkExpect(this.maze2.metricsJson().contains("\"nodesExpanded\": "
+        + mine.visitedCount + ","), true);
+
+    // a search the world started goes on where it is on the worker
+    this.maze2.onKeyReleased("r");
+    this.maze2.onKeyReleased("1");
+    this.maze2.onTick();
+    this.maze2.onKeyReleased("d");
+    this.maze2.onTick();
+    this.maze2.onTick();
+    t.checkExpect(this.maze2.visited.size(), 2);
+    this.maze2.onKeyReleased("4");
+    this.runWorker(this.maze2);
+    ASolver deep = new MazeSolver(layout.walls, 0, 624, true);
+    deep.solve();
+    t.checkExpect(this.maze2.visited.size(), deep.visitedCount);
+    t.checkExpect(this.maze2.path.size(), deep.pathLength());
+
+    // a new maze stops the search the worker has, and the worker builds it
+    this.maze2.onKeyReleased("r");
+    this.maze2.onTick();
+    this.maze2.onKeyReleased("b");
+    this.maze2.onTick();
+    t.checkExpect(this.maze2.workerSearches, true);
+    PathIndex hung = this.maze2.exitIndex;
+    this.maze2.onKeyReleased("n");
+    t.checkExpect(this.maze2.workerSearches, false);
+    t.checkExpect(this.maze2.solver, null);
+    t.checkExpect(this.maze2.workerBuilds, true);
+    // the world lets go of the index the worker hangs the new maze in
+    t.checkExpect(this.maze2.exitIndex, null);
+    // going back to the world's thread leaves the maze under way on the worker
+    this.maze2.onKeyReleased("3");
+    t.checkExpect(this.maze2.workerBuilds, true);
+    this.runWorker(this.maze2);
+    t.checkExpect(this.maze2.exitIndex == hung, true);
+    t.checkExpect(this.maze2.exitIndex.depth, new PathIndex(this.maze2.worker.generator.walls,
+        624).depth);
+    t.checkExpect(this.maze2.generator.walls.bits, MazeGenerator.generate(25, 25,
+        this.maze2.generator.seed, "noBias").walls.bits);
+    this.maze2.onKeyReleased("n");
+    t.checkExpect(this.maze2.workerBuilds, false);
+    t.checkExpect(this.maze2.worker.thread, null);
+    this.maze2.onTick();
+    t.checkExpect(this.maze2.exitIndexed, true);
+    t.checkExpect(this.maze2.exitIndex.walls == this.maze2.walls, true);
+    t.checkExpect(this.maze2.exitIndex.depth, new PathIndex(this.maze2.walls, 624).depth);
   }
 
-  //to test the method initializeWorkList() in the class Maze
-  void testInitializeWorkList(Tester t) {
+  // to test the constructor and the methods start(), run(RaceLane), await(), stop(),
+  // isDone(), place(RaceLane) and toCsv(int, String, RaceLane) in the class SolverRace and
+  // the method isDone() in the class RaceLane
+  void testSolverRace(Tester t) {
+    MazeLayout layout = MazeGenerator.generate(30, 30, 4, "h");
+    long[] bits = layout.walls.bits.clone();
+    SolverRace race = new SolverRace(layout.walls, "bdatw", 4);
+    t.checkExpect(race.lanes.length, 5);
+    t.checkExpect(race.lanes[2].key, "a");
+    t.checkExpect(race.lanes[2].nanos, -1L);
+    t.checkExpect(race.isDone(), false);
+    t.checkExpect(race.place(race.lanes[0]), 0);
+    race.start();
+    race.await();
+    t.checkExpect(race.threads, null);
+    t.checkExpect(race.isDone(), true);
+    // every lane ran the search it would have run alone, over walls it left as they were
+    for (RaceLane lane : race.lanes) {
+      ASolver alone = ASolver.forKey(lane.key, layout.walls, 0, 899, 4);
+      alone.solve();
+      t.checkExpect(lane.isDone(), true);
+      t.checkExpect(lane.nanos > 0, true);
+      t.checkExpect(lane.visited, alone.visitedCount);
+      t.checkExpect(lane.search.path(), alone.path());
+      t.checkExpect(race.place(lane) >= 1 && race.place(lane) <= 5, true);
+    }
+    t.checkExpect(layout.walls.bits, bits);
+    RaceLane first = race.lanes[0];
+    t.checkExpect(race.toCsv(2, "h", first), "2,h,b,BFS," + first.nanos + ","
+        + first.search.visitedCount + "," + first.search.pathLength() + ","
+        + race.place(first));
+    // the fastest lane is first and a lane behind it is not
+    RaceLane fastest = race.lanes[0];
+    for (RaceLane lane : race.lanes) {
+      if (lane.nanos < fastest.nanos) {
+        fastest = lane;
+      }
+    }
+    t.checkExpect(race.place(fastest), 1);
+    RaceLane slowest = race.lanes[0];
+    for (RaceLane lane : race.lanes) {
+      if (lane.nanos > slowest.nanos) {
+        slowest = lane;
+      }
+    }
+    t.checkExpect(race.place(slowest) > 1, true);
+
+    // a stopped race ends its lanes where they are
+    SolverRace big = new SolverRace(MazeGenerator.generate(300, 300, 4, "v").walls, "bd", 4);
+    big.start();
+    big.stop();
+    t.checkExpect(big.threads, null);
+    for (RaceLane lane : big.lanes) {
+      t.checkExpect(lane.visited <= lane.search.visitedCount, true);
+    }
+    t.checkConstructorException(new IllegalArgumentException(
+        "A race needs at least one search"), "SolverRace", layout.walls, "", 4L);
+    t.checkConstructorException(new IllegalArgumentException(
+        "The searches of a race must be some of bdatw: bx"), "SolverRace", layout.walls,
+        "bx", 4L);
+  }
+
+  // to test the constructor and the methods takeIn(), label(RaceLane) and draw(WorldScene)
+  // in the class RaceView, and the key "x" and the method stopRace() in the class Maze
+  void testRaceView(Tester t) {
     initData();
-    Cell cell0 = this.maze1.cellList.get(0);
-    Cell cell1 = this.maze1.cellList.get(1);
-    Cell cell2 = this.maze1.cellList.get(2);
-    Cell cell3 = this.maze1.cellList.get(3);
-    Cell cell4 = this.maze1.cellList.get(4);
-    Cell cell5 = this.maze1.cellList.get(5);
+    this.maze2.onKeyReleased("3");
+    // there is no race while the maze is being built
+    this.maze2.onKeyReleased("x");
+    t.checkExpect(this.maze2.race, null);
+    this.maze2.onTick();
+    this.maze2.onKeyReleased("x");
+    RaceView view = this.maze2.race;
+    t.checkExpect(view.panels.length, 5);
+    t.checkExpect(view.side, 138);
+    t.checkExpect(view.panels[0].cellSize, 5);
+    t.checkExpect(view.panels[0].image.width, 126);
+    t.checkExpect(view.race.walls == this.maze2.walls, true);
+    view.race.await();
+    this.maze2.onTick();
+    for (int i = 0; i < 5; i++) {
+      RaceLane lane = view.race.lanes[i];
+      t.checkExpect(view.visited.get(i).size(), lane.search.visitedCount);
+      t.checkExpect(view.visited.get(i).get(lane.visited - 1).findIndex(25),
+          lane.search.visitOrder[lane.visited - 1]);
+      t.checkExpect(view.paths.get(i).size(), lane.search.pathLength());
+      t.checkExpect(view.panels[i].onPath.cardinality(), lane.search.pathLength());
+      t.checkExpect(view.label(lane), new String[] {lane.search.name() + " #"
+          + view.race.place(lane), lane.visited + " expanded in "
+          + lane.nanos / 100000 / 10.0 + " ms"});
+    }
+    // the path of the exit is painted in the panel of every search
+    t.checkExpect(view.panels[3].image.getPixel(122, 122), MazeLayer.PATH);
+    this.maze2.makeScene();
+    // the world's own search is left alone
+    t.checkExpect(this.maze2.solver, null);
+    t.checkExpect(this.maze2.visited.size(), 0);
+    this.maze2.onKeyReleased("x");
+    t.checkExpect(this.maze2.race, null);
+    t.checkExpect(view.race.threads, null);
+
+    // a race is ended by a new maze and by the manual mode
+    this.maze2.onKeyReleased("x");
+    view = this.maze2.race;
+    this.maze2.onKeyReleased("n");
+    t.checkExpect(this.maze2.race, null);
+    t.checkExpect(view.race.threads, null);
+    this.maze2.onTick();
+    this.maze2.onKeyReleased("x");
+    this.maze2.onKeyReleased("m");
+    t.checkExpect(this.maze2.race, null);
+    this.maze2.onKeyReleased("x");
+    t.checkExpect(this.maze2.race, null);
+
+    // a maze of more cells than a panel has pixels is shaded in blocks
+    ArrayList<Cell> cells = new ArrayList<Cell>();
+    for (int i = 0; i < 300 * 300; i++) {
+      cells.add(new Cell(i % 300, i / 300));
+    }
+    RaceView big = new RaceView(new SolverRace(MazeGenerator.generate(300, 300, 1,
+        "noBias").walls, "bd", 1), cells, 400, 300);
+    t.checkExpect(big.side, 185);
+    t.checkExpect(big.panels[1].cellSize, 1);
+    t.checkExpect(big.panels[1].blockSize, 2);
+    t.checkExpect(big.panels[1].image.width, 151);
+    t.checkExpect(big.label(big.race.lanes[1]), new String[] {"DFS", "0 expanded so far"});
+    big.race.start();
+    big.race.await();
+    big.takeIn();
+    t.checkExpect(big.panels[0].visitedCells.cardinality(),
+        big.race.lanes[0].search.visitedCount);
+    t.checkExpect(big.panels[1].image.getPixel(149, 149), MazeLayer.PATH);
+  }
 
-    ArrayList<Edge> testList = new ArrayList<Edge>(Arrays.asList(                
-        new Edge(cell1, cell4, 5, false), new Edge(cell0, cell3, 6, false),
-        new Edge(cell4, cell5, 24, false), new Edge(cell2, cell5, 54, false),
-        new Edge(cell3, cell4, 74, false), new Edge(cell0, cell1, 87, false),
-        new Edge(cell1, cell2, 92, false)));
+  // to test the constructor and the methods parse(String) and run() in the class BatchJob
+  // and the methods toCsv(), toJson() and wrongMoves() in the class BatchResult
+  void testBatchJob(Tester t) {
+    BatchJob job = BatchJob.parse(" 25, 25 1 noBias   b ");
+    t.checkExpect(job.rows, 25);
+    t.checkExpect(job.seed, 1L);
+    t.checkExpect(job.bias, "noBias");
+    t.checkExpect(job.solver, "b");
+    t.checkConstructorException(new IllegalArgumentException(
+        "A maze needs at least one cell: 0 by 3"), "BatchJob", 0, 3, 1L, "h", "b");
+    t.checkConstructorException(new IllegalArgumentException(
+        "The bias must be h, v or noBias: x"), "BatchJob", 2, 3, 1L, "x", "b");
+    t.checkConstructorException(new IllegalArgumentException(
+        "The solver must be b, d, a, t or w: q"), "BatchJob", 2, 3, 1L, "h", "q");
+    t.checkException(new IllegalArgumentException(
+        "A job needs rows, cols, seed, bias and solver: 2 3 1 h"), job, "parse",
+        "2 3 1 h");
+    t.checkException(new IllegalArgumentException(
+        "The rows, cols and seed of a job must be numbers: 2 3 one h b"), job,
+        "parse", "2 3 one h b");
+
+    // a job counts the same steps as the world does on the same maze
+    BatchResult result = job.run();
+    ASolver search = ASolver.forKey("b",
+        MazeGenerator.generate(25, 25, 1, "noBias").walls, 0, 624, 1);
+    search.solve();
+    t.checkExpect(result.solverName, "BFS");
+    t.checkExpect(result.steps, search.visitedCount - 1);
+    t.checkExpect(result.pathLength, search.pathLength());
+    t.checkExpect(result.wrongMoves(), result.steps - result.pathLength + 1);
+    t.checkExpect(result.generateNanos > 0, true);
+
+    BatchResult fixed = new BatchResult(new BatchJob(2, 3, -4, "h", "t"),
+        "Bidirectional BFS", 10, 20, 5, 4);
+    t.checkExpect(fixed.toCsv(), "2,3,-4,h,Bidirectional BFS,10,20,5,2,4");
+    t.checkExpect(fixed.toJson(), "{\"rows\": 2, \"cols\": 3, \"seed\": -4, "
+        + "\"bias\": \"h\", \"solver\": \"Bidirectional BFS\", \"generateNanos\": 10, "
+        + "\"solveNanos\": 20, \"steps\": 5, \"wrongMoves\": 2, \"pathLength\": 4}");
+  }
 
-    t.checkExpect(this.maze1.workList, testList);
+  // to test the methods readJobs(BufferedReader) and run(ArrayList<BatchJob>, int, boolean,
+  // Writer) in the class BatchRunner
+  void testBatchRunner(Tester t) {
+    try {
+      ArrayList<BatchJob> jobs = BatchRunner.readJobs(new BufferedReader(new StringReader(
+          "# rows cols seed bias solver\n10 10 1 noBias b\n\n10 10 1 h d\n"
+          + "10 10 2 v a\n10 10 3 noBias t\n")));
+      t.checkExpect(jobs.size(), 4);
+      t.checkExpect(jobs.get(1).bias, "h");
+      t.checkException(new IllegalArgumentException(
+          "Line 2: The solver must be b, d, a, t or w: z"), new BatchRunner(), "readJobs",
+          new BufferedReader(new StringReader("1 1 1 h b\n1 1 1 h z\n")));
+
+      StringWriter csv = new StringWriter();
+      t.checkExpect(BatchRunner.run(jobs, 3, false, null, csv), 4);
+      String[] lines = csv.toString().split("\n");
+      t.checkExpect(lines.length, 5);
+      t.checkExpect(lines[0], BatchResult.CSV_HEADER);
+      // the results come in the order the jobs finish, but every job has its line
+      String[] dfs = jobs.get(1).run().toCsv().split(",");
+      int dfsLines = 0;
+      for (int i = 1; i < lines.length; i++) {
+        String[] fields = lines[i].split(",");
+        if (fields[4].equals("DFS") && fields[3].equals("h") && fields[7].equals(dfs[7])
+            && fields[9].equals(dfs[9])) {
+          dfsLines++;
+        }
+      }
+      t.checkExpect(dfsLines, 1);
+
+      // a single thread finishes the jobs in the order they were given
+      StringWriter jsonl = new StringWriter();
+      BatchRunner.run(jobs, 1, true, null, jsonl);
+      lines = jsonl.toString().split("\n");
+      t.checkExpect(lines.length, 4);
+      String bfs = jobs.get(0).run().toJson();
+      t.checkExpect(lines[0].startsWith("{\"rows\": 10, \"cols\": 10, \"seed\": 1, "
+          + "\"bias\": \"noBias\", \"solver\": \"BFS\""), true);
+      t.checkExpect(lines[0].endsWith(bfs.substring(bfs.indexOf("\"steps\""))), true);
+      t.checkExpect(lines[3].contains("\"solver\": \"Bidirectional BFS\""), true);
+      t.checkException(new IllegalArgumentException("A batch needs at least one thread: 0"),
+          new BatchRunner(), "run", jobs, 0, true, null, jsonl);
+    } catch (IOException | InterruptedException e) {
+      throw new RuntimeException(e);
+    }
   }
 
-  // to test the method findRepresentatives(HashMap<Integer, Integer>, int) in the class Cell
-  void testFindRepresentatives(Tester t) {
+  // to test the methods id(int, int, long, String), id(MazeLayout), get(String),
+  // get(int, int, long, String), keep(MazeLayout) and size() in the class MazeCatalog
+  void testMazeCatalog(Tester t) {
+    t.checkExpect(MazeCatalog.id(25, 30, -7, "h"), "25x30:-7:h");
+    // the walls of a 10 by 10 maze take up 4 longs, so the catalog keeps two of them
+    MazeCatalog catalog = new MazeCatalog(64);
+    MazeLayout first = catalog.get("10x10:1:noBias");
+    t.checkExpect(MazeCatalog.id(first), "10x10:1:noBias");
+    t.checkExpect(first.walls.bits, MazeGenerator.generate(10, 10, 1, "noBias").walls.bits);
+    t.checkExpect(catalog.usedBytes, 32L);
+    t.checkExpect(catalog.get(10, 10, 1, "noBias") == first, true);
+    MazeLayout second = catalog.get(10, 10, 2, "v");
+    t.checkExpect(catalog.hits, 1L);
+    t.checkExpect(catalog.misses, 2L);
+    // the first maze was used after the second one, so the second one is dropped
+    catalog.get(10, 10, 1, "noBias");
+    catalog.get(10, 10, 3, "h");
+    t.checkExpect(catalog.size(), 2);
+    t.checkExpect(catalog.evictions, 1L);
+    t.checkExpect(catalog.usedBytes, 64L);
+    t.checkExpect(catalog.get(10, 10, 1, "noBias") == first, true);
+    MazeLayout again = catalog.get(10, 10, 2, "v");
+    t.checkExpect(again == second, false);
+    t.checkExpect(again.walls.bits, second.walls.bits);
+    // a maze bigger than the whole budget is built but not kept
+    catalog.get(100, 100, 1, "noBias");
+    t.checkExpect(catalog.size(), 2);
+    t.checkExpect(catalog.usedBytes, 64L);
+    t.checkConstructorException(new IllegalArgumentException(
+        "The budget of a catalog can't be negative: -1"), "MazeCatalog", -1L);
+    t.checkException(new IllegalArgumentException("A maze id is rowsxcols:seed:bias: 10:1:h"),
+        catalog, "get", "10:1:h");
+    t.checkException(new IllegalArgumentException("The bias must be h, v or noBias: x"),
+        catalog, "get", "10x10:1:x");
+
+    // jobs that search the same maze share it through the catalog
+    MazeCatalog shared = new MazeCatalog(1 << 20);
+    BatchResult bfs = new BatchJob(10, 10, 1, "noBias", "b").run(shared);
+    BatchResult dfs = new BatchJob(10, 10, 1, "noBias", "d").run(shared);
+    t.checkExpect(shared.misses, 1L);
+    t.checkExpect(shared.hits, 1L);
+    t.checkExpect(bfs.pathLength, dfs.pathLength);
+    t.checkExpect(bfs.steps, new BatchJob(10, 10, 1, "noBias", "b").run().steps);
+
+    // the world knows its maze by the same id
     initData();
-    t.checkExpect(this.cell0.findRepresentatives(repMap, 2), 0);
-    t.checkExpect(this.cell1.findRepresentatives(repMap, 2), 1);
+    t.checkExpect(this.maze1.mazeId(),
+        "2x3:" + this.maze1.generator.seed + ":noBias");
+  }
 
-    // modifying the hash map to test cases where the representative
-    // of some cells is not itself
-    this.repMap.put(0, 1);
-    this.repMap.put(1, 2);
-    this.repMap.put(3, 2);
+  // to test the method step() in the class MazeSolver
+  void testSolverStep(Tester t) {
+    WallGrid walls = new WallGrid(2, 3);
+    walls.removeWall(0, 1);
+    walls.removeWall(1, 2);
+    walls.removeWall(0, 3);
+    walls.removeWall(3, 4);
+    walls.removeWall(4, 5);
+    MazeSolver breadth = new MazeSolver(walls, 0, 5, false);
+    t.checkExpect(breadth.step(), 0);
+    t.checkExpect(breadth.seen.get(1), true);
+    t.checkExpect(breadth.seen.get(3), true);
+    t.checkExpect(breadth.seen.get(2), false);
+    t.checkExpect(breadth.step(), 1);
+    t.checkExpect(breadth.step(), 3);
+    t.checkExpect(breadth.parent[4], 3);
+    breadth.solve();
+    t.checkExpect(breadth.visitedCount, 6);
+    t.checkExpect(breadth.visitOrder, new int[] {0, 1, 3, 2, 4, 5});
+    t.checkExpect(breadth.found, true);
+    t.checkExpect(breadth.step(), -1);
+
+    MazeSolver depth = new MazeSolver(walls, 0, 5, true);
+    t.checkExpect(depth.solve(), true);
+    t.checkExpect(depth.visitedCount, 4);
+    t.checkExpect(depth.visitOrder[3], 5);
+    t.checkExpect(depth.visitOrder[1], 3);
+
+    // a goal that is walled off is never found
+    MazeSolver blocked = new MazeSolver(new WallGrid(2, 2), 0, 3, false);
+    t.checkExpect(blocked.solve(), false);
+    t.checkExpect(blocked.visitedCount, 1);
+    t.checkExpect(blocked.path(), new int[] {});
+  }
 
-    t.checkExpect(this.cell0.findRepresentatives(repMap, 2), 2);
-    t.checkExpect(this.cell1.findRepresentatives(repMap, 2), 2);
-    t.checkExpect(this.cell2.findRepresentatives(repMap, 2), 2);
-    t.checkExpect(this.cell3.findRepresentatives(repMap, 2), 2);
+  // to test the methods path() and pathLength() in the class MazeSolver
+  void testSolverPath(Tester t) {
+    WallGrid walls = new WallGrid(2, 2);
+    walls.removeWall(0, 1);
+    walls.removeWall(1, 3);
+    walls.removeWall(2, 3);
+    MazeSolver solver = new MazeSolver(walls, 0, 2, true);
+    t.checkExpect(solver.pathLength(), 0);
+    solver.solve();
+    t.checkExpect(solver.pathLength(), 4);
+    t.checkExpect(solver.path(), new int[] {2, 3, 1, 0});
+
+    // a whole generated maze is solved in one call, along its passages
+    MazeLayout big = MazeGenerator.generate(1000, 1000, 5, "noBias");
+    MazeSolver bigSolver = new MazeSolver(big.walls, 0, 999999, false);
+    t.checkExpect(bigSolver.solve(), true);
+    int[] bigPath = bigSolver.path();
+    boolean connected = bigPath[0] == 999999 && bigPath[bigPath.length - 1] == 0;
+    for (int i = 1; i < bigPath.length; i++) {
+      connected = connected && big.walls.isOpen(bigPath[i - 1], bigPath[i]);
+    }
+    t.checkExpect(connected, true);
   }
 
-  // to test the method sameRepresentatives(HashMap<Integer, Integer>, int) in the class Cell
-  void testSameRepresentatives(Tester t) {
+  // to test the methods bfs(), dfs() and animatePath(int) in the class Maze
+  void testSearch(Tester t) {
     initData();
-    t.checkExpect(this.edge0.sameRepresentatives(repMap, 2), false);
-    // to modify cell0's representative to cell1's representative
-    this.repMap.put(0, 1);
-    t.checkExpect(this.edge0.sameRepresentatives(repMap, 2), true);
+    for (int i = 0; i < 5; i++) {
+      this.maze1.onTick();
+    }
+    this.maze1.onKeyReleased("b");
+    t.checkExpect(this.maze1.bfs, true);
+    ASolver started = this.maze1.solver;
+    int ticks = 0;
+    while ((this.maze1.bfs || this.maze1.animatePath) && ticks < 100) {
+      this.maze1.onTick();
+      ticks++;
+    }
+    t.checkExpect(this.maze1.visited.get(0), this.maze1.cellList.get(0));
+    t.checkExpect(this.maze1.visited.size(), this.maze1.solver.visitedCount);
+    t.checkExpect(this.maze1.path.get(0), this.maze1.cellList.get(5));
+    t.checkExpect(this.maze1.path.get(this.maze1.path.size() - 1), this.maze1.cellList.get(0));
+    t.checkExpect(this.maze1.path.size(), this.maze1.solver.pathLength());
+    // pressing the key of a search that is over neither runs it nor animates its path again
+    this.maze1.onKeyReleased("b");
+    t.checkExpect(this.maze1.bfs, false);
+    t.checkExpect(this.maze1.solver, started);
+    this.maze1.onTick();
+    t.checkExpect(this.maze1.animatePath, false);
+    t.checkExpect(this.maze1.visited.size(), this.maze1.solver.visitedCount);
+    t.checkExpect(this.maze1.path.size(), this.maze1.solver.pathLength());
+    // pressing the key of another search clears this one and starts that one
+    this.maze1.onKeyReleased("d");
+    t.checkExpect(this.maze1.solver.name(), "DFS");
+    t.checkExpect(this.maze1.dfs, true);
+    t.checkExpect(this.maze1.visited.size(), 0);
+    t.checkExpect(this.maze1.path, new ArrayList<Cell>(Arrays.asList(
+        this.maze1.cellList.get(5))));
+    t.checkExpect(this.maze1.layer.paintedVisited, 0);
+    this.runSearch(this.maze1);
+    t.checkExpect(this.maze1.path.size(), this.maze1.solver.pathLength());
+    // pressing the key of a search under way leaves it where it is
+    this.maze1.onKeyReleased("r");
+    this.maze1.onKeyReleased("b");
+    this.maze1.onTick();
+    this.maze1.onKeyReleased("b");
+    t.checkExpect(this.maze1.solver, started);
+    t.checkExpect(this.maze1.visited.size(), 1);
+
+    this.maze1.onKeyReleased("r");
+    t.checkExpect(this.maze1.solver, null);
+    this.maze1.onKeyReleased("d");
+    t.checkExpect(this.maze1.solver.name(), "DFS");
+    this.maze1.onTick();
+    t.checkExpect(this.maze1.visited.size(), 1);
+
+    // a* and the search from both ends animate the same path to the same end
+    this.maze1.onKeyReleased("r");
+    this.maze1.onKeyReleased("a");
+    t.checkExpect(this.maze1.solver.name(), "A*");
+    this.runSearch(this.maze1);
+    t.checkExpect(this.maze1.astar, false);
+    t.checkExpect(this.maze1.path.get(0), this.maze1.cellList.get(5));
+    t.checkExpect(this.maze1.path.get(this.maze1.path.size() - 1), this.maze1.cellList.get(0));
+    t.checkExpect(this.maze1.path.size(), this.maze1.solver.pathLength());
+    this.maze1.onKeyReleased("r");
+    this.maze1.onKeyReleased("t");
+    t.checkExpect(this.maze1.solver.name(), "Bidirectional BFS");
+    this.runSearch(this.maze1);
+    t.checkExpect(this.maze1.bidirectional, false);
+    t.checkExpect(this.maze1.path.get(0), this.maze1.cellList.get(5));
+    t.checkExpect(this.maze1.path.get(this.maze1.path.size() - 1), this.maze1.cellList.get(0));
+    t.checkExpect(this.maze1.path.size(), this.maze1.solver.pathLength());
+    t.checkExpect(this.maze1.visited.size(), this.maze1.solver.visitedCount);
+  }
+
+  // EFFECT: to tick the given maze until its search and the animation of its path are over
+  void runSearch(Maze maze) {
+    int ticks = 0;
+    while ((maze.bfs || maze.dfs || maze.astar || maze.bidirectional || maze.weighted
+        || maze.animatePath)
+        && ticks < 100) {
+      maze.onTick();
+      ticks++;
+    }
+  }
+
+  // to test the methods step(), push(int) and pop() in the class AStarSolver
+  void testAStarSolver(Tester t) {
+    WallGrid walls = new WallGrid(2, 3);
+    walls.removeWall(0, 1);
+    walls.removeWall(1, 2);
+    walls.removeWall(0, 3);
+    walls.removeWall(3, 4);
+    walls.removeWall(4, 5);
+    AStarSolver astar = new AStarSolver(walls, 0, 5);
+    t.checkExpect(astar.estimate(0), 3);
+    t.checkExpect(astar.estimate(4), 1);
+    t.checkExpect(astar.step(), 0);
+    // both neighbors are one step away and two from the goal
+    t.checkExpect(astar.heapSize, 2);
+    t.checkExpect(astar.keys[0], (3L << 32) | 2);
+    t.checkExpect(astar.parent[3], 0);
+    t.checkExpect(astar.solve(), true);
+    t.checkExpect(astar.path(), new int[] {5, 4, 3, 0});
+    t.checkExpect(astar.step(), -1);
+
+    // the heap hands its entries out smallest first, growing as it needs to
+    AStarSolver heap = new AStarSolver(new WallGrid(10, 10), 0, 99);
+    heap.pop();
+    for (int cell = 99; cell >= 0; cell--) {
+      heap.push(cell);
+    }
+    boolean ordered = true;
+    long last = -1;
+    while (heap.heapSize > 0) {
+      long key = heap.keys[0];
+      heap.pop();
+      ordered = ordered && key >= last;
+      last = key;
+    }
+    t.checkExpect(ordered, true);
+    t.checkExpect(heap.isDone(), true);
+  }
+
+  // to test the methods passageCost(long, int, int), step(), push(int), pop() and
+  // pathCost() in the class DijkstraSolver
+  void testDijkstraSolver(Tester t) {
+    t.checkExpect(DijkstraSolver.passageCost(5, 3, 4), DijkstraSolver.passageCost(5, 4, 3));
+    t.checkRange(DijkstraSolver.passageCost(5, 3, 4), 0, DijkstraSolver.MAX_COST + 1);
+    t.checkRange(DijkstraSolver.passageCost(-9, 0, 30), 0, DijkstraSolver.MAX_COST + 1);
+
+    // a square of four cells has two ways from the top left to the bottom right
+    WallGrid square = new WallGrid(2, 2);
+    square.removeWall(0, 1);
+    square.removeWall(0, 2);
+    square.removeWall(1, 3);
+    square.removeWall(2, 3);
+    int right = DijkstraSolver.passageCost(7, 0, 1) + DijkstraSolver.passageCost(7, 1, 3);
+    int down = DijkstraSolver.passageCost(7, 0, 2) + DijkstraSolver.passageCost(7, 2, 3);
+    DijkstraSolver cheapest = new DijkstraSolver(square, 0, 3, 7);
+    t.checkExpect(cheapest.pathCost(), -1);
+    t.checkExpect(cheapest.step(), 0);
+    t.checkExpect(cheapest.queued, 2);
+    t.checkExpect(cheapest.solve(), true);
+    t.checkExpect(cheapest.pathCost(), Math.min(right, down));
+    t.checkExpect(cheapest.path()[1], right <= down ? 1 : 2);
+    t.checkExpect(cheapest.step(), -1);
+
+    // on a braided maze the cheapest path costs no more than the shortest one, and the
+    // buckets hand out the cells in the order of their costs
+    MazeLayout layout = MazeGenerator.generate(60, 60, 3, "noBias");
+    MazeGenerator.braid(layout.walls, 3, 0.5);
+    DijkstraSolver weighted = new DijkstraSolver(layout.walls, 0, 3599, 3);
+    weighted.solve();
+    MazeSolver breadth = new MazeSolver(layout.walls, 0, 3599, false);
+    breadth.solve();
+    int[] shortest = breadth.path();
+    int shortestCost = 0;
+    for (int i = 1; i < shortest.length; i++) {
+      shortestCost += DijkstraSolver.passageCost(3, shortest[i - 1], shortest[i]);
+    }
+    t.checkExpect(weighted.pathCost() <= shortestCost, true);
+    int[] cheapestPath = weighted.path();
+    int pathCost = 0;
+    for (int i = 1; i < cheapestPath.length; i++) {
+      pathCost += DijkstraSolver.passageCost(3, cheapestPath[i - 1], cheapestPath[i]);
+    }
+    t.checkExpect(pathCost, weighted.pathCost());
+    boolean inOrder = true;
+    for (int i = 1; i < weighted.visitedCount; i++) {
+      inOrder = inOrder && weighted.cost[weighted.visitOrder[i - 1]]
+          <= weighted.cost[weighted.visitOrder[i]];
+    }
+    t.checkExpect(inOrder, true);
+    // the entries of visited cells are handed out again
+    t.checkExpect(weighted.entryCount < weighted.visitedCount, true);
+
+    // without loops there is only one path, the same as the one breadth first finds
+    MazeLayout perfect = MazeGenerator.generate(30, 30, 4, "h");
+    DijkstraSolver tree = new DijkstraSolver(perfect.walls, 0, 899, 4);
+    tree.solve();
+    MazeSolver treeBreadth = new MazeSolver(perfect.walls, 0, 899, false);
+    treeBreadth.solve();
+    t.checkExpect(tree.path(), treeBreadth.path());
   }
 
-  // to test the method connectCells() in the class Edge
-  void testConnectCells(Tester t) {
+  // to test the method braid(WallGrid, long, double) in the class MazeGenerator
+  void testBraid(Tester t) {
+    MazeLayout layout = MazeGenerator.generate(20, 20, 2, "noBias");
+    long[] before = layout.walls.bits.clone();
+    MazeGenerator.braid(layout.walls, 2, 0.0);
+    t.checkExpect(layout.walls.bits, before);
+    MazeGenerator.braid(layout.walls, 2, 1.0);
+    t.checkExpect(layout.walls.passageCount() > 399, true);
+    int[] around = new int[4];
+    int deadEnds = 0;
+    for (int cell = 0; cell < 400; cell++) {
+      if (layout.walls.neighbors(cell, around) == 1) {
+        deadEnds++;
+      }
+    }
+    t.checkExpect(deadEnds, 0);
+    // the same seed braids the same way
+    MazeLayout again = MazeGenerator.generate(20, 20, 2, "noBias");
+    MazeGenerator.braid(again.walls, 2, 1.0);
+    t.checkExpect(again.walls.bits, layout.walls.bits);
+  }
+
+  // to test the methods weighted() and braidForWeights() in the class Maze
+  void testWeightedSearch(Tester t) {
     initData();
-    t.checkExpect(this.edge0.connected, false);
-    this.edge0.connectCells();
-    t.checkExpect(this.edge0.connected, true);
+    this.maze2.onKeyReleased("3");
+    // nothing is braided while the maze is being built
+    this.maze2.braidForWeights();
+    t.checkExpect(this.maze2.braided, false);
+    this.maze2.onTick();
+    long seed = this.maze2.generator.seed;
+    MazeLayout layout = MazeGenerator.generate(25, 25, seed, "noBias");
+    t.checkExpect(this.maze2.generator.walls.bits, layout.walls.bits);
+    this.maze2.onKeyReleased("w");
+    t.checkExpect(this.maze2.weighted, true);
+    t.checkExpect(this.maze2.solver.name(), "Dijkstra");
+    // the first weighted search braids the maze, and the exit is hung from the new walls
+    MazeGenerator.braid(layout.walls, seed, Maze.BRAID_CHANCE);
+    t.checkExpect(this.maze2.braided, true);
+    t.checkExpect(this.maze2.generator.walls.bits, layout.walls.bits);
+    t.checkExpect(this.maze2.walls.passageCount() > 624, true);
+    t.checkExpect(this.maze2.exitIndexed, true);
+    t.checkExpect(this.maze2.exitIndex.depth, new PathIndex(layout.walls, 624).depth);
+    this.runSearch(this.maze2);
+    t.checkExpect(this.maze2.weighted, false);
+    t.checkExpect(this.maze2.solver.found, true);
+    t.checkExpect(this.maze2.path.size(), this.maze2.solver.pathLength());
+    t.checkExpect(this.maze2.path.get(this.maze2.path.size() - 1), this.maze2.cellList.get(0));
+    DijkstraSolver cheapest = new DijkstraSolver(layout.walls, 0, 624, seed);
+    cheapest.solve();
+    t.checkExpect(this.maze2.solver.path(), cheapest.path());
+    this.maze2.onKeyReleased("r");
+    t.checkExpect(this.maze2.solver, null);
+    // a maze is braided once
+    this.maze2.onKeyReleased("w");
+    t.checkExpect(this.maze2.generator.walls.bits, layout.walls.bits);
+    // a new maze is braided again before its first weighted search
+    this.maze2.onKeyReleased("n");
+    t.checkExpect(this.maze2.braided, false);
+    this.maze2.onTick();
+    this.maze2.onKeyReleased("w");
+    t.checkExpect(this.maze2.braided, true);
+    // a weighted search after another search clears it, braids the maze and runs
+    this.maze2.onKeyReleased("n");
+    this.maze2.onTick();
+    this.maze2.onKeyReleased("b");
+    this.runSearch(this.maze2);
+    this.maze2.onKeyReleased("w");
+    t.checkExpect(this.maze2.braided, true);
+    t.checkExpect(this.maze2.weighted, true);
+    t.checkExpect(this.maze2.solver.name(), "Dijkstra");
+    t.checkExpect(this.maze2.visited.size(), 0);
+    this.runSearch(this.maze2);
+    t.checkExpect(this.maze2.solver.found, true);
+    t.checkExpect(this.maze2.path.size(), this.maze2.solver.pathLength());
+  }
+
+  // to test the methods step() and join(int, int) in the class BidirectionalSolver
+  void testBidirectionalSolver(Tester t) {
+    WallGrid walls = new WallGrid(2, 3);
+    walls.removeWall(0, 1);
+    walls.removeWall(1, 2);
+    walls.removeWall(0, 3);
+    walls.removeWall(3, 4);
+    walls.removeWall(4, 5);
+    BidirectionalSolver both = new BidirectionalSolver(walls, 0, 5);
+    t.checkExpect(both.step(), 0);
+    t.checkExpect(both.step(), 5);
+    t.checkExpect(both.seenBack.get(4), true);
+    // the goal side is smaller, and it reaches 3 from 4 where the sides meet
+    t.checkExpect(both.step(), 4);
+    t.checkExpect(both.found, true);
+    t.checkExpect(both.visitedCount, 3);
+    t.checkExpect(both.path(), new int[] {5, 4, 3, 0});
+    t.checkExpect(both.step(), -1);
+    BidirectionalSolver same = new BidirectionalSolver(walls, 2, 2);
+    t.checkExpect(same.found, false);
+    t.checkExpect(same.step(), 2);
+    t.checkExpect(same.found, true);
+    t.checkExpect(same.visitedCount, 1);
+    t.checkExpect(same.path(), new int[] {2});
+    t.checkExpect(same.step(), -1);
+    // on a maze of one cell it counts the cell it visits like a search from one end
+    BidirectionalSolver single = new BidirectionalSolver(new WallGrid(1, 1), 0, 0);
+    MazeSolver breadthOne = new MazeSolver(new WallGrid(1, 1), 0, 0, false);
+    t.checkExpect(single.solve(), true);
+    t.checkExpect(breadthOne.solve(), true);
+    t.checkExpect(single.visitedCount, breadthOne.visitedCount);
+    t.checkExpect(new BidirectionalSolver(new WallGrid(2, 2), 0, 3).solve(), false);
+
+    // on a big maze every search finds the one path, and the informed ones expand less
+    MazeLayout big = MazeGenerator.generate(300, 300, 11, "noBias");
+    MazeSolver breadth = new MazeSolver(big.walls, 0, 89999, false);
+    AStarSolver astar = new AStarSolver(big.walls, 0, 89999);
+    BidirectionalSolver bidirectional = new BidirectionalSolver(big.walls, 0, 89999);
+    breadth.solve();
+    astar.solve();
+    bidirectional.solve();
+    t.checkExpect(astar.path(), breadth.path());
+    t.checkExpect(bidirectional.path(), breadth.path());
+    t.checkRange(astar.visitedCount, 0, breadth.visitedCount);
+    t.checkRange(bidirectional.visitedCount, 0, breadth.visitedCount);
+  }
+
+  // to test the method generate(int, int, long, String) in the class MazeGenerator
+  void testGenerate(Tester t) {
+    MazeLayout layout = MazeGenerator.generate(20, 30, 7, "noBias");
+    t.checkExpect(layout.walls.passageCount(), 599L);
+    t.checkExpect(layout.seed, 7L);
+    // the passages join every cell, and with 599 of them there is no cycle
+    UnionFind check = new UnionFind(600);
+    int[] around = new int[4];
+    for (int cell = 0; cell < 600; cell++) {
+      int count = layout.walls.neighbors(cell, around);
+      for (int i = 0; i < count; i++) {
+        check.union(cell, around[i]);
+      }
+    }
+    t.checkExpect(check.size[check.find(0)], 600);
+    // the same seed always builds the same maze
+    MazeLayout again = MazeGenerator.generate(20, 30, 7, "noBias");
+    t.checkExpect(again.walls.bits, layout.walls.bits);
+    t.checkExpect(MazeGenerator.generate(1, 1, 7, "v").walls.passageCount(), 0L);
+  }
+
+  // to test the methods hasNext() and next() in the class EdgeStream
+  void testEdgeStream(Tester t) {
+    EdgeStream stream = new EdgeStream(40, 40, 3, "h");
+    int total = stream.horizontalCount + stream.verticalCount;
+    t.checkExpect(total, new MazeGenerator(40, 40, 3, "h").edgeCount());
+    // every edge is handed out exactly once
+    BitSet handedOut = new BitSet(total);
+    int[] firstHalf = new int[total / 2];
+    for (int i = 0; i < total; i++) {
+      int edge = stream.next();
+      handedOut.set(edge);
+      if (i < firstHalf.length) {
+        firstHalf[i] = edge;
+      }
+    }
+    t.checkExpect(handedOut.cardinality(), total);
+    t.checkExpect(stream.hasNext(), false);
+    // with a horizontal bias about two thirds of the first half are horizontal
+    int horizontal = 0;
+    for (int i = 0; i < firstHalf.length; i++) {
+      if (firstHalf[i] < stream.horizontalCount) {
+        horizontal++;
+      }
+    }
+    t.checkRange(horizontal, total / 4 + 100, total / 2);
+
+    // without a bias the edges are one shuffle of all of them, the same for the same seed
+    EdgeStream plain = new EdgeStream(3, 4, 9, "noBias");
+    EdgeStream again = new EdgeStream(3, 4, 9, "noBias");
+    boolean same = true;
+    BitSet plainOut = new BitSet();
+    while (plain.hasNext()) {
+      int edge = plain.next();
+      plainOut.set(edge);
+      same = same && edge == again.next();
+    }
+    t.checkExpect(same, true);
+    t.checkExpect(plainOut.cardinality(), 17);
+    t.checkExpect(new EdgeStream(1, 1, 9, "v").hasNext(), false);
+  }
+
+  // to test the method takeHorizontal() in the class EdgeStream
+  void testTakeHorizontal(Tester t) {
+    EdgeStream stream = new EdgeStream(2, 3, 1, "v");
+    // 4 horizontal edges spread over the whole range, 3 vertical ones over its first half
+    t.checkExpect(stream.takeHorizontal(), false);
+    stream.verticalTaken = 1;
+    t.checkExpect(stream.takeHorizontal(), true);
+    stream.horizontalTaken = 1;
+    stream.verticalTaken = 3;
+    t.checkExpect(stream.takeHorizontal(), true);
+    stream.horizontalTaken = 4;
+    stream.verticalTaken = 2;
+    t.checkExpect(stream.takeHorizontal(), false);
+  }
+
+  // to test the method get(int) in the class RandomPermutation
+  void testRandomPermutation(Tester t) {
+    int[] sizes = new int[] {1, 2, 7, 64, 1000, 4097};
+    boolean bijective = true;
+    for (int size : sizes) {
+      RandomPermutation shuffle = new RandomPermutation(size, 42);
+      BitSet hit = new BitSet(size);
+      for (int i = 0; i < size; i++) {
+        hit.set(shuffle.get(i));
+      }
+      bijective = bijective && hit.cardinality() == size && hit.length() == size;
+    }
+    t.checkExpect(bijective, true);
+    // different seeds give different shuffles
+    RandomPermutation first = new RandomPermutation(1000, 1);
+    RandomPermutation second = new RandomPermutation(1000, 2);
+    int moved = 0;
+    for (int i = 0; i < 1000; i++) {
+      if (first.get(i) != second.get(i)) {
+        moved++;
+      }
+    }
+    t.checkRange(moved, 900, 1001);
+  }
+
+  // to test the method generate(int, int, long, String, int, ForkJoinPool) in the class
+  // ParallelMazeGenerator
+  void testGenerateParallel(Tester t) {
+    ForkJoinPool onePool = new ForkJoinPool(1);
+    ForkJoinPool fourPool = new ForkJoinPool(4);
+    MazeLayout layout = ParallelMazeGenerator.generate(100, 30, 8, "v", 16, fourPool);
+    t.checkExpect(layout.walls.passageCount(), 2999L);
+    UnionFind check = new UnionFind(3000);
+    int[] around = new int[4];
+    for (int cell = 0; cell < 3000; cell++) {
+      int count = layout.walls.neighbors(cell, around);
+      for (int i = 0; i < count; i++) {
+        check.union(cell, around[i]);
+      }
+    }
+    t.checkExpect(check.size[check.find(0)], 3000);
+    // the same seed builds the same maze on any number of threads
+    t.checkExpect(ParallelMazeGenerator.generate(100, 30, 8, "v", 16, onePool).walls.bits,
+        layout.walls.bits);
+    // a maze of one band is the maze the sequential generator builds
+    t.checkExpect(ParallelMazeGenerator.generate(20, 30, 8, "h", 20, fourPool).walls.bits,
+        MazeGenerator.generate(20, 30, 8, "h").walls.bits);
+    t.checkException(new IllegalArgumentException("The cells of a band must fill whole longs: "
+        + "3 rows of 30 cells"), new ParallelMazeGenerator(), "generate", 100, 30, 8L, "v", 3,
+        onePool);
+    onePool.shutdown();
+    fourPool.shutdown();
+  }
+
+  // to test the method bandRows(int, int) in the class ParallelMazeGenerator
+  void testBandRows(Tester t) {
+    t.checkExpect(ParallelMazeGenerator.bandRows(10, 10), 10);
+    t.checkExpect(ParallelMazeGenerator.bandRows(100000, 1000), 4192);
+    t.checkExpect(ParallelMazeGenerator.bandRows(100000, 1000) * 1000 % 32, 0);
+    t.checkExpect(ParallelMazeGenerator.bandRows(100000, 3), 100000);
+    t.checkExpect(ParallelMazeGenerator.bandRows(10000000, 3), 1398080);
+    t.checkExpect(ParallelMazeGenerator.bandRows(10, 10000001), 10);
+    t.checkExpect(ParallelMazeGenerator.gcd(12, 32), 4);
+  }
+
+  // to test the method nextRow(boolean) in the class EllerGenerator
+  void testEllerNextRow(Tester t) {
+    EllerGenerator eller = new EllerGenerator(30, 5, "noBias");
+    WallGrid walls = new WallGrid(20, 30);
+    for (int y = 0; y < 20; y++) {
+      eller.nextRow(y == 19);
+      eller.copyRow(walls, y);
+    }
+    t.checkExpect(eller.row, 20L);
+    t.checkExpect(walls.passageCount(), 599L);
+    // the passages join every cell, and with 599 of them there is no cycle
+    UnionFind check = new UnionFind(600);
+    int[] around = new int[4];
+    for (int cell = 0; cell < 600; cell++) {
+      int count = walls.neighbors(cell, around);
+      for (int i = 0; i < count; i++) {
+        check.union(cell, around[i]);
+      }
+    }
+    t.checkExpect(check.size[check.find(0)], 600);
+    // the borders stay up
+    t.checkExpect(walls.hasRightWall(29), true);
+    t.checkExpect(walls.hasBottomWall(599), true);
+    // a horizontal bias opens more passages along the rows than a vertical one
+    EllerGenerator wide = new EllerGenerator(100, 5, "h");
+    EllerGenerator tall = new EllerGenerator(100, 5, "v");
+    int wideOpen = 0;
+    int tallOpen = 0;
+    for (int y = 0; y < 50; y++) {
+      wide.nextRow(false);
+      tall.nextRow(false);
+      for (int x = 0; x < 99; x++) {
+        wideOpen += wide.hasRightWall(x) ? 0 : 1;
+        tallOpen += tall.hasRightWall(x) ? 0 : 1;
+      }
+    }
+    t.checkRange(wideOpen, tallOpen + 1000, 4951);
+  }
+
+  // to test the method write(long, OutputStream) in the class EllerGenerator
+  void testEllerWrite(Tester t) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      new EllerGenerator(32, 9, "v").write(10, out);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    // every row takes 8 bytes, the same bits as a row of the maze kept in a grid
+    byte[] bytes = out.toByteArray();
+    t.checkExpect(bytes.length, 80);
+    EllerGenerator eller = new EllerGenerator(32, 9, "v");
+    WallGrid walls = new WallGrid(10, 32);
+    for (int y = 0; y < 10; y++) {
+      eller.nextRow(y == 9);
+      eller.copyRow(walls, y);
+    }
+    boolean same = true;
+    for (int i = 0; i < bytes.length; i++) {
+      same = same && bytes[i] == (byte) (walls.bits[i >>> 3] >>> (8 * (i & 7)));
+    }
+    t.checkExpect(same, true);
+    // a row of 5 cells takes 10 bits, so 2 bytes
+    ByteArrayOutputStream small = new ByteArrayOutputStream();
+    try {
+      new EllerGenerator(5, 9, "h").write(3, small);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    t.checkExpect(small.size(), 6);
+  }
+
+  // to test the methods get(long), set(long, long), or(long, long), release(long) and
+  // byteSize() in the class OffHeapLongs
+  void testOffHeapLongs(Tester t) {
+    OffHeapLongs longs = new OffHeapLongs(10, 2);
+    t.checkExpect(longs.chunks.length, 3);
+    t.checkExpect(longs.get(9), 0L);
+    t.checkExpect(longs.byteSize(), 0L);
+    longs.set(3, -5);
+    longs.set(4, Long.MAX_VALUE);
+    longs.or(9, 6);
+    longs.or(9, 9);
+    t.checkExpect(longs.get(3), -5L);
+    t.checkExpect(longs.get(4), Long.MAX_VALUE);
+    t.checkExpect(longs.get(5), 0L);
+    t.checkExpect(longs.get(9), 15L);
+    t.checkExpect(longs.byteSize(), 96L);
+    // only chunks wholly below the index are let go
+    longs.release(7);
+    t.checkExpect(longs.get(3), 0L);
+    t.checkExpect(longs.get(4), Long.MAX_VALUE);
+    t.checkExpect(longs.chunks[0], null);
+    t.checkExpect(longs.byteSize(), 64L);
+    // an index past two billion only makes the chunk it lands in
+    OffHeapLongs huge = new OffHeapLongs(5000000000L, 10);
+    huge.set(4999999999L, 42);
+    t.checkExpect(huge.get(4999999999L), 42L);
+    t.checkExpect(huge.byteSize(), 8192L);
+    t.checkConstructorException(new IllegalArgumentException("An off heap array needs a "
+        + "length of at least 0 and chunks of 2 ^ 0 to 2 ^ 27 longs: 4 longs in chunks of "
+        + "2 ^ 28"), "OffHeapLongs", 4L, 28);
+  }
+
+  // to test the methods openRow(long, long[]), hasRightWall(long), hasBottomWall(long) and
+  // neighbors(long, long[]) in the class OffHeapWallGrid and copyRow(OffHeapWallGrid, long)
+  // and fill(OffHeapWallGrid) in the class EllerGenerator
+  void testOffHeapWallGrid(Tester t) {
+    // rows of 7 cells start in the middle of a long and run over into the next one
+    WallGrid onHeap = new WallGrid(40, 7);
+    EllerGenerator rows = new EllerGenerator(7, 3, "v");
+    for (int y = 0; y < 40; y++) {
+      rows.nextRow(y == 39);
+      rows.copyRow(onHeap, y);
+    }
+    OffHeapWallGrid offHeap = new OffHeapWallGrid(40, 7, 1);
+    new EllerGenerator(7, 3, "v").fill(offHeap);
+    t.checkExpect(offHeap.cellCount(), 280L);
+    boolean same = true;
+    int[] around = new int[4];
+    long[] aroundOff = new long[4];
+    for (int cell = 0; cell < 280; cell++) {
+      same = same && offHeap.hasRightWall(cell) == onHeap.hasRightWall(cell)
+          && offHeap.hasBottomWall(cell) == onHeap.hasBottomWall(cell);
+      int count = onHeap.neighbors(cell, around);
+      same = same && offHeap.neighbors(cell, aroundOff) == count;
+      for (int i = 0; i < count; i++) {
+        same = same && aroundOff[i] == around[i];
+      }
+    }
+    t.checkExpect(same, true);
+
+    OffHeapWallGrid grid = new OffHeapWallGrid(2, 3, 4);
+    t.checkExpect(grid.hasRightWall(0), true);
+    // the second row starts at the seventh bit, its second cell has its right wall down
+    grid.openRow(1, new long[] {~0b000100L});
+    t.checkExpect(grid.open.get(0), 0b000100L << 6);
+    t.checkExpect(grid.hasRightWall(3), true);
+    t.checkExpect(grid.hasBottomWall(4), true);
+    t.checkExpect(grid.hasRightWall(4), false);
+    t.checkExpect(grid.neighbors(4, aroundOff), 1);
+    t.checkExpect(aroundOff[0], 5L);
+  }
+
+  // to test the methods step(), mark(long), parent(long), sideOf(long, long, int), solve()
+  // and pathLength() in the class OffHeapSolver
+  void testOffHeapSolver(Tester t) {
+    WallGrid onHeap = new WallGrid(30, 45);
+    EllerGenerator rows = new EllerGenerator(45, 8, "noBias");
+    for (int y = 0; y < 30; y++) {
+      rows.nextRow(y == 29);
+      rows.copyRow(onHeap, y);
+    }
+    OffHeapWallGrid offHeap = new OffHeapWallGrid(30, 45, 3);
+    new EllerGenerator(45, 8, "noBias").fill(offHeap);
+    for (int i = 0; i < 2; i++) {
+      MazeSolver expected = new MazeSolver(onHeap, 0, 1349, i == 1);
+      expected.solve();
+      OffHeapSolver search = new OffHeapSolver(offHeap, 0, 1349, i == 1, 3);
+      t.checkExpect(search.solve(), true);
+      t.checkExpect(search.visitedCount, (long) expected.visitedCount);
+      t.checkExpect(search.pathLength(), (long) expected.pathLength());
+      boolean sameParents = true;
+      for (int cell = 0; cell < 1350; cell++) {
+        sameParents = sameParents && (search.mark(cell) == 0) != expected.seen.get(cell)
+            && (search.mark(cell) == 0 || search.parent(cell) == expected.parent[cell]);
+      }
+      t.checkExpect(sameParents, true);
+    }
+    // a queue lets go of the chunks its head has passed
+    OffHeapSolver breadth = new OffHeapSolver(offHeap, 0, 1349, false, 3);
+    breadth.solve();
+    t.checkExpect(breadth.frontier.chunks[0], null);
+    t.checkExpect(breadth.mark(0), OffHeapSolver.START);
+    t.checkExpect(breadth.parent(0), 0L);
+    t.checkExpect(breadth.step(), -1L);
+    t.checkExpect(OffHeapSolver.sideOf(2, 47, 45), OffHeapSolver.UP);
+    t.checkExpect(OffHeapSolver.sideOf(48, 47, 45), OffHeapSolver.RIGHT);
+    t.checkExpect(OffHeapSolver.sideOf(92, 47, 45), OffHeapSolver.DOWN);
+    t.checkExpect(OffHeapSolver.sideOf(46, 47, 45), OffHeapSolver.LEFT);
+  }
+
+  // to test the methods save(WallGrid, long, String, ASolver, String, OutputStream),
+  // open(Path, int), pathLength() and pathCell(long) in the class MazeFile
+  void testMazeFile(Tester t) {
+    try {
+      MazeLayout layout = MazeGenerator.generate(20, 30, 4, "h");
+      MazeSolver search = new MazeSolver(layout.walls, 0, 599, false);
+      search.solve();
+      Path file = Files.createTempFile("maze", ".bin");
+      file.toFile().deleteOnExit();
+      try (OutputStream out = Files.newOutputStream(file)) {
+        MazeFile.save(layout.walls, 4, "h", search, "b", out);
+      }
+      // the header, 600 cells at 32 cells to a long, then a long for every cell of the path
+      t.checkExpect(Files.size(file), 64L + 8 * 19 + 8L * search.pathLength());
+      MazeFile saved = MazeFile.open(file, 2);
+      t.checkExpect(saved.rows, 20L);
+      t.checkExpect(saved.cols, 30);
+      t.checkExpect(saved.seed, 4L);
+      t.checkExpect(saved.bias, "h");
+      t.checkExpect(saved.solverKey, "b");
+      t.checkExpect(saved.visitedCount, (long) search.visitedCount);
+      t.checkExpect(saved.open.chunks.length, 5);
+      int[] path = search.path();
+      t.checkExpect(saved.pathLength(), (long) path.length);
+      boolean samePath = true;
+      for (int i = 0; i < path.length; i++) {
+        samePath = samePath && saved.pathCell(i) == path[i];
+      }
+      t.checkExpect(samePath, true);
+
+      // without a search that found the exit there is no path
+      MazeSolver unfinished = new MazeSolver(layout.walls, 0, 599, false);
+      unfinished.step();
+      try (OutputStream out = Files.newOutputStream(file)) {
+        MazeFile.save(layout.walls, 4, "noBias", unfinished, "b", out);
+      }
+      MazeFile plain = MazeFile.open(file);
+      t.checkExpect(plain.bias, "noBias");
+      t.checkExpect(plain.solverKey, "");
+      t.checkExpect(plain.visitedCount, 0L);
+      t.checkExpect(plain.pathLength(), 0L);
+      t.checkExpect(Files.size(file), 64L + 8 * 19);
+
+      // a file that is not a maze, of another version or cut short is refused
+      byte[] bytes = Files.readAllBytes(file);
+      Path other = Files.createTempFile("other", ".bin");
+      other.toFile().deleteOnExit();
+      Files.write(other, "not a maze".getBytes("UTF-8"));
+      t.checkExpect(this.openFailure(other), "Not a maze file: " + other);
+      bytes[4] = 2;
+      Files.write(other, bytes);
+      t.checkExpect(this.openFailure(other),
+          "Unsupported maze file version 2: " + other);
+      bytes[4] = 1;
+      Files.write(other, Arrays.copyOf(bytes, 100));
+      t.checkExpect(this.openFailure(other), "Damaged maze file: " + other);
+      // so is a file with a wall down on the border, here on the right of the last cell
+      // of a 3x3 maze, below the first cell of its last row and past its last cell
+      try (OutputStream out = Files.newOutputStream(other)) {
+        MazeFile.save(MazeGenerator.generate(3, 3, 4, "noBias").walls, 4, "noBias", null,
+            "", out);
+      }
+      byte[] small = Files.readAllBytes(other);
+      t.checkExpect(this.openFailure(other), "");
+      small[66] |= 1;
+      Files.write(other, small);
+      t.checkExpect(this.openFailure(other), "Damaged maze file: " + other);
+      small[66] &= ~1;
+      small[65] |= 0x20;
+      Files.write(other, small);
+      t.checkExpect(this.openFailure(other), "Damaged maze file: " + other);
+      small[65] &= ~0x20;
+      small[71] |= 0x40;
+      Files.write(other, small);
+      t.checkExpect(this.openFailure(other), "Damaged maze file: " + other);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  // to find the message of the exception opening the given file as a MazeFile throws,
+  // "" if it opens
+  String openFailure(Path file) {
+    try {
+      MazeFile.open(file);
+      return "";
+    } catch (IOException e) {
+      return e.getMessage();
+    }
+  }
+
+  // to test the methods hasRightWall(int), hasBottomWall(int), passageCount(),
+  // wordCount(), openWord(long) and byteSize() in the class MappedWallGrid, and walls(),
+  // offHeapWalls() and
+  // save(OffHeapWallGrid, long, String, OffHeapSolver, OutputStream) in the class MazeFile
+  void testMappedWallGrid(Tester t) {
+    try {
+      MazeLayout layout = MazeGenerator.generate(20, 30, 5, "v");
+      Path file = Files.createTempFile("maze", ".bin");
+      file.toFile().deleteOnExit();
+      try (OutputStream out = Files.newOutputStream(file)) {
+        MazeFile.save(layout.walls, 5, "v", null, "", out);
+      }
+      MazeFile saved = MazeFile.open(file, 2);
+      MappedWallGrid walls = saved.walls();
+      OffHeapWallGrid offHeap = saved.offHeapWalls();
+      boolean same = true;
+      for (int cell = 0; cell < 600; cell++) {
+        same = same && walls.hasRightWall(cell) == layout.walls.hasRightWall(cell)
+            && walls.hasBottomWall(cell) == layout.walls.hasBottomWall(cell)
+            && offHeap.hasRightWall(cell) == layout.walls.hasRightWall(cell)
+            && offHeap.hasBottomWall(cell) == layout.walls.hasBottomWall(cell);
+      }
+      t.checkExpect(same, true);
+      t.checkExpect(walls.passageCount(), 599L);
+      t.checkExpect(walls.wordCount(), 19L);
+      t.checkExpect(walls.openWord(3), layout.walls.openWord(3));
+      t.checkExpect(layout.walls.openWord(3), ~layout.walls.bits[3]);
+      t.checkExpect(walls.byteSize(), 152L);
+
+      // every search goes through the mapped walls the way it goes through the ones on
+      // the heap
+      String[] keys = {"b", "d", "a", "t", "w"};
+      for (int i = 0; i < keys.length; i++) {
+        ASolver mapped = ASolver.forKey(keys[i], walls, 0, 599, 5);
+        ASolver heap = ASolver.forKey(keys[i], layout.walls, 0, 599, 5);
+        mapped.solve();
+        heap.solve();
+        t.checkExpect(mapped.visitedCount, heap.visitedCount);
+        t.checkExpect(mapped.path(), heap.path());
+      }
+
+      // the walls belong to the file, they are read like any grid but are no WallGrid
+      // that could be knocked down
+      AWallGrid read = walls;
+      t.checkExpect(read instanceof WallGrid, false);
+      t.checkExpect(read.isOpen(0, 1), layout.walls.isOpen(0, 1));
+
+      // a maze built off the heap is saved with its path and opens as a WallGrid too
+      OffHeapWallGrid eller = new OffHeapWallGrid(30, 45, 3);
+      new EllerGenerator(45, 8, "noBias").fill(eller);
+      OffHeapSolver search = new OffHeapSolver(eller, 0, 1349, true, 3);
+      search.solve();
+      try (OutputStream out = Files.newOutputStream(file)) {
+        MazeFile.save(eller, 8, "noBias", search, out);
+      }
+      MazeFile big = MazeFile.open(file, 3);
+      t.checkExpect(big.solverKey, "d");
+      t.checkExpect(big.visitedCount, search.visitedCount);
+      t.checkExpect(big.pathLength(), search.pathLength());
+      t.checkExpect(big.pathCell(0), 1349L);
+      t.checkExpect(big.pathCell(big.pathLength() - 1), 0L);
+      MazeSolver depth = new MazeSolver(big.walls(), 0, 1349, true);
+      depth.solve();
+      t.checkExpect((long) depth.visitedCount, search.visitedCount);
+      t.checkExpect((long) depth.pathLength(), search.pathLength());
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  // to test the methods saveFile(Path), loadFile(Path), load(MazeFile),
+  // runsThrough(MazeFile, AWallGrid), useWalls(AWallGrid) and solverKey() in the class
+  // Maze, and adopt(long, String) in the class MazeGenerator
+  void testMazeLoad(Tester t) {
+    try {
+      initData();
+      Path file = Files.createTempFile("maze", ".bin");
+      file.toFile().deleteOnExit();
+      this.maze2.onKeyReleased("3");
+      this.maze2.onTick();
+      this.maze2.onKeyReleased("t");
+      this.runSearch(this.maze2);
+      t.checkExpect(this.maze2.solverKey(), "t");
+      this.maze2.saveFile(file);
+      long seed = this.maze2.generator.seed;
+      int visitedCount = this.maze2.solver.visitedCount;
+      int pathSize = this.maze2.path.size();
+      MazeFile saved = MazeFile.open(file);
+      t.checkExpect(saved.solverKey, "t");
+      t.checkExpect(saved.visitedCount, (long) visitedCount);
+      t.checkExpect(saved.pathLength(), (long) pathSize);
+
+      // a new maze, then the saved one back, complete and read from the file
+      this.maze2.onKeyReleased("n");
+      this.maze2.onTick();
+      this.maze2.loadFile(file);
+      t.checkExpect(this.maze2.walls instanceof MappedWallGrid, true);
+      t.checkExpect(this.maze2.layer.walls == this.maze2.walls, true);
+      t.checkExpect(this.maze2.generator.seed, seed);
+      t.checkExpect(this.maze2.generator.isDone(), true);
+      t.checkExpect(this.maze2.generator.sets.finds, 0L);
+      t.checkExpect(this.maze2.render, false);
+      t.checkExpect(this.maze2.solver, null);
+      t.checkExpect(this.maze2.searches[3], null);
+      t.checkExpect(this.maze2.visited.size(), 0);
+      // with the path of the saved search and the cells it visited
+      t.checkExpect(this.maze2.savedVisited, visitedCount);
+      t.checkExpect(this.maze2.path.size(), pathSize);
+      t.checkExpect(this.maze2.path.get(pathSize - 1), this.maze2.cellList.get(0));
+      t.checkExpect(this.maze2.layer.paintedPath, pathSize);
+      t.checkExpect(this.maze2.stepCounter(), visitedCount - 1);
+      long[] values = this.maze2.metricValues();
+      t.checkExpect(values[9], (long) visitedCount);
+      t.checkExpect(values[11], (long) pathSize);
+      WallGrid built = MazeGenerator.generate(25, 25, seed, "noBias").walls;
+      boolean same = true;
+      for (int cell = 0; cell < 625; cell++) {
+        same = same && this.maze2.walls.hasRightWall(cell) == built.hasRightWall(cell)
+            && this.maze2.walls.hasBottomWall(cell) == built.hasBottomWall(cell);
+      }
+      t.checkExpect(same, true);
+      // a search clears the saved one and runs in its place
+      this.maze2.onKeyReleased("b");
+      t.checkExpect(this.maze2.savedVisited, -1);
+      t.checkExpect(this.maze2.path.size(), 1);
+      t.checkExpect(this.maze2.bfs, true);
+      this.maze2.onKeyReleased("r");
+      this.maze2.onTick();
+      t.checkExpect(this.maze2.walls instanceof MappedWallGrid, true);
+      this.maze2.onKeyReleased("t");
+      this.runSearch(this.maze2);
+      t.checkExpect(this.maze2.solver.visitedCount, visitedCount);
+      t.checkExpect(this.maze2.path.size(), pathSize);
+
+      // saving the loaded maze over its own file leaves the walls it reads alone
+      this.maze2.saveFile(file);
+      t.checkExpect(this.maze2.walls.passageCount(), 624L);
+      t.checkExpect(MazeFile.open(file).visitedCount, (long) visitedCount);
+
+      // a maze that does not join every cell is refused before anything changes
+      byte[] bytes = Files.readAllBytes(file);
+      bytes[64] &= ~3;
+      Path cut = Files.createTempFile("cut", ".bin");
+      cut.toFile().deleteOnExit();
+      Files.write(cut, bytes);
+      AWallGrid loaded = this.maze2.walls;
+      ASolver solver = this.maze2.solver;
+      PathIndex exitIndex = this.maze2.exitIndex;
+      this.maze2.loadFile(cut);
+      t.checkExpect(this.maze2.walls == loaded, true);
+      t.checkExpect(this.maze2.solver == solver, true);
+      t.checkExpect(this.maze2.exitIndex == exitIndex, true);
+      t.checkExpect(this.maze2.path.size(), pathSize);
+      // and so is a saved path that does not run through the passages of the maze
+      bytes = Files.readAllBytes(file);
+      bytes[64 + 8 * 20 + 8] = 0;
+      bytes[64 + 8 * 20 + 9] = 0;
+      Files.write(cut, bytes);
+      this.maze2.loadFile(cut);
+      t.checkExpect(this.maze2.walls == loaded, true);
+      t.checkExpect(this.maze2.path.size(), pathSize);
+      t.checkExpect(Maze.runsThrough(MazeFile.open(file), loaded), true);
+      t.checkExpect(Maze.runsThrough(MazeFile.open(cut), loaded), false);
+
+      // a maze of another size is not loaded
+      this.maze1.loadFile(file);
+      t.checkExpect(this.maze1.walls == this.maze1.generator.walls, true);
+      t.checkException(new IllegalArgumentException("The saved maze is 25x25, this one is "
+          + "2x3"), this.maze1, "load", saved);
+
+      // building a new maze goes back to the walls of the generator
+      this.maze2.onKeyReleased("h");
+      t.checkExpect(this.maze2.walls == this.maze2.generator.walls, true);
+      t.checkExpect(this.maze2.layer.walls == this.maze2.walls, true);
+      t.checkExpect(this.maze2.walls.passageCount(), 0L);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  // to test the methods lowestCommonAncestor(int, int), distance(int, int) and
+  // path(int, int) in the class PathIndex
+  void testPathIndex(Tester t) {
+    // 0 - 1 - 2
+    // |       |
+    // 3   4 - 5
+    WallGrid walls = new WallGrid(2, 3);
+    walls.removeWall(0, 1);
+    walls.removeWall(1, 2);
+    walls.removeWall(0, 3);
+    walls.removeWall(2, 5);
+    walls.removeWall(4, 5);
+    PathIndex index = new PathIndex(walls, 0);
+    t.checkExpect(index.depth, new int[] {0, 1, 2, 1, 4, 3});
+    t.checkExpect(index.parent[4], 5);
+    t.checkExpect(index.lowestCommonAncestor(4, 3), 0);
+    t.checkExpect(index.lowestCommonAncestor(4, 2), 2);
+    t.checkExpect(index.distance(3, 4), 5);
+    t.checkExpect(index.pathLength(4, 4), 1);
+    t.checkExpect(index.path(3, 4), new int[] {3, 0, 1, 2, 5, 4});
+    t.checkExpect(index.path(5, 1), new int[] {5, 2, 1});
+    t.checkConstructorException(new IllegalArgumentException("The maze must join every cell: "
+        + "1 of 4 cells reached from 0"), "PathIndex", new WallGrid(2, 2), 0);
+
+    // on a big maze the index agrees with a search for every pair asked
+    MazeLayout big = MazeGenerator.generate(200, 200, 3, "noBias");
+    PathIndex bigIndex = new PathIndex(big.walls, 0);
+    Random rand = new Random(4);
+    boolean same = true;
+    for (int i = 0; i < 20; i++) {
+      int from = rand.nextInt(40000);
+      int to = rand.nextInt(40000);
+      MazeSolver solver = new MazeSolver(big.walls, to, from, false);
+      solver.solve();
+      same = same && Arrays.equals(bigIndex.path(from, to), solver.path())
+          && bigIndex.pathLength(from, to) == solver.pathLength();
+    }
+    t.checkExpect(same, true);
+    // a long chain of jumps reaches any ancestor in few steps
+    int deepest = 0;
+    for (int cell = 0; cell < 40000; cell++) {
+      if (bigIndex.depth[cell] > bigIndex.depth[deepest]) {
+        deepest = cell;
+      }
+    }
+    int jumps = 0;
+    for (int cell = deepest; cell != 0; cell = bigIndex.jump[cell]) {
+      jumps++;
+    }
+    t.checkRange(jumps, 1, 40);
+  }
+
+  // to test the method step() in the class MazeGenerator
+  void testStep(Tester t) {
+    MazeGenerator gen = new MazeGenerator(2, 2, 11, "noBias");
+    t.checkExpect(gen.isDone(), false);
+    int first = gen.step();
+    t.checkExpect(gen.sets.sameSet(gen.edgeCell1(first), gen.edgeCell2(first)), true);
+    t.checkExpect(gen.walls.isOpen(gen.edgeCell1(first), gen.edgeCell2(first)), true);
+    gen.step();
+    gen.step();
+    t.checkExpect(gen.isDone(), true);
+    t.checkExpect(gen.step(), -1);
+    t.checkExpect(gen.added, 3);
+  }
+
+  // to test the methods edgeCell1(int) and edgeCell2(int) in the class MazeGenerator
+  void testEdgeCells(Tester t) {
+    MazeGenerator gen = new MazeGenerator(2, 3, 0, "noBias");
+    t.checkExpect(gen.edgeCount(), 7);
+    t.checkExpect(gen.horizontalCount(), 4);
+    t.checkExpect(gen.edgeCell1(3), 4);
+    t.checkExpect(gen.edgeCell2(3), 5);
+    t.checkExpect(gen.edgeCell1(5), 1);
+    t.checkExpect(gen.edgeCell2(5), 4);
   }
 
   // to test the method findIndex() in the class Cell
@@ -689,118 +2654,760 @@ class ExamplesMaze {
     t.checkExpect(this.cell2.findIndex(2), 2);
   }
 
-  // to test the method changeRepresentative(HashMap<Integer, Integer>, int) in the class Edge
-  void testChangeRepresentative(Tester t) {
+  // to test the method find(int) in the class UnionFind
+  void testFind(Tester t) {
     initData();
-    t.checkExpect(this.repMap.get(0), 0);
-    this.edge0.changeRepresentative(repMap, 2);
-    t.checkExpect(this.repMap.get(0), 1);
+    t.checkExpect(this.repSets.find(3), 3);
+    this.repSets.parent[0] = 1;
+    this.repSets.parent[1] = 2;
+    this.repSets.parent[2] = 3;
+    t.checkExpect(this.repSets.find(0), 3);
+    // the path from 0 has been halved on the way up
+    t.checkExpect(this.repSets.parent[0], 2);
+    t.checkExpect(this.repSets.find(0), 3);
+    t.checkExpect(this.repSets.parent[0], 3);
+
+    // a long chain is walked without recursing
+    UnionFind chain = new UnionFind(1000000);
+    for (int i = 0; i < 999999; i++) {
+      chain.parent[i] = i + 1;
+    }
+    t.checkExpect(chain.find(0), 999999);
+  }
 
-    this.repMap.put(3, 2);
-    t.checkExpect(this.cell0.findRepresentatives(this.repMap, 2), 1);
-    t.checkExpect(this.cell1.findRepresentatives(this.repMap, 2), 1);
-    t.checkExpect(this.cell2.findRepresentatives(this.repMap, 2), 2);
-    t.checkExpect(this.cell3.findRepresentatives(this.repMap, 2), 2);
-    this.edge1.changeRepresentative(repMap, 2);
-    t.checkExpect(this.cell1.findRepresentatives(this.repMap, 2), 2);
-    t.checkExpect(this.cell0.findRepresentatives(this.repMap, 2), 2);
-    t.checkExpect(this.cell2.findRepresentatives(this.repMap, 2), 2);
-    t.checkExpect(this.cell3.findRepresentatives(this.repMap, 2), 2);
+  // to test the method union(int, int) in the class UnionFind
+  void testUnion(Tester t) {
+    initData();
+    t.checkExpect(this.repSets.union(0, 1), true);
+    t.checkExpect(this.repSets.parent, new int[] {1, 1, 2, 3});
+    t.checkExpect(this.repSets.size[1], 2);
+    // the smaller set is hung under the larger one
+    t.checkExpect(this.repSets.union(1, 2), true);
+    t.checkExpect(this.repSets.parent, new int[] {1, 1, 1, 3});
+    t.checkExpect(this.repSets.size[1], 3);
+    t.checkExpect(this.repSets.union(3, 0), true);
+    t.checkExpect(this.repSets.parent[3], 1);
+    t.checkExpect(this.repSets.union(2, 3), false);
+    t.checkExpect(this.repSets.sameSet(0, 3), true);
   }
 
-  // to test the method checkRightRelation(Cell) in the class Cell
-  void testCheckRightRelation(Tester t) {
+  // to test the method reset() in the class UnionFind
+  void testReset(Tester t) {
     initData();
-    t.checkExpect(this.cell0.checkRightRelation(cell2), false);
-    t.checkExpect(this.cell0.checkRightRelation(cell1), true);
+    this.repSets.union(0, 1);
+    this.repSets.union(2, 3);
+    this.repSets.reset();
+    t.checkExpect(this.repSets.parent, new int[] {0, 1, 2, 3});
+    t.checkExpect(this.repSets.size, new int[] {1, 1, 1, 1});
+    t.checkExpect(this.repSets.sameSet(0, 1), false);
+    t.checkExpect(this.repSets.unions, 0L);
+    t.checkExpect(this.repSets.finds, 2L);
   }
 
-  // to test the method placeWallHelper(WorldScene, int, boolean) in the class Cell
+  // to test the methods reset(long, String) in the classes MazeGenerator and EdgeStream and
+  // reset(int, long) in the class RandomPermutation
+  void testGeneratorReset(Tester t) {
+    MazeGenerator generator = new MazeGenerator(12, 9, 4, "noBias");
+    while (generator.step() != -1) {
+      // every call adds one edge
+    }
+    RandomPermutation horizontal = generator.edges.horizontal;
+    long[] bits = generator.walls.bits;
+    // a reset generator builds the same maze as a new one with the same seed and bias, in
+    // the same arrays
+    generator.reset(11, "h");
+    t.checkExpect(generator.walls.passageCount(), 0L);
+    t.checkExpect(generator.sets.unions, 0L);
+    while (generator.step() != -1) {
+      // every call adds one edge
+    }
+    t.checkExpect(generator.walls.bits, MazeGenerator.generate(12, 9, 11, "h").walls.bits);
+    t.checkExpect(generator.walls.bits == bits, true);
+    t.checkExpect(generator.edges.horizontal == horizontal, true);
+    generator.reset(4, "noBias");
+    while (generator.step() != -1) {
+      // every call adds one edge
+    }
+    t.checkExpect(generator.walls.bits, MazeGenerator.generate(12, 9, 4, "noBias").walls.bits);
+
+    EdgeStream stream = new EdgeStream(3, 4, 2, "v");
+    stream.next();
+    stream.reset(6, "noBias");
+    EdgeStream fresh = new EdgeStream(3, 4, 6, "noBias");
+    t.checkExpect(stream.biased, false);
+    t.checkExpect(stream.vertical.size, 0);
+    boolean same = true;
+    while (fresh.hasNext()) {
+      same = same && stream.hasNext() && stream.next() == fresh.next();
+    }
+    t.checkExpect(same && !stream.hasNext(), true);
+
+    RandomPermutation shuffle = new RandomPermutation(10, 3);
+    shuffle.reset(20, 8);
+    RandomPermutation other = new RandomPermutation(20, 8);
+    t.checkExpect(shuffle.roundKeys, other.roundKeys);
+    t.checkExpect(shuffle.get(19), other.get(19));
+  }
+
+  // to test the method restart(long) in the classes ASolver, MazeSolver, AStarSolver,
+  // BidirectionalSolver and DijkstraSolver
+  void testSolverRestart(Tester t) {
+    MazeLayout layout = MazeGenerator.generate(20, 20, 5, "noBias");
+    MazeGenerator.braid(layout.walls, 5, 0.3);
+    String[] keys = {"b", "d", "a", "t", "w"};
+    for (int i = 0; i < keys.length; i++) {
+      ASolver search = ASolver.forKey(keys[i], layout.walls, 0, 399, 1);
+      search.solve();
+      int[] visitOrder = search.visitOrder;
+      search.restart(2);
+      t.checkExpect(search.visitedCount, 0);
+      t.checkExpect(search.found, false);
+      search.solve();
+      ASolver fresh = ASolver.forKey(keys[i], layout.walls, 0, 399, 2);
+      fresh.solve();
+      t.checkExpect(search.path(), fresh.path());
+      t.checkExpect(search.visitedCount, fresh.visitedCount);
+      t.checkExpect(search.maxFrontier, fresh.maxFrontier);
+      t.checkExpect(search.visitOrder == visitOrder, true);
+    }
+  }
+
+  // to test the methods clearSearch(), startSearch(String) and initializeGenerator(String)
+  // in the class Maze when they reuse what the maze had
+  void testMazeReuse(Tester t) {
+    initData();
+    this.maze2.onKeyReleased("3");
+    this.maze2.onTick();
+    this.maze2.onKeyReleased("b");
+    this.runSearch(this.maze2);
+    ASolver first = this.maze2.solver;
+    ArrayList<Cell> visited = this.maze2.visited;
+    ArrayList<Cell> path = this.maze2.path;
+    MazeGenerator generator = this.maze2.generator;
+    MazeLayer layer = this.maze2.layer;
+    ComputedPixelImage image = this.maze2.layer.image;
+    this.maze2.layer.zoomOut();
+
+    // refreshing empties the lists in place and the search starts over in its arrays
+    this.maze2.onKeyReleased("r");
+    t.checkExpect(this.maze2.visited == visited, true);
+    t.checkExpect(this.maze2.visited.size(), 0);
+    t.checkExpect(this.maze2.path, new ArrayList<Cell>(Arrays.asList(
+        this.maze2.cellList.get(624))));
+    t.checkExpect(this.maze2.layer.paintedPath, 1);
+    this.maze2.onKeyReleased("b");
+    t.checkExpect(this.maze2.solver == first, true);
+    this.runSearch(this.maze2);
+    t.checkExpect(this.maze2.path.get(this.maze2.path.size() - 1), this.maze2.cellList.get(0));
+
+    // a new maze is built by the same generator into the same walls and picture, and the
+    // view goes back to the top left at the first size of a cell
+    this.maze2.onKeyReleased("v");
+    t.checkExpect(this.maze2.generator == generator, true);
+    t.checkExpect(this.maze2.layer == layer, true);
+    t.checkExpect(this.maze2.layer.image == image, true);
+    t.checkExpect(this.maze2.layer.cellSize, 30);
+    t.checkExpect(this.maze2.path == path, true);
+    t.checkExpect(this.maze2.walls.passageCount(), 0L);
+    this.maze2.onTick();
+    t.checkExpect(this.maze2.generator.walls.bits, MazeGenerator.generate(25, 25,
+        this.maze2.generator.seed, "v").walls.bits);
+    t.checkExpect(this.maze2.mazeId().endsWith(":v"), true);
+    this.maze2.onKeyReleased("t");
+    this.maze2.onKeyReleased("d");
+    t.checkExpect(this.maze2.solver == this.maze2.searches[1], true);
+    t.checkExpect(this.maze2.searches[3] != null, true);
+    t.checkExpect(this.maze2.searches[0] == first, true);
+    this.runSearch(this.maze2);
+    t.checkExpect(this.maze2.solver.found, true);
+  }
+
+  // to test the method placeWallHelper(MazeLayer, boolean, Color) in the class Cell
   void testPlaceWallHelper(Tester t) {
     initData();
-    WorldImage verticalWall = new RectangleImage(1, 30, OutlineMode.OUTLINE, Color.BLACK);
-    WorldImage horizontalWall = new RectangleImage(30, 1, OutlineMode.OUTLINE, Color.BLACK);
-    this.cell0.placeWallHelper(this.scene, this.maze1.cellSize, true);
-    testScene.placeImageXY(verticalWall, 30, 15);
-    t.checkExpect(this.scene, this.testScene);
+    MazeLayer layer = new MazeLayer(this.maze1.walls, this.maze1.cellList, 30, 61, 61);
+    this.cell0.placeWallHelper(layer, true, Color.RED);
+    t.checkExpect(layer.image.getPixel(30, 1), Color.RED);
+    t.checkExpect(layer.image.getPixel(30, 29), Color.RED);
+    // the corners at the ends are left to MazeLayer
+    t.checkExpect(layer.image.getPixel(30, 0), Color.BLACK);
+    t.checkExpect(layer.image.getPixel(30, 30), Color.BLACK);
+    t.checkExpect(layer.image.getPixel(31, 15), Color.WHITE);
+
+    this.cell1.placeWallHelper(layer, false, Color.RED);
+    t.checkExpect(layer.image.getPixel(31, 30), Color.RED);
+    t.checkExpect(layer.image.getPixel(59, 30), Color.RED);
+    t.checkExpect(layer.image.getPixel(45, 29), Color.WHITE);
+
+    // a wall is painted where it is in the view
+    layer.pan(10, 0);
+    this.cell0.placeWallHelper(layer, true, Color.BLUE);
+    t.checkExpect(layer.image.getPixel(20, 15), Color.BLUE);
+  }
+
 
+
+  // to test the methods hasRightWall(int) and hasBottomWall(int) in the class WallGrid
+  void testHasWall(Tester t) {
     initData();
-    this.cell1.placeWallHelper(this.scene, this.maze1.cellSize, false);
-    testScene.placeImageXY(horizontalWall, 45, 30);
-    t.checkExpect(this.scene, this.testScene);
+    t.checkExpect(this.grid.hasRightWall(0), true);
+    t.checkExpect(this.grid.hasBottomWall(0), true);
+    this.grid.removeBottomWall(0);
+    t.checkExpect(this.grid.hasRightWall(0), true);
+    t.checkExpect(this.grid.hasBottomWall(0), false);
+    this.grid.removeRightWall(2);
+    t.checkExpect(this.grid.hasRightWall(2), false);
+    t.checkExpect(this.grid.hasBottomWall(2), true);
   }
 
-  // to test the method placeWall(WorldScene, int) in the class Edge
-  void testPlaceWall(Tester t) {
+  // to test the methods removeWall(int, int) and isOpen(int, int) in the class WallGrid
+  void testRemoveWall(Tester t) {
     initData();
-    WorldImage verticalWall = new RectangleImage(1, 30, OutlineMode.OUTLINE, Color.BLACK);
-    WorldImage horizontalWall = new RectangleImage(30, 1, OutlineMode.OUTLINE, Color.BLACK);
-    this.edge0.placeWall(this.scene, this.maze1.cellSize);
-    testScene.placeImageXY(verticalWall, 30, 15);
-    t.checkExpect(this.scene, this.testScene);
+    t.checkExpect(this.grid.isOpen(0, 1), false);
+    this.grid.removeWall(0, 1);
+    this.grid.removeWall(1, 3);
+    t.checkExpect(this.grid.isOpen(0, 1), true);
+    t.checkExpect(this.grid.isOpen(1, 0), true);
+    t.checkExpect(this.grid.isOpen(3, 1), true);
+    t.checkExpect(this.grid.isOpen(0, 2), false);
+    // cells that are not next to each other are never open
+    t.checkExpect(this.grid.isOpen(0, 3), false);
+    // the last cell of a row does not open onto the first cell of the next row
+    t.checkExpect(this.grid.isOpen(1, 2), false);
+    t.checkExpect(this.grid.passageCount(), 2L);
+  }
 
+  // to test the method canMove(int, int, int, int) in the class WallGrid
+  void testCanMove(Tester t) {
     initData();
-    this.edge2.placeWall(scene, 30);
-    testScene.placeImageXY(horizontalWall, 15, 30);
-    t.checkExpect(this.scene, this.testScene);
+    this.grid.removeWall(0, 1);
+    t.checkExpect(this.grid.canMove(0, 0, 1, 0), true);
+    t.checkExpect(this.grid.canMove(1, 0, 0, 0), true);
+    t.checkExpect(this.grid.canMove(0, 0, 0, 1), false);
+    t.checkExpect(this.grid.canMove(0, 0, -1, 0), false);
+    t.checkExpect(this.grid.canMove(1, 0, 2, 0), false);
+  }
 
+  // to test the method neighbors(int, int[]) in the class WallGrid
+  void testNeighbors(Tester t) {
     initData();
-    this.edge0.connected = true;
-    this.edge0.placeWall(scene, 30);
-    t.checkExpect(this.scene, this.testScene);
+    int[] around = new int[4];
+    t.checkExpect(this.grid.neighbors(0, around), 0);
+    this.grid.removeWall(0, 1);
+    this.grid.removeWall(1, 3);
+    this.grid.removeWall(2, 3);
+    t.checkExpect(this.grid.neighbors(3, around), 2);
+    t.checkExpect(around[0], 1);
+    t.checkExpect(around[1], 2);
+    t.checkExpect(this.grid.neighbors(1, around), 2);
+    t.checkExpect(around[0], 0);
+    t.checkExpect(around[1], 3);
+    // the right border of the first row does not leak into the second row
+    t.checkExpect(this.grid.neighbors(2, around), 1);
+    t.checkExpect(around[0], 3);
   }
 
-  // to test the method addNeighbor(Cell) in the class Cell
-  void testAddNeighbor(Tester t) {
+  // to test the methods raiseAll(), passageCount() and byteSize() in the class WallGrid
+  void testRaiseAll(Tester t) {
     initData();
-    t.checkExpect(this.cell0.neighbor, new ArrayList<Cell>());
-    this.cell0.addNeighbor(this.cell1);
-    t.checkExpect(this.cell0.neighbor, new ArrayList<Cell>(Arrays.asList(this.cell1)));
-    this.cell0.addNeighbor(cell2);
-    t.checkExpect(this.cell0.neighbor, new ArrayList<Cell>(Arrays.asList(this.cell1, this.cell2)));
+    this.grid.removeWall(0, 1);
+    this.grid.removeWall(0, 2);
+    t.checkExpect(this.grid.passageCount(), 2L);
+    this.grid.raiseAll();
+    t.checkExpect(this.grid.passageCount(), 0L);
+    t.checkExpect(this.grid.byteSize(), 8L);
+    // two bits per cell, so a hundred million cells fit in 25 megabytes
+    t.checkExpect(new WallGrid(10000, 10000).byteSize(), 25000000L);
   }
 
-  // to test the method drawVisited(scene, int) in the class Cell
-  void testDrawVisited(Tester t) {
+  // to test the method makeScene() in the class Maze
+  void testMakeSceneWalls(Tester t) {
     initData();
-    WorldImage square = new RectangleImage(this.maze1.cellSize / 2, this.maze1.cellSize / 2,
-        OutlineMode.SOLID,
-        new Color(135, 206, 250));    
-    scene.placeImageXY(square, this.cell0.x * this.maze1.cellSize + this.maze1.cellSize / 2,
-        this.cell0.y * this.maze1.cellSize + this.maze1.cellSize / 2);
-    this.cell0.drawVisited(this.testScene, this.maze1.cellSize);
-    t.checkExpect(this.scene,this.testScene);
+    Maze small = new Maze(1, 2, new Random(3));
+    WorldScene expected = new WorldScene(60, 30);
+    expected.placeImageXY(small.layer.image, 30, 15);
+    expected.placeImageXY(new TextImage("Steps: 0", 15, FontStyle.BOLD, Color.BLACK), 30, 45);
+    expected.placeImageXY(new TextImage("Wrong moves: 0", 15, FontStyle.BOLD, Color.BLACK),
+        50, 63);
+    t.checkExpect(small.makeScene(), expected);
+    // the only inner wall is standing before the first tick, with the end cell on the path
+    t.checkExpect(small.layer.image.getPixel(30, 15), Color.BLACK);
+    t.checkExpect(small.layer.image.getPixel(30, 0), Color.BLACK);
+    t.checkExpect(small.layer.image.getPixel(0, 0), Color.WHITE);
+    t.checkExpect(small.layer.image.getPixel(15, 15), new Color(135, 206, 250));
+    t.checkExpect(small.layer.image.getPixel(45, 15), new Color(0, 0, 128));
+
+    // and gone after it, corners included
+    small.onTick();
+    small.makeScene();
+    t.checkExpect(small.layer.image.getPixel(30, 15), Color.WHITE);
+    t.checkExpect(small.layer.image.getPixel(30, 0), Color.WHITE);
+    t.checkExpect(small.layer.image.getPixel(30, 29), Color.WHITE);
+  }
+
+  // to test the methods update(ArrayList<Cell>, ArrayList<Cell>, boolean) and
+  // openWall(int, int) in the class MazeLayer
+  void testMazeLayer(Tester t) {
+    initData();
+    MazeLayer layer = new MazeLayer(this.maze1.walls, this.maze1.cellList, 30, 91, 61);
+    t.checkExpect(layer.image.width, 91);
+    // every inner wall and the corners between them stand in a new maze
+    t.checkExpect(layer.image.getPixel(30, 30), Color.BLACK);
+    t.checkExpect(layer.image.getPixel(60, 45), Color.BLACK);
+    t.checkExpect(layer.image.getPixel(90, 30), Color.BLACK);
+    t.checkExpect(layer.image.getPixel(90, 15), Color.WHITE);
+    // the corner stays while another wall meets there
+    this.maze1.generator.walls.removeWall(0, 1);
+    layer.openWall(1, 0);
+    t.checkExpect(layer.image.getPixel(30, 15), Color.WHITE);
+    t.checkExpect(layer.image.getPixel(30, 0), Color.WHITE);
+    t.checkExpect(layer.image.getPixel(30, 30), Color.BLACK);
+    this.maze1.generator.walls.removeWall(0, 3);
+    layer.openWall(0, 3);
+    this.maze1.generator.walls.removeWall(1, 4);
+    layer.openWall(1, 4);
+    t.checkExpect(layer.image.getPixel(30, 30), Color.BLACK);
+    this.maze1.generator.walls.removeWall(3, 4);
+    layer.openWall(3, 4);
+    t.checkExpect(layer.image.getPixel(30, 30), Color.WHITE);
+    t.checkExpect(layer.image.getPixel(0, 30), Color.WHITE);
+
+    // only the cells added since the last update are painted
+    ArrayList<Cell> visited = new ArrayList<Cell>(Arrays.asList(this.maze1.cellList.get(1)));
+    ArrayList<Cell> path = new ArrayList<Cell>(Arrays.asList(this.maze1.cellList.get(5)));
+    layer.update(visited, path, true);
+    t.checkExpect(layer.paintedVisited, 1);
+    t.checkExpect(layer.image.getPixel(45, 15), new Color(135, 206, 250));
+    t.checkExpect(layer.image.getPixel(75, 45), new Color(0, 0, 128));
+    visited.add(this.maze1.cellList.get(5));
+    visited.add(this.maze1.cellList.get(4));
+    layer.update(visited, path, true);
+    t.checkExpect(layer.paintedVisited, 3);
+    // a visited cell never covers the path
+    t.checkExpect(layer.image.getPixel(75, 45), new Color(0, 0, 128));
+    t.checkExpect(layer.image.getPixel(45, 45), new Color(135, 206, 250));
+    // hiding the visited cells paints everything again without them
+    layer.update(visited, path, false);
+    t.checkExpect(layer.showVisited, false);
+    t.checkExpect(layer.image.getPixel(45, 45), Color.WHITE);
+    t.checkExpect(layer.image.getPixel(75, 45), new Color(0, 0, 128));
+    t.checkExpect(layer.image.getPixel(15, 15), new Color(135, 206, 250));
+  }
+
 
+  // to test the methods drawVisited(MazeLayer) and paintSquare(MazeLayer, Color) in the
+  // class Cell
+  void testDrawVisited(Tester t) {
     initData();
-    WorldImage square2 = new RectangleImage(this.maze1.cellSize / 2, this.maze1.cellSize / 2,
-        OutlineMode.SOLID,
-        new Color(135, 206, 250));    
-    scene.placeImageXY(square2, this.cell1.x * this.maze1.cellSize + this.maze1.cellSize / 2,
-        this.cell1.y * this.maze1.cellSize + this.maze1.cellSize / 2);
-    this.cell1.drawVisited(this.testScene, this.maze1.cellSize);
-    t.checkExpect(this.scene,this.testScene);
+    MazeLayer layer = this.maze1.layer;
+    this.cell1.drawVisited(layer);
+    // a square of 15 pixels in the middle of the cell
+    t.checkExpect(layer.image.getPixel(37, 7), new Color(135, 206, 250));
+    t.checkExpect(layer.image.getPixel(51, 21), new Color(135, 206, 250));
+    t.checkExpect(layer.image.getPixel(36, 7), Color.WHITE);
+    t.checkExpect(layer.image.getPixel(52, 21), Color.WHITE);
+    layer.cellSize = 10;
+    new Cell(2, 1).paintSquare(layer, Color.RED);
+    t.checkExpect(layer.image.getPixel(22, 12), Color.RED);
+    t.checkExpect(layer.image.getPixel(26, 16), Color.RED);
+    t.checkExpect(layer.image.getPixel(27, 17), Color.WHITE);
   }
 
-  // to test the method drawPath(scene, int) in hte class Cell
+
+
+  // to test the method drawPath(MazeLayer) in the class Cell
   void testDrawPath(Tester t) {
     initData();
-    WorldImage square = new RectangleImage(this.maze1.cellSize / 2, this.maze1.cellSize / 2,
-        OutlineMode.SOLID,
-        new Color(0, 0, 128));   
-    scene.placeImageXY(square, this.cell0.x * this.maze1.cellSize + this.maze1.cellSize / 2,
-        this.cell0.y * this.maze1.cellSize + this.maze1.cellSize / 2);
-    this.cell0.drawPath(this.testScene, this.maze1.cellSize);
-    t.checkExpect(this.scene,this.testScene);
+    MazeLayer layer = this.maze1.layer;
+    this.cell0.drawPath(layer);
+    t.checkExpect(layer.image.getPixel(7, 7), new Color(0, 0, 128));
+    t.checkExpect(layer.image.getPixel(21, 21), new Color(0, 0, 128));
+    t.checkExpect(layer.image.getPixel(22, 22), Color.WHITE);
+  }
 
+
+
+  // to test the methods zoomIn(), zoomOut(), pan(int, int), show(Cell) and paintBlock(int,
+  // int) in the class MazeLayer
+  void testViewport(Tester t) {
+    WallGrid walls = MazeGenerator.generate(100, 100, 2, "noBias").walls;
+    ArrayList<Cell> cells = new ArrayList<Cell>();
+    for (int i = 0; i < 10000; i++) {
+      cells.add(new Cell(i % 100, i / 100));
+    }
+    MazeLayer layer = new MazeLayer(walls, cells, 30, 300, 200);
+    t.checkExpect(layer.detailed(), true);
+    // the view stops at the edges of the maze
+    layer.pan(100000, 100000);
+    t.checkExpect(layer.left, 2701);
+    t.checkExpect(layer.top, 2801);
+    t.checkExpect(layer.stale, true);
+    layer.update(layer.visited, layer.path, true);
+    t.checkExpect(layer.stale, false);
+    layer.pan(-100000, 0);
+    t.checkExpect(layer.left, 0);
+    // zooming out keeps the middle of the view where it was, as far as the edges allow
+    layer.zoomOut();
+    t.checkExpect(layer.cellSize, 15);
+    t.checkExpect(layer.top, 1301);
+    layer.zoomOut();
+    layer.zoomOut();
+    t.checkExpect(layer.cellSize, 3);
+    t.checkExpect(layer.detailed(), false);
+
+    // the overview shades the blocks by their walls and shows the whole path
+    ArrayList<Cell> path = new ArrayList<Cell>(Arrays.asList(cells.get(5050)));
+    layer.update(layer.visited, path, true);
+    Color shade = layer.image.getPixel(1, 1);
+    t.checkExpect(shade.getRed(), shade.getBlue());
+    t.checkRange(shade.getRed(), 95, 256);
+    t.checkExpect(layer.image.getPixel(150 - layer.left, 150 - layer.top),
+        new Color(0, 0, 128));
+    for (int i = 0; i < 20; i++) {
+      layer.zoomOut();
+    }
+    t.checkExpect(layer.cellSize, 1);
+    t.checkExpect(layer.blockSize, 128);
+    layer.zoomIn();
+    t.checkExpect(layer.blockSize, 64);
+    for (int i = 0; i < 7; i++) {
+      layer.zoomIn();
+    }
+    t.checkExpect(layer.blockSize, 1);
+    t.checkExpect(layer.cellSize, 2);
+    for (int i = 0; i < 10; i++) {
+      layer.zoomIn();
+    }
+    t.checkExpect(layer.cellSize, 64);
+    // a cell out of view brings the view to it
+    layer.show(cells.get(9999));
+    t.checkRange(layer.screenX(99), 0, 300);
+    t.checkRange(layer.screenY(99), 0, 200);
+
+    // the keys zoom the view of the world
     initData();
-    WorldImage square2 = new RectangleImage(this.maze1.cellSize / 2, this.maze1.cellSize / 2,
-        
-        OutlineMode.SOLID,
-        new Color(0, 0, 128));   
-    scene.placeImageXY(square2, this.cell1.x * this.maze1.cellSize + this.maze1.cellSize / 2,
-        this.cell1.y * this.maze1.cellSize + this.maze1.cellSize / 2);
-    this.cell1.drawPath(this.testScene, this.maze1.cellSize);
-    t.checkExpect(this.scene,this.testScene);
+    this.maze2.onKeyReleased("-");
+    t.checkExpect(this.maze2.layer.cellSize, 15);
+    this.maze2.onKeyReleased("=");
+    this.maze2.onKeyReleased("+");
+    t.checkExpect(this.maze2.layer.cellSize, 60);
+    int left = this.maze2.layer.left;
+    this.maze2.onKeyReleased("right");
+    t.checkExpect(this.maze2.layer.left, left + 187);
+  }
+
+  // to test the methods paintDetail(), paintRow(int, int, int), squareColor(int, int),
+  // hasCorner(int, int), paintOverview() and blockColor(int, int) in the class MazeLayer
+  // against painting the same view a cell or a block at a time
+  void testPaintRows(Tester t) {
+    WallGrid walls = MazeGenerator.generate(100, 100, 3, "h").walls;
+    ArrayList<Cell> cells = new ArrayList<Cell>();
+    for (int i = 0; i < 10000; i++) {
+      cells.add(new Cell(i % 100, i / 100));
+    }
+    ArrayList<Cell> visited = new ArrayList<Cell>(cells.subList(40, 3000));
+    ArrayList<Cell> path = new ArrayList<Cell>(cells.subList(2900, 3100));
+    int[] sizes = {30, 7, 4, 2, 1, 1};
+    int[] blocks = {1, 1, 1, 1, 1, 4};
+    for (int k = 0; k < sizes.length; k++) {
+      MazeLayer layer = new MazeLayer(walls, cells, 30, 300, 200);
+      layer.zoomTo(sizes[k], blocks[k]);
+      layer.pan(53, 41);
+      layer.update(visited, path, true);
+      MazeLayer expected = new MazeLayer(walls, cells, sizes[k], new PixelRaster(300, 200),
+          new BitSet(), new BitSet());
+      expected.blockSize = blocks[k];
+      expected.left = layer.left;
+      expected.top = layer.top;
+      expected.repaint(visited, path, true);
+      expected.raster.fill(0, 0, 300, 200, Color.WHITE.getRGB());
+      for (int y = 0; y < 101; y++) {
+        for (int x = 0; x < 101; x++) {
+          int i = y * 100 + x;
+          if (layer.detailed()) {
+            expected.paintCorner(x, y);
+            if (x < 99 && y < 100 && walls.hasRightWall(i)) {
+              cells.get(i).placeWallHelper(expected, true, Color.BLACK);
+            }
+            if (x < 100 && y < 99 && walls.hasBottomWall(i)) {
+              cells.get(i).placeWallHelper(expected, false, Color.BLACK);
+            }
+            if (x < 100 && y < 100 && expected.onPath.get(i)) {
+              cells.get(i).drawPath(expected);
+            } else if (x < 100 && y < 100 && (i == 0 || expected.visitedCells.get(i))) {
+              cells.get(i).drawVisited(expected);
+            }
+          } else if (x < 100 / blocks[k] && y < 100 / blocks[k]) {
+            expected.paintBlock(x, y);
+          }
+        }
+      }
+      for (int i = 0; i < path.size() && !layer.detailed(); i++) {
+        expected.paintBlockOf(path.get(i), MazeLayer.PATH);
+      }
+      t.checkExpect(Arrays.equals(layer.raster.pixels, expected.raster.pixels), true);
+    }
+  }
+
+  // to test the methods fill(int, int, int, int, int), copyRow(int, int), get(int, int),
+  // of(ComputedPixelImage), copying(ComputedPixelImage), show() and writePng(OutputStream)
+  // in the class PixelRaster
+  void testPixelRaster(Tester t) {
+    PixelRaster raster = new PixelRaster(5, 4);
+    raster.fill(1, 1, 3, 2, 0xFF112233);
+    t.checkExpect(raster.get(1, 1), 0xFF112233);
+    t.checkExpect(raster.get(3, 2), 0xFF112233);
+    t.checkExpect(raster.get(4, 2), 0);
+    t.checkExpect(raster.get(1, 3), 0);
+    raster.copyRow(1, 3);
+    t.checkExpect(raster.get(2, 3), 0xFF112233);
+    t.checkExpect(raster.get(0, 3), 0);
+    // the raster of a javalib picture paints the pixels of the picture
+    ComputedPixelImage picture = new ComputedPixelImage(6, 3);
+    PixelRaster shared = PixelRaster.of(picture);
+    t.checkExpect(shared.width, 6);
+    shared.fill(2, 1, 1, 1, Color.ORANGE.getRGB());
+    t.checkExpect(picture.getPixel(2, 1), Color.ORANGE);
+    picture.setPixel(0, 0, Color.CYAN);
+    t.checkExpect(shared.get(0, 0), Color.CYAN.getRGB());
+    t.checkExpect(shared.picture, null);
+    shared.show();
+    // a raster that copies its pixels into a picture changes it only once it is shown
+    ComputedPixelImage copied = new ComputedPixelImage(6, 3);
+    PixelRaster copying = PixelRaster.copying(copied);
+    copying.fill(1, 1, 5, 2, Color.ORANGE.getRGB());
+    copying.fill(3, 2, 1, 1, Color.RED.getRGB());
+    t.checkExpect(copied.getPixel(1, 1), new Color(0, true));
+    copying.show();
+    t.checkExpect(copied.getPixel(1, 1), Color.ORANGE);
+    t.checkExpect(copied.getPixel(5, 1), Color.ORANGE);
+    t.checkExpect(copied.getPixel(2, 2), Color.ORANGE);
+    t.checkExpect(copied.getPixel(3, 2), Color.RED);
+    t.checkExpect(copied.getPixel(0, 1), new Color(0, true));
+    t.checkExpect(copying.shown, copying.pixels);
+    copying.fill(0, 0, 1, 1, Color.BLUE.getRGB());
+    copying.show();
+    t.checkExpect(copied.getPixel(0, 0), Color.BLUE);
+    t.checkExpect(copied.getPixel(3, 2), Color.RED);
+    // a png reads back as the same pixels
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      raster.writePng(out);
+      BufferedImage read = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+      t.checkExpect(read.getWidth(), 5);
+      t.checkExpect(read.getRGB(3, 3), 0xFF112233);
+      t.checkExpect(read.getRGB(4, 0), 0);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  // to test the method update(ArrayList<Cell>, ArrayList<Cell>, boolean) in the class
+  // MazeLayer when more than REPAINT_CELLS cells are new
+  void testBulkUpdate(Tester t) {
+    MazeLayout layout = MazeGenerator.generate(60, 60, 2, "noBias");
+    ArrayList<Cell> cells = new ArrayList<Cell>();
+    for (int i = 0; i < 3600; i++) {
+      cells.add(new Cell(i % 60, i / 60));
+    }
+    MazeLayer layer = new MazeLayer(layout.walls, cells, 4, 241, 241);
+    ArrayList<Cell> visited = new ArrayList<Cell>();
+    ArrayList<Cell> path = new ArrayList<Cell>();
+    layer.update(visited, path, true);
+    BitSet seen = new BitSet();
+    BitSet onPath = new BitSet();
+    for (int i = 0; i < 3000; i++) {
+      visited.add(cells.get(i));
+      seen.set(i);
+    }
+    for (int i = 0; i < 60; i++) {
+      path.add(cells.get(i * 61));
+      onPath.set(i * 61);
+    }
+    layer.update(visited, path, true);
+    t.checkExpect(layer.paintedVisited, 3000);
+    t.checkExpect(layer.paintedPath, 60);
+    t.checkExpect(layer.stale, false);
+    t.checkExpect(layer.raster.pixels,
+        MazeLayer.render(layout.walls, seen, onPath, 4).pixels);
+  }
+
+  // to test the method render(WallGrid, BitSet, BitSet, int) in the class MazeLayer
+  void testRender(Tester t) {
+    // 0 - 1 - 2
+    // |       |
+    // 3   4 - 5
+    WallGrid walls = new WallGrid(2, 3);
+    walls.removeWall(0, 1);
+    walls.removeWall(1, 2);
+    walls.removeWall(0, 3);
+    walls.removeWall(2, 5);
+    walls.removeWall(4, 5);
+    BitSet seen = new BitSet();
+    seen.set(0, 4);
+    BitSet path = new BitSet();
+    path.set(2);
+    PixelRaster raster = MazeLayer.render(walls, seen, path, 10);
+    t.checkExpect(raster.width, 31);
+    t.checkExpect(raster.height, 21);
+    t.checkExpect(raster.get(12, 2), MazeLayer.VISITED.getRGB());
+    t.checkExpect(raster.get(11, 2), MazeLayer.BACKGROUND.getRGB());
+    t.checkExpect(raster.get(22, 2), MazeLayer.PATH.getRGB());
+    t.checkExpect(raster.get(22, 7), MazeLayer.BACKGROUND.getRGB());
+    t.checkExpect(raster.get(10, 15), MazeLayer.WALL.getRGB());
+    t.checkExpect(raster.get(15, 10), MazeLayer.WALL.getRGB());
+    t.checkExpect(raster.get(25, 10), MazeLayer.BACKGROUND.getRGB());
+    t.checkExpect(raster.get(20, 15), MazeLayer.BACKGROUND.getRGB());
+    // too small for walls, every cell is a pixel shaded by its walls
+    PixelRaster small = MazeLayer.render(walls, new BitSet(), path, 1);
+    t.checkExpect(small.width, 4);
+    t.checkExpect(small.get(2, 0), MazeLayer.PATH.getRGB());
+    t.checkExpect(small.get(1, 0), 0xFFAFAFAF);
+    t.checkExpect(small.get(0, 1), 0xFF5F5F5F);
+    t.checkExpect(small.get(3, 0), MazeLayer.BACKGROUND.getRGB());
+  }
+
+  // to read back the pixels of the given png
+  BufferedImage readPng(byte[] png) {
+    try {
+      return ImageIO.read(new ByteArrayInputStream(png));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  // to test the class PngWriter
+  void testPngWriter(Tester t) {
+    PixelRaster top = new PixelRaster(3, 2);
+    top.fill(0, 0, 3, 2, 0xFF102030);
+    top.fill(1, 1, 1, 1, 0xFFFFFFFF);
+    PixelRaster bottom = new PixelRaster(3, 3);
+    bottom.fill(0, 0, 3, 3, 0xFF000000);
+    bottom.fill(2, 0, 1, 1, 0xFF0A0B0C);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      // the rows come from two rasters, and only the top one of the second
+      PngWriter png = new PngWriter(out, 3, 3, Deflater.DEFAULT_COMPRESSION);
+      png.writeRows(top, 2);
+      t.checkException(new IllegalStateException("The png has 1 rows left to write"), png,
+          "finish");
+      t.checkException(new IllegalArgumentException(
+          "The png is 3 pixels wide with 1 rows left, not 3 wide with 2 rows"), png,
+          "writeRows", bottom, 2);
+      t.checkException(new IllegalArgumentException(
+          "The png is 3 pixels wide with 1 rows left, not 5 wide with 1 rows"), png,
+          "writeRows", new PixelRaster(5, 1), 1);
+      png.writeRows(bottom, 1);
+      png.finish();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    BufferedImage read = this.readPng(out.toByteArray());
+    t.checkExpect(read.getWidth(), 3);
+    t.checkExpect(read.getHeight(), 3);
+    t.checkExpect(read.getRGB(0, 0), 0xFF102030);
+    t.checkExpect(read.getRGB(1, 1), 0xFFFFFFFF);
+    t.checkExpect(read.getRGB(2, 1), 0xFF102030);
+    t.checkExpect(read.getRGB(2, 2), 0xFF0A0B0C);
+    t.checkExpect(read.getRGB(0, 2), 0xFF000000);
+    t.checkConstructorException(new IllegalArgumentException(
+        "A png needs a width of 1 to 715827882 and a height of at least 1: 0x4"), "PngWriter",
+        new ByteArrayOutputStream(), 0, 4, Deflater.BEST_SPEED);
+  }
+
+  // to test the method writePng(WallGrid, BitSet, BitSet, int, int, OutputStream) in the
+  // class MazeExport
+  void testMazeExport(Tester t) {
+    MazeLayout layout = MazeGenerator.generate(7, 9, 3, "noBias");
+    MazeSolver search = new MazeSolver(layout.walls, 0, 62, false);
+    search.solve();
+    BitSet path = new BitSet();
+    for (int cell : search.path()) {
+      path.set(cell);
+    }
+    // strips of 7 rows do not divide the 36 rows of pixels, nor the 8 rows of the overview
+    int[] sizes = {5, 1};
+    for (int size : sizes) {
+      PixelRaster whole = MazeLayer.render(layout.walls, search.seen, path, size);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      try {
+        MazeExport.writePng(layout.walls, search.seen, path, size, 7, out);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      BufferedImage read = this.readPng(out.toByteArray());
+      t.checkExpect(read.getWidth(), whole.width);
+      t.checkExpect(read.getHeight(), whole.height);
+      int differ = 0;
+      for (int y = 0; y < whole.height; y++) {
+        for (int x = 0; x < whole.width; x++) {
+          if (read.getRGB(x, y) != whole.get(x, y)) {
+            differ += 1;
+          }
+        }
+      }
+      t.checkExpect(differ, 0);
+    }
+    t.checkExpect(MazeExport.stripHeight(40001), 104);
+    t.checkExpect(MazeExport.stripHeight(1 << 23), 1);
+    t.checkException(new IllegalArgumentException("A picture needs at least a pixel a cell, "
+        + "a row a strip and sides of at most 2147483647 pixels: 46x36 in strips of 0"),
+        new MazeExport(), "writePng", layout.walls, search.seen, path, 5, 0,
+        new ByteArrayOutputStream());
+  }
+
+  // to test the method exportFile(Path) in the class Maze
+  void testExportFile(Tester t) {
+    try {
+      initData();
+      Path file = Files.createTempFile("maze", ".png");
+      file.toFile().deleteOnExit();
+      this.maze2.onKeyReleased("3");
+      this.maze2.onTick();
+      this.maze2.onKeyReleased("b");
+      this.runSearch(this.maze2);
+      this.maze2.makeScene();
+      this.maze2.exportFile(file);
+      int size = this.maze2.cellSize;
+      PixelRaster shown = MazeLayer.render(this.maze2.walls, this.maze2.layer.visitedCells,
+          this.maze2.layer.onPath, size);
+      BufferedImage read = ImageIO.read(file.toFile());
+      t.checkExpect(read.getWidth(), 25 * size + 1);
+      t.checkExpect(read.getHeight(), 25 * size + 1);
+      int differ = 0;
+      int visited = 0;
+      for (int y = 0; y < shown.height; y++) {
+        for (int x = 0; x < shown.width; x++) {
+          differ += read.getRGB(x, y) == shown.get(x, y) ? 0 : 1;
+          visited += read.getRGB(x, y) == MazeLayer.VISITED.getRGB() ? 1 : 0;
+        }
+      }
+      t.checkExpect(differ, 0);
+      t.checkExpect(visited > 0, true);
+      t.checkExpect(read.getRGB(size * 24 + size / 2, size * 24 + size / 2),
+          MazeLayer.PATH.getRGB());
+
+      // the visited cells are left out while they are hidden
+      this.maze2.onKeyReleased("s");
+      this.maze2.makeScene();
+      this.maze2.exportFile(file);
+      read = ImageIO.read(file.toFile());
+      visited = 0;
+      for (int y = 0; y < read.getHeight(); y++) {
+        for (int x = 0; x < read.getWidth(); x++) {
+          visited += read.getRGB(x, y) == MazeLayer.VISITED.getRGB() ? 1 : 0;
+        }
+      }
+      t.checkExpect(visited, 0);
+
+      // nothing is exported while the maze is being built
+      Files.delete(file);
+      this.maze2.onKeyReleased("n");
+      this.maze2.exportFile(file);
+      t.checkExpect(Files.exists(file), false);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
   }
 
   // to test the method findNextX(String) in the class cell
@@ -820,16 +3427,82 @@ class ExamplesMaze {
     t.checkExpect(this.cell0.findNextY("up"), -1);
   }
   
-  // to test the method validKey(int, int, ArrayList<Cell>) in the class Cell
+  // to test the method validKey(int, int, WallGrid, ArrayList<Cell>, ArrayList<Cell>,
+  // BitSet)
+  // in the class Cell
   void testValidKey(Tester t) {
     initData();
-    this.cell0.addNeighbor(cell1);
+    ArrayList<Cell> cells = new ArrayList<Cell>(Arrays.asList(this.cell0, this.cell1,
+        this.cell2, this.cell3));
+    this.grid.removeRightWall(0);
     ArrayList<Cell> visited = new ArrayList<Cell>(Arrays.asList(this.cell0));
-    t.checkExpect(this.cell0.validKey(1, 0, visited),
+    BitSet seen = new BitSet();
+    seen.set(0);
+    t.checkExpect(this.cell0.validKey(1, 0, this.grid, cells, visited, seen),
         this.cell1);
     t.checkExpect(visited, new ArrayList<Cell>(Arrays.asList(this.cell0, this.cell1)));
-    t.checkExpect(this.cell0.validKey(-1, 0, new ArrayList<Cell>(Arrays.asList(this.cell0))),
-        this.cell0);
+    t.checkExpect(seen.get(1), true);
+    t.checkExpect(this.cell0.validKey(0, 1, this.grid, cells, visited, seen), this.cell0);
+    t.checkExpect(this.cell0.validKey(-1, 0, this.grid, cells,
+        new ArrayList<Cell>(Arrays.asList(this.cell0)), seen), this.cell0);
+    // a cell visited before is not listed again
+    t.checkExpect(this.cell1.validKey(0, 0, this.grid, cells, visited, seen), this.cell0);
+    t.checkExpect(visited.size(), 2);
+  }
+
+  // to test the methods indexExit(), hintKey(Cell), movesLeft(Cell) and hint(Cell) in the
+  // class Maze
+  void testExitHint(Tester t) {
+    initData();
+    this.maze2.onKeyReleased("3");
+    t.checkExpect(this.maze2.exitIndexed, false);
+    this.maze2.onTick();
+    t.checkExpect(this.maze2.exitIndexed, true);
+    t.checkExpect(this.maze2.exitIndex.root, 624);
+    PathIndex index = this.maze2.exitIndex;
+    int[] queue = index.queue;
+
+    // the moves left from the start are the passages on the path a search finds
+    this.maze2.onKeyReleased("b");
+    this.runSearch(this.maze2);
+    int moves = this.maze2.path.size() - 1;
+    t.checkExpect(this.maze2.movesLeft(this.maze2.cellList.get(0)), moves);
+    t.checkExpect(this.maze2.hint(this.maze2.cellList.get(624)), "At the exit");
+    t.checkExpect(this.maze2.hintKey(this.maze2.cellList.get(624)), "");
+
+    // following the hint from the start walks the path and wins in as many moves
+    this.maze2.onKeyReleased("r");
+    this.maze2.onTick();
+    t.checkExpect(this.maze2.exitIndex == index, true);
+    this.maze2.onKeyReleased("m");
+    this.maze2.onKeyReleased("g");
+    t.checkExpect(this.maze2.hint(this.maze2.currentCell), "Exit: " + moves + " moves, go "
+        + this.maze2.hintKey(this.maze2.currentCell));
+    boolean closer = true;
+    for (int i = 0; i < moves; i++) {
+      int left = this.maze2.movesLeft(this.maze2.currentCell);
+      this.maze2.onKeyReleased(this.maze2.hintKey(this.maze2.currentCell));
+      closer = closer && this.maze2.movesLeft(this.maze2.currentCell) == left - 1;
+    }
+    t.checkExpect(closer, true);
+    t.checkExpect(this.maze2.winMessage, true);
+    t.checkExpect(this.maze2.keyCounter, moves);
+    t.checkExpect(this.maze2.visited.size(), moves + 1);
+    t.checkExpect(this.maze2.walked.cardinality(), moves + 1);
+    t.checkExpect(this.maze2.makeScene() != null, true);
+    t.checkExpect(this.maze2.hint(this.maze2.cellList.get(623)).startsWith("Exit: 1 move,"),
+        true);
+
+    // a new maze is hung from its exit again in the same arrays once it is built
+    this.maze2.onKeyReleased("n");
+    t.checkExpect(this.maze2.exitIndexed, false);
+    this.maze2.onTick();
+    t.checkExpect(this.maze2.exitIndexed, true);
+    t.checkExpect(this.maze2.exitIndex == index, true);
+    t.checkExpect(this.maze2.exitIndex.queue == queue, true);
+    PathIndex fresh = new PathIndex(this.maze2.walls, 624);
+    t.checkExpect(this.maze2.exitIndex.parent, fresh.parent);
+    t.checkExpect(this.maze2.exitIndex.depth, fresh.depth);
   }
   
   // to test the method drawCell(scene, int) in the class Cell
@@ -839,16 +3512,18 @@ class ExamplesMaze {
         OutlineMode.SOLID, new Color(128, 0, 128));
     scene.placeImageXY(square, this.cell0.x * this.maze1.cellSize + this.maze1.cellSize / 2,
         this.cell0.y * this.maze1.cellSize + this.maze1.cellSize / 2);
-    this.cell0.drawCell(testScene, this.maze1.cellSize);
+    this.cell0.drawCell(testScene, this.maze1.layer);
     t.checkExpect(this.testScene, scene);
-  }
-  
-  // to test the method compare(edge, edge) in the class Edge
-  void testCompare(Tester t) {
+
+    // zoomed out the square stays visible
     initData();
-    t.checkExpect(this.edge0.compare(edge1, edge0), -22);
-    t.checkExpect(this.edge0.compare(edge1, edge2), 11);
+    this.maze1.layer.zoomTo(1, 4);
+    this.cell3.drawCell(testScene, this.maze1.layer);
+    scene.placeImageXY(new RectangleImage(3, 3, OutlineMode.SOLID, new Color(128, 0, 128)), 0,
+        0);
+    t.checkExpect(this.testScene, scene);
   }
+
   
   // to test the method stepCounter() in the class Edge
   void testStepCounter(Tester t) {
@@ -862,15 +3537,9 @@ class ExamplesMaze {
   // to call big bang in the class Maze
   void testBigBang(Tester t) {
     initData();
-    this.maze2.bigBang(1500, 1000, 0.00001);
-  }
-
-  // to test the method addOutEdgesToCell() in the class Maze
-  void testAddOUtEdgesToCell(Tester t) {
-    initData();
-    this.edge0.addNeighbor();
-    t.checkExpect(this.cell0.neighbor.get(0).x, 1);
-    t.checkExpect(this.cell0.neighbor.get(0).y, 0);
+    // about half of every frame goes to the work of the current phase
+    this.maze2.setBudgets(TickBudget.millis(8), TickBudget.millis(8), TickBudget.millis(8));
+    this.maze2.bigBang(1500, 1000, 1.0 / 60);
   }
 }
 
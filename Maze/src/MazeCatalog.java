@@ -0,0 +1,97 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+// to serve mazes by their id, the size, seed and bias they are built from, written
+// "rowsxcols:seed:bias" like "25x25:-7:h"
+// the same id always builds the same maze, so no maze has to be kept: the catalog keeps
+// the layouts asked for most recently until their walls take up more than its budget of
+// bytes, and builds any other one again when it is asked for
+// a maze is built outside the lock, so threads asking for different mazes build them at
+// the same time, and two threads asking for the same missing maze may both build it
+class MazeCatalog {
+  long maxBytes; // the most bytes the walls of the kept layouts may take up
+  long usedBytes; // the bytes the walls of the kept layouts take up
+  LinkedHashMap<String, MazeLayout> cache; // the kept layouts, least recently used first
+  long hits; // the number of mazes served from the cache
+  long misses; // the number of mazes that had to be built
+  long evictions; // the number of layouts dropped to stay within the budget
+
+  MazeCatalog(long maxBytes) {
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException("The budget of a catalog can't be negative: "
+          + maxBytes);
+    }
+    this.maxBytes = maxBytes;
+    this.usedBytes = 0;
+    this.cache = new LinkedHashMap<String, MazeLayout>(16, 0.75f, true);
+  }
+
+  // to write the id of the maze with the given size, seed and bias
+  static String id(int rows, int cols, long seed, String bias) {
+    return rows + "x" + cols + ":" + seed + ":" + bias;
+  }
+
+  // to write the id of the given layout
+  static String id(MazeLayout layout) {
+    return MazeCatalog.id(layout.rows, layout.cols, layout.seed, layout.bias);
+  }
+
+  // to find the maze with the given id, building it if it is not kept
+  MazeLayout get(String id) {
+    String[] parts = id.split(":");
+    String[] size = parts[0].split("x");
+    if (parts.length != 3 || size.length != 2) {
+      throw new IllegalArgumentException("A maze id is rowsxcols:seed:bias: " + id);
+    }
+    try {
+      return this.get(Integer.parseInt(size[0]), Integer.parseInt(size[1]),
+          Long.parseLong(parts[1]), parts[2]);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("A maze id is rowsxcols:seed:bias: " + id);
+    }
+  }
+
+  // to find the maze with the given size, seed and bias, building it if it is not kept
+  // EFFECT: the maze becomes the most recently used one
+  MazeLayout get(int rows, int cols, long seed, String bias) {
+    if (!bias.equals("h") && !bias.equals("v") && !bias.equals("noBias")) {
+      throw new IllegalArgumentException("The bias must be h, v or noBias: " + bias);
+    }
+    String id = MazeCatalog.id(rows, cols, seed, bias);
+    synchronized (this) {
+      MazeLayout kept = this.cache.get(id);
+      if (kept != null) {
+        this.hits++;
+        return kept;
+      }
+      this.misses++;
+    }
+    MazeLayout layout = MazeGenerator.generate(rows, cols, seed, bias);
+    this.keep(layout);
+    return layout;
+  }
+
+  // EFFECT: to keep the given layout as the most recently used one, dropping the least
+  // recently used ones until the kept walls fit the budget again
+  // a layout bigger than the whole budget, or one that is already kept, is left alone
+  synchronized void keep(MazeLayout layout) {
+    String id = MazeCatalog.id(layout);
+    long bytes = layout.walls.byteSize();
+    if (bytes > this.maxBytes || this.cache.containsKey(id)) {
+      return;
+    }
+    this.cache.put(id, layout);
+    this.usedBytes += bytes;
+    Iterator<MazeLayout> oldest = this.cache.values().iterator();
+    while (this.usedBytes > this.maxBytes) {
+      this.usedBytes -= oldest.next().walls.byteSize();
+      oldest.remove();
+      this.evictions++;
+    }
+  }
+
+  // to count the layouts that are kept
+  synchronized int size() {
+    return this.cache.size();
+  }
+}
@@ -0,0 +1,93 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.BitSet;
+import java.util.zip.Deflater;
+
+// to save a picture of a whole maze as a png without ever holding the whole picture: the
+// maze is painted a strip of rows of pixels at a time by a MazeLayer whose view moves down
+// the maze, and every strip is handed to a PngWriter before the next one is painted, so
+// the pixels in memory are one strip however big the picture is
+// from the command line it exports a maze saved as a MazeFile, with its saved path
+//   java MazeExport maze-file cellSize out.png [b|d]
+// given a solver, the maze is searched again off the heap to show the visited cells too
+class MazeExport {
+  static final int STRIP_PIXELS = 1 << 22; // about how many pixels a strip holds
+
+  // to find how many rows of pixels of the given width make a strip
+  static int stripHeight(int width) {
+    return Math.max(1, STRIP_PIXELS / width);
+  }
+
+  // EFFECT: to write a png of the whole of the given walls at the given pixels to a side of
+  // a cell, with the given visited cells and path cells, to the given stream, painting and
+  // encoding the given number of rows of pixels at a time; the stream is left open
+  static void writePng(AWallGrid walls, BitSet visited, BitSet path, int cellSize,
+      int stripHeight, OutputStream out) throws IOException {
+    long width = (long) walls.cols * cellSize + 1;
+    long height = (long) walls.rows * cellSize + 1;
+    if (cellSize < 1 || stripHeight < 1 || width > Integer.MAX_VALUE
+        || height > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("A picture needs at least a pixel a cell, a row a "
+          + "strip and sides of at most " + Integer.MAX_VALUE + " pixels: " + width + "x"
+          + height + " in strips of " + stripHeight);
+    }
+    PngWriter png = new PngWriter(out, (int) width, (int) height, Deflater.BEST_SPEED);
+    PixelRaster strip = new PixelRaster((int) width, (int) Math.min(stripHeight, height));
+    MazeLayer layer = new MazeLayer(walls, null, cellSize, strip, visited, path);
+    for (int top = 0; top < height; top += strip.height) {
+      if (height - top < strip.height) {
+        layer.raster = new PixelRaster((int) width, (int) (height - top));
+      }
+      layer.top = top;
+      layer.paintView();
+      png.writeRows(layer.raster, layer.raster.height);
+    }
+    png.finish();
+  }
+
+  public static void main(String[] args) throws IOException {
+    if ((args.length != 3 && args.length != 4)
+        || (args.length == 4 && !args[3].equals("b") && !args[3].equals("d"))) {
+      throw new IllegalArgumentException("Usage: MazeExport maze-file cellSize out.png [b|d]");
+    }
+    long begin = System.nanoTime();
+    MazeFile file = MazeFile.open(Paths.get(args[0]));
+    AWallGrid walls = file.walls();
+    BitSet visited = new BitSet();
+    BitSet path = new BitSet();
+    for (long i = 0; i < file.pathLength(); i++) {
+      path.set((int) file.pathCell(i));
+    }
+    if (args.length == 4) {
+      OffHeapSolver search = new OffHeapSolver(file.offHeapWalls(), 0, file.cellCount() - 1,
+          args[3].equals("d"), OffHeapLongs.CHUNK_BITS);
+      search.solve();
+      for (int cell = 0; cell < walls.cellCount(); cell++) {
+        if (search.mark(cell) != 0) {
+          visited.set(cell);
+        }
+      }
+      path.clear();
+      if (search.found) {
+        for (long cell = search.goal; cell != search.start; cell = search.parent(cell)) {
+          path.set((int) cell);
+        }
+        path.set((int) search.start);
+      }
+    }
+    long ready = System.nanoTime();
+    int cellSize = Integer.parseInt(args[1]);
+    int width = walls.cols * cellSize + 1;
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(args[2])),
+        PngWriter.CHUNK_BYTES)) {
+      MazeExport.writePng(walls, visited, path, cellSize, MazeExport.stripHeight(width), out);
+    }
+    System.out.println(width + "x" + (walls.rows * cellSize + 1) + " pixels written to "
+        + args[2] + " in " + (System.nanoTime() - ready) / 1000000 + " ms, after "
+        + (ready - begin) / 1000000 + " ms to open" + (args.length == 4 ? " and search" : "")
+        + " the maze");
+  }
+}
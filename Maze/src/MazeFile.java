@@ -0,0 +1,220 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// to represent a maze saved to a file: a header of HEADER_BYTES, the open bits of the walls
+// and, if a search had found the exit, the path it found
+// everything is little endian; the header is
+//   0  MAGIC             4  VERSION           8  rows (long)      16 cols (int)
+//   20 bias (byte)       21 solver key (byte) 24 seed (long)      32 wall words (long)
+//   40 visited cells     48 path length       56 unused
+// where the bias is 0 for none, 1 for "h" and 2 for "v", and the solver key is the key of
+// the search, or 0 when there is no path
+// the walls are the open bits of OffHeapWallGrid, a set bit means the wall is down, and
+// the path is one long a cell from the exit back to the start
+// a file is written in one pass through a small buffer, and opened by mapping the walls
+// and the path, so opening reads nothing but the header and the walls on the border
+// whatever the size of the maze
+class MazeFile {
+  static final int MAGIC = 0x455A414D; // "MAZE" in the first four bytes
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 64;
+  static final int BUFFER_BYTES = 1 << 16; // how much is written to the stream at once
+
+  long rows;
+  int cols;
+  long seed;
+  String bias;
+  String solverKey; // the key of the search that found the path, "" if there is none
+  long visitedCount; // the cells the search visited before it found the exit
+  OffHeapLongs open; // the open bits of the walls, mapped from the file
+  OffHeapLongs path; // the cells of the path from the exit to the start, mapped too
+
+  MazeFile(long rows, int cols, long seed, String bias, String solverKey, long visitedCount,
+      OffHeapLongs open, OffHeapLongs path) {
+    this.rows = rows;
+    this.cols = cols;
+    this.seed = seed;
+    this.bias = bias;
+    this.solverKey = solverKey;
+    this.visitedCount = visitedCount;
+    this.open = open;
+    this.path = path;
+  }
+
+  // EFFECT: to write the given walls of a maze built from the given seed and bias to the
+  // given stream, with the path of the given search if it found the exit
+  // the given key names the search, the stream is left open
+  static void save(AWallGrid walls, long seed, String bias, ASolver solver, String key,
+      OutputStream out) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    boolean solved = solver != null && solver.found;
+    int[] path = solved ? solver.path() : new int[0];
+    MazeFile.writeHeader(buffer, walls.rows, walls.cols, seed, bias, solved ? key : "",
+        walls.wordCount(), solved ? solver.visitedCount : 0, path.length);
+    for (long i = 0; i < walls.wordCount(); i++) {
+      MazeFile.writeLong(out, buffer, walls.openWord(i));
+    }
+    for (int i = 0; i < path.length; i++) {
+      MazeFile.writeLong(out, buffer, path[i]);
+    }
+    MazeFile.drain(out, buffer);
+  }
+
+  // EFFECT: to write the given off heap walls of a maze built from the given seed and bias
+  // to the given stream, with the path of the given search if it found the exit
+  // the path is followed back from the exit twice, once to count it and once to write it,
+  // so a path of any length is never held in memory
+  static void save(OffHeapWallGrid walls, long seed, String bias, OffHeapSolver solver,
+      OutputStream out) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    boolean solved = solver != null && solver.found;
+    long pathLength = solved ? solver.pathLength() : 0;
+    String key = solved && solver.depthFirst ? "d" : "b";
+    MazeFile.writeHeader(buffer, walls.rows, walls.cols, seed, bias, solved ? key : "",
+        walls.open.length, solved ? solver.visitedCount : 0, pathLength);
+    for (long i = 0; i < walls.open.length; i++) {
+      MazeFile.writeLong(out, buffer, walls.open.get(i));
+    }
+    if (solved) {
+      for (long cell = solver.goal; cell != solver.start; cell = solver.parent(cell)) {
+        MazeFile.writeLong(out, buffer, cell);
+      }
+      MazeFile.writeLong(out, buffer, solver.start);
+    }
+    MazeFile.drain(out, buffer);
+  }
+
+  // EFFECT: to put the header of a maze file with the given values into the given empty
+  // buffer
+  static void writeHeader(ByteBuffer buffer, long rows, int cols, long seed, String bias,
+      String key, long words, long visitedCount, long pathLength) {
+    buffer.putInt(MAGIC);
+    buffer.putInt(VERSION);
+    buffer.putLong(rows);
+    buffer.putInt(cols);
+    buffer.put((byte) (bias.equals("h") ? 1 : bias.equals("v") ? 2 : 0));
+    buffer.put((byte) (key.isEmpty() ? 0 : key.charAt(0)));
+    buffer.putShort((short) 0);
+    buffer.putLong(seed);
+    buffer.putLong(words);
+    buffer.putLong(visitedCount);
+    buffer.putLong(pathLength);
+    buffer.putLong(0);
+  }
+
+  // EFFECT: to put the given long into the given buffer, writing the buffer to the given
+  // stream first if it is full
+  static void writeLong(OutputStream out, ByteBuffer buffer, long value) throws IOException {
+    if (buffer.remaining() < 8) {
+      MazeFile.drain(out, buffer);
+    }
+    buffer.putLong(value);
+  }
+
+  // EFFECT: to write what the given buffer holds to the given stream and empty it
+  static void drain(OutputStream out, ByteBuffer buffer) throws IOException {
+    out.write(buffer.array(), 0, buffer.position());
+    buffer.clear();
+  }
+
+  // to open the maze saved in the given file, mapping its walls and its path in chunks of
+  // the default size
+  static MazeFile open(Path file) throws IOException {
+    return MazeFile.open(file, OffHeapLongs.CHUNK_BITS);
+  }
+
+  // to open the maze saved in the given file, mapping its walls and its path in chunks of
+  // 2 ^ chunkBits longs
+  // the mappings stay valid once the file is closed, until they are garbage collected
+  // a file with a wall down on the border of the maze is damaged, a WallGrid never checks
+  // whether a passage leads off the edge
+  static MazeFile open(Path file, int chunkBits) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining() && channel.read(header) != -1) {
+        // every read fills some more of the header
+      }
+      if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+        throw new IOException("Not a maze file: " + file);
+      }
+      if (header.getInt(4) != VERSION) {
+        throw new IOException("Unsupported maze file version " + header.getInt(4) + ": "
+            + file);
+      }
+      long rows = header.getLong(8);
+      int cols = header.getInt(16);
+      byte bias = header.get(20);
+      byte key = header.get(21);
+      long words = header.getLong(32);
+      long pathLength = header.getLong(48);
+      if (rows < 1 || cols < 1 || words != OffHeapWallGrid.words(rows, cols)
+          || pathLength < 0 || pathLength > rows * cols
+          || channel.size() < HEADER_BYTES + 8 * (words + pathLength)) {
+        throw new IOException("Damaged maze file: " + file);
+      }
+      OffHeapLongs open = OffHeapLongs.map(channel, HEADER_BYTES, words, chunkBits);
+      if (!MazeFile.keepsBorder(open, rows, cols)) {
+        throw new IOException("Damaged maze file: " + file);
+      }
+      return new MazeFile(rows, cols, header.getLong(24),
+          bias == 1 ? "h" : bias == 2 ? "v" : "noBias",
+          key == 0 ? "" : String.valueOf((char) key), header.getLong(40), open,
+          OffHeapLongs.map(channel, HEADER_BYTES + 8 * words, pathLength, chunkBits));
+    }
+  }
+
+  // to find whether the given open bits of a maze of the given size have every wall of
+  // the border standing: the right walls of the last column, the bottom walls of the last
+  // row and the bits past the last cell are all clear
+  // one long is read a row, and the longs of the last row
+  static boolean keepsBorder(OffHeapLongs open, long rows, int cols) {
+    long cells = rows * cols;
+    for (long cell = cols - 1; cell < cells; cell += cols) {
+      if ((open.get(cell >>> 5) & (1L << (2 * cell))) != 0) {
+        return false;
+      }
+    }
+    for (long cell = cells - cols; cell < cells; cell++) {
+      if ((open.get(cell >>> 5) & (1L << (2 * cell + 1))) != 0) {
+        return false;
+      }
+    }
+    int used = (int) (2 * cells & 63);
+    return used == 0 || open.get(open.length - 1) >>> used == 0;
+  }
+
+  // to count the cells in the maze
+  long cellCount() {
+    return this.rows * this.cols;
+  }
+
+  // to count the cells of the saved path, 0 if there is none
+  long pathLength() {
+    return this.path.length;
+  }
+
+  // to find the cell of the saved path at the given index, counted from the exit
+  long pathCell(long index) {
+    return this.path.get(index);
+  }
+
+  // to read the walls of the maze straight from the file as a WallGrid
+  // throws an IllegalArgumentException if the maze has too many cells for a WallGrid
+  MappedWallGrid walls() {
+    if (this.cellCount() > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("A maze of " + this.rows + "x" + this.cols
+          + " is too big for a WallGrid, its walls can only be read off the heap");
+    }
+    return new MappedWallGrid((int) this.rows, this.cols, this.open);
+  }
+
+  // to read the walls of the maze straight from the file as an OffHeapWallGrid
+  OffHeapWallGrid offHeapWalls() {
+    return new OffHeapWallGrid(this.rows, this.cols, this.open);
+  }
+}
@@ -0,0 +1,158 @@
+// to build the spanning tree of a maze with kruskal's algorithm, without a World or a tick clock
+// the edges of the grid are numbered horizontal edges first, row by row, then the vertical
+// edges from the top left cell onwards
+class MazeGenerator {
+  int rows;
+  int cols;
+  long seed; // the seed of the edge order, the same seed always gives the same maze
+  String bias; // "h" favors horizontal passages, "v" vertical ones, anything else neither
+  UnionFind sets; // the disjoint sets of cells for kruskal's
+  EdgeStream edges; // every edge of the grid, in the order kruskal's considers them
+  WallGrid walls; // the walls of the maze, a wall comes down when its edge joins the tree
+  int added; // the number of edges added to the tree so far
+
+  MazeGenerator(int rows, int cols, long seed, String bias) {
+    this.rows = rows;
+    this.cols = cols;
+    this.seed = seed;
+    this.bias = bias;
+    this.sets = new UnionFind(rows * cols);
+    this.walls = new WallGrid(rows, cols);
+    this.edges = new EdgeStream(rows, cols, seed, bias);
+    this.added = 0;
+  }
+
+  // to build the whole maze with the given size, seed and bias in one call
+  static MazeLayout generate(int rows, int cols, long seed, String bias) {
+    return new MazeGenerator(rows, cols, seed, bias).finish();
+  }
+
+  // EFFECT: to start building the maze of the same size again from the given seed and
+  // bias, reusing the sets, the walls and the edge stream
+  // the walls are raised again in place, so a generator whose layout was handed out by
+  // finish must not be reset
+  void reset(long seed, String bias) {
+    this.seed = seed;
+    this.bias = bias;
+    this.sets.reset();
+    this.walls.raiseAll();
+    this.edges.reset(seed, bias);
+    this.added = 0;
+  }
+
+  // EFFECT: to take on the seed and bias of a maze that was built somewhere else, like
+  // one loaded from a MazeFile, with nothing left to add
+  // the sets start over so their counters are the ones of the new maze, the walls of the
+  // generator are left as they are until the next reset
+  void adopt(long seed, String bias) {
+    this.seed = seed;
+    this.bias = bias;
+    this.sets.reset();
+    this.added = this.rows * this.cols - 1;
+  }
+
+  // EFFECT: to knock down the wall of the given edge, added to the same maze by another
+  // generator, and count it as added here
+  // the sets are not consulted, so they keep their counts from before
+  void follow(int edge) {
+    this.walls.removeWall(this.edgeCell1(edge), this.edgeCell2(edge));
+    this.added++;
+  }
+
+  // EFFECT: to braid the given maze: every dead end, with the given chance, has one of its
+  // walls knocked down, so the maze gets loops and a weighted search has more than one way
+  // to choose from
+  // the chance and the wall are hashed from the seed and the cell, so the same seed always
+  // braids a maze the same way
+  static void braid(WallGrid walls, long seed, double chance) {
+    int[] around = new int[4];
+    int[] closed = new int[4];
+    for (int cell = 0; cell < walls.cellCount(); cell++) {
+      long roll = RandomPermutation.mix(seed + cell * 0x9E3779B97F4A7C15L);
+      if (walls.neighbors(cell, around) == 1 && (roll >>> 11) * 0x1.0p-53 < chance) {
+        int x = cell % walls.cols;
+        int y = cell / walls.cols;
+        int count = 0;
+        if (y > 0 && !walls.isOpen(cell, cell - walls.cols)) {
+          closed[count] = cell - walls.cols;
+          count++;
+        }
+        if (x > 0 && !walls.isOpen(cell, cell - 1)) {
+          closed[count] = cell - 1;
+          count++;
+        }
+        if (x < walls.cols - 1 && !walls.isOpen(cell, cell + 1)) {
+          closed[count] = cell + 1;
+          count++;
+        }
+        if (y < walls.rows - 1 && !walls.isOpen(cell, cell + walls.cols)) {
+          closed[count] = cell + walls.cols;
+          count++;
+        }
+        if (count > 0) {
+          int other = closed[(int) Long.remainderUnsigned(roll, count)];
+          walls.removeWall(Math.min(cell, other), Math.max(cell, other));
+        }
+      }
+    }
+  }
+
+  // to count the horizontal edges, that join a cell to the cell on its right
+  int horizontalCount() {
+    return this.rows * (this.cols - 1);
+  }
+
+  // to count all the edges in the grid
+  int edgeCount() {
+    return this.horizontalCount() + (this.rows - 1) * this.cols;
+  }
+
+  // to find the index of the upper or left cell of the given edge
+  int edgeCell1(int edge) {
+    if (edge < this.horizontalCount()) {
+      return edge / (this.cols - 1) * this.cols + edge % (this.cols - 1);
+    } else {
+      return edge - this.horizontalCount();
+    }
+  }
+
+  // to find the index of the lower or right cell of the given edge
+  int edgeCell2(int edge) {
+    if (edge < this.horizontalCount()) {
+      return this.edgeCell1(edge) + 1;
+    } else {
+      return edge - this.horizontalCount() + this.cols;
+    }
+  }
+
+  // to find whether every cell has been joined into the tree
+  boolean isDone() {
+    return this.added == this.rows * this.cols - 1;
+  }
+
+  // EFFECT: to add the next edge that joins two different trees to the tree and knock
+  // down its wall
+  // returns that edge, or -1 if the tree already spans the whole grid
+  int step() {
+    while (!this.isDone()) {
+      int edge = this.edges.next();
+      int cell1 = this.edgeCell1(edge);
+      int cell2 = this.edgeCell2(edge);
+      if (this.sets.union(cell1, cell2)) {
+        this.walls.removeWall(cell1, cell2);
+        this.added++;
+        return edge;
+      }
+    }
+    return -1;
+  }
+
+  // EFFECT: to add edges until the tree spans the whole grid
+  // returns the finished maze
+  MazeLayout finish() {
+    while (this.step() != -1) {
+      // every call adds one edge
+    }
+    return new MazeLayout(this.rows, this.cols, this.seed, this.bias, this.walls);
+  }
+}
@@ -0,0 +1,514 @@
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import javalib.worldimages.*;
+
+// to keep the picture of the part of a maze that is in view between frames, so a frame
+// only paints what changed since the one before: the walls knocked down by the generator,
+// the cells newly visited by a search and the cells newly added to the path
+// the visited cells and the path only ever grow until they are replaced by new lists, so
+// remembering how much of each has been painted is enough to find what is new; new lists,
+// a change to showVisited or a move of the view paint the whole view again, which costs
+// the pixels and cells in view and not the size of the maze
+// zoomed in, every cell is cellSize pixels on a side and a wall is painted one pixel wide
+// on the line between two cells, with the pixel at a corner painted while any wall meeting
+// there still stands; zoomed out below MIN_DETAIL pixels a cell, the walls are left out
+// and every square of cellSize pixels stands for a block of blockSize by blockSize cells,
+// shaded from a few cells sampled out of the block
+// the pixels are painted straight into the int[] behind the picture through a PixelRaster,
+// and a whole view in detail is painted a row of pixels at a time, so a frame costs about
+// as much as copying its pixels; a layer can also paint into a raster of its own, which
+// is how a maze is painted without a window
+class MazeLayer {
+  static final Color BACKGROUND = Color.WHITE;
+  static final Color WALL = Color.BLACK;
+  static final Color VISITED = new Color(135, 206, 250);
+  static final Color PATH = new Color(0, 0, 128);
+  static final int MIN_DETAIL = 4; // the fewest pixels on a side of a cell that show walls
+  static final int MAX_CELL_SIZE = 64; // the most pixels on a side of a cell
+  static final int SAMPLES = 4; // the most cells sampled along a side of a block
+  static final int REPAINT_CELLS = 2048; // past this many new cells or walls in a frame,
+  // painting the whole view again costs less than painting each of them
+
+  AWallGrid walls;
+  ArrayList<Cell> cellList;
+  int cellSize; // the pixels on a side of a cell, or of a block in the overview
+  int blockSize; // the cells on a side of a block, 1 unless zoomed out past a pixel a cell
+  int left; // the column of pixels of the whole zoomed maze at the left of the view
+  int top; // the row of pixels of the whole zoomed maze at the top of the view
+  ComputedPixelImage image; // the picture of the view for the world, null without one
+  PixelRaster raster; // the pixels of the view
+  ArrayList<Cell> visited; // the list of visited cells that has been painted
+  ArrayList<Cell> path; // the list of path cells that has been painted
+  boolean showVisited; // whether the visited cells have been painted
+  int paintedVisited; // the number of visited cells painted so far
+  int paintedPath; // the number of path cells painted so far
+  BitSet visitedCells; // the cells in the painted list of visited cells
+  BitSet onPath; // the cells in the painted path, the visited color never covers them
+  boolean stale; // whether the view has moved since it was painted
+
+  MazeLayer(AWallGrid walls, ArrayList<Cell> cellList, int cellSize, int width, int height) {
+    this(walls, cellList, cellSize, new ComputedPixelImage(width, height));
+  }
+
+  // to paint the view into the given picture, which the world places in its scene
+  MazeLayer(AWallGrid walls, ArrayList<Cell> cellList, int cellSize,
+      ComputedPixelImage image) {
+    this(walls, cellList, cellSize, PixelRaster.of(image), new BitSet(walls.cellCount()),
+        new BitSet(walls.cellCount()));
+    this.image = image;
+    this.repaint(new ArrayList<Cell>(), new ArrayList<Cell>(), true);
+  }
+
+  // to paint the view into the given raster with the given sets of visited cells and path
+  // cells, without a picture for the world and without painting anything yet
+  MazeLayer(AWallGrid walls, ArrayList<Cell> cellList, int cellSize, PixelRaster raster,
+      BitSet visitedCells, BitSet onPath) {
+    this.walls = walls;
+    this.cellList = cellList;
+    this.cellSize = cellSize;
+    this.blockSize = 1;
+    this.left = 0;
+    this.top = 0;
+    this.raster = raster;
+    this.visitedCells = visitedCells;
+    this.onPath = onPath;
+    this.visited = new ArrayList<Cell>();
+    this.path = new ArrayList<Cell>();
+    this.showVisited = true;
+  }
+
+  // to paint the whole of the given walls at the given pixels to a side of a cell into a
+  // raster of their size, with the given visited cells and path cells, without a window
+  static PixelRaster render(AWallGrid walls, BitSet visited, BitSet path, int cellSize) {
+    PixelRaster raster = new PixelRaster(walls.cols * cellSize + 1,
+        walls.rows * cellSize + 1);
+    new MazeLayer(walls, null, cellSize, raster, visited, path).paintView();
+    return raster;
+  }
+
+  // to find whether the view shows every cell with its walls
+  boolean detailed() {
+    return this.blockSize == 1 && this.cellSize >= MIN_DETAIL;
+  }
+
+  // EFFECT: to paint the given rectangle of pixels of the whole zoomed maze in the given
+  // color, only the part of it that is in view
+  void fill(int x, int y, int width, int height, Color color) {
+    this.fill(x, y, width, height, color.getRGB());
+  }
+
+  // EFFECT: to paint the given rectangle of pixels of the whole zoomed maze in the given
+  // argb color, only the part of it that is in view
+  void fill(int x, int y, int width, int height, int color) {
+    int fromX = Math.max(x - this.left, 0);
+    int fromY = Math.max(y - this.top, 0);
+    int toX = Math.min(x + width - this.left, this.raster.width);
+    int toY = Math.min(y + height - this.top, this.raster.height);
+    if (fromX < toX && fromY < toY) {
+      this.raster.fill(fromX, fromY, toX - fromX, toY - fromY, color);
+    }
+  }
+
+  // EFFECT: to take over the given lists of visited cells and path cells and paint the
+  // whole view again
+  void repaint(ArrayList<Cell> visited, ArrayList<Cell> path, boolean showVisited) {
+    this.visited = visited;
+    this.path = path;
+    this.showVisited = showVisited;
+    this.visitedCells.clear();
+    this.onPath.clear();
+    int cols = this.walls.cols;
+    for (int i = 0; i < visited.size(); i++) {
+      this.visitedCells.set(visited.get(i).findIndex(cols));
+    }
+    for (int i = 0; i < path.size(); i++) {
+      this.onPath.set(path.get(i).findIndex(cols));
+    }
+    this.paintedVisited = visited.size();
+    this.paintedPath = path.size();
+    this.paintView();
+  }
+
+  // EFFECT: to go back to showing the whole maze at the given size of a cell from the top
+  // left corner, after the walls were raised again, and take over the given lists and
+  // paint the view, reusing the picture and the sets of cells
+  void reset(int cellSize, ArrayList<Cell> visited, ArrayList<Cell> path,
+      boolean showVisited) {
+    this.cellSize = cellSize;
+    this.blockSize = 1;
+    this.left = 0;
+    this.top = 0;
+    this.repaint(visited, path, showVisited);
+  }
+
+  // EFFECT: to paint every cell or block in view
+  void paintView() {
+    this.stale = false;
+    if (this.detailed()) {
+      this.paintDetail();
+    } else {
+      this.paintOverview();
+    }
+  }
+
+  // EFFECT: to paint the overview a row of pixels at a time: the first row of pixels of a
+  // row of blocks gets the color of every block in view, the rest of the rows of pixels of
+  // the blocks copy it, and then the whole path is painted over the blocks
+  void paintOverview() {
+    int blocksAcross = (this.walls.cols + this.blockSize - 1) / this.blockSize;
+    int blocksDown = (this.walls.rows + this.blockSize - 1) / this.blockSize;
+    int background = BACKGROUND.getRGB();
+    int size = this.cellSize;
+    int width = this.raster.width;
+    int[] pixels = this.raster.pixels;
+    for (int py = 0; py < this.raster.height; py++) {
+      int y = this.top + py;
+      int blockY = y / size;
+      if (py > 0 && y % size != 0) {
+        this.raster.copyRow(py - 1, py);
+      } else {
+        int row = py * width;
+        for (int blockX = this.left / size; blockX * size - this.left < width; blockX++) {
+          int x = blockX * size - this.left;
+          int color = background;
+          if (blockX < blocksAcross && blockY < blocksDown) {
+            color = this.blockColor(blockX, blockY);
+          }
+          if (size == 1) {
+            pixels[row + x] = color;
+          } else {
+            Arrays.fill(pixels, row + Math.max(x, 0), row + Math.min(x + size, width), color);
+          }
+        }
+      }
+    }
+    // to show the whole path, which the samples of a block would mostly miss
+    int cols = this.walls.cols;
+    for (int i = this.onPath.nextSetBit(0); i >= 0; i = this.onPath.nextSetBit(i + 1)) {
+      this.fill(i % cols / this.blockSize * size, i / cols / this.blockSize * size, size,
+          size, PATH);
+    }
+  }
+
+  // EFFECT: to paint the view in detail a row of pixels at a time
+  // the first row of pixels of a row of cells crosses the corners and the bottom walls of
+  // the row of cells above it, and every other row crosses the right walls and either
+  // misses the squares of the visited and path cells or goes through them; a row of pixels
+  // that is of the same kind as the one above it, for the same row of cells, is a copy of it
+  void paintDetail() {
+    int side = this.cellSize / 2;
+    int squareTop = (this.cellSize - side) / 2;
+    int lastCellY = -1;
+    int lastKind = -1;
+    for (int py = 0; py < this.raster.height; py++) {
+      int y = this.top + py;
+      int cellY = y / this.cellSize;
+      int inside = y % this.cellSize;
+      int kind;
+      if (inside == 0) {
+        kind = 0;
+      } else if (inside >= squareTop && inside < squareTop + side) {
+        kind = 2;
+      } else {
+        kind = 1;
+      }
+      if (cellY == lastCellY && kind == lastKind) {
+        this.raster.copyRow(py - 1, py);
+      } else {
+        this.paintRow(py, cellY, kind);
+        lastCellY = cellY;
+        lastKind = kind;
+      }
+    }
+  }
+
+  // EFFECT: to paint the given row of pixels of the view, which goes through the given row
+  // of cells, as the given kind of row: 0 for the line of corners and bottom walls at the
+  // top of the cells, 1 for a row that only crosses right walls and 2 for a row that also
+  // crosses the squares of the cells
+  void paintRow(int py, int cellY, int kind) {
+    int size = this.cellSize;
+    int side = size / 2;
+    int squareLeft = (size - side) / 2;
+    int wall = WALL.getRGB();
+    int width = this.raster.width;
+    int[] pixels = this.raster.pixels;
+    int row = py * width;
+    Arrays.fill(pixels, row, row + width, BACKGROUND.getRGB());
+    for (int cellX = this.left / size; cellX * size - this.left < width; cellX++) {
+      // the pixel on the line at the left of the cell, then the rest of the cell
+      int x = cellX * size - this.left;
+      boolean line;
+      if (kind == 0) {
+        line = this.hasCorner(cellX, cellY);
+        if (this.hasInnerBottomWall(cellX, cellY - 1)) {
+          Arrays.fill(pixels, row + Math.max(x + 1, 0), row + Math.min(x + size, width),
+              wall);
+        }
+      } else {
+        line = this.hasInnerRightWall(cellX - 1, cellY);
+        int square = kind == 2 ? this.squareColor(cellX, cellY) : 0;
+        int from = Math.max(x + squareLeft, 0);
+        int to = Math.min(x + squareLeft + side, width);
+        if (square != 0 && from < to) {
+          Arrays.fill(pixels, row + from, row + to, square);
+        }
+      }
+      if (line && x >= 0) {
+        pixels[row + x] = wall;
+      }
+    }
+  }
+
+  // to find the argb color of the square in the middle of the cell with the given
+  // coordinates, 0 if the cell is outside the maze or has no square
+  int squareColor(int x, int y) {
+    if (x >= this.walls.cols || y >= this.walls.rows) {
+      return 0;
+    }
+    int i = y * this.walls.cols + x;
+    if (this.onPath.get(i)) {
+      return PATH.getRGB();
+    } else if (i == 0 || (this.showVisited && this.visitedCells.get(i))) {
+      // to highlight the first cell too
+      return VISITED.getRGB();
+    } else {
+      return 0;
+    }
+  }
+
+  // EFFECT: to paint the block with the given coordinates in the overview
+  void paintBlock(int blockX, int blockY) {
+    this.fill(blockX * this.cellSize, blockY * this.cellSize, this.cellSize, this.cellSize,
+        this.blockColor(blockX, blockY));
+  }
+
+  // to find the argb color of the block with the given coordinates in the overview: the
+  // path color or visited color if a sampled cell has either, and otherwise a gray that is
+  // darker the more of the sampled walls still stand
+  // a block of one cell is its own sample, and is worked out without the divisions
+  int blockColor(int blockX, int blockY) {
+    int cols = this.walls.cols;
+    if (this.blockSize == 1) {
+      int i = blockY * cols + blockX;
+      if (this.onPath.get(i)) {
+        return PATH.getRGB();
+      } else if (this.showVisited && this.visitedCells.get(i)) {
+        return VISITED.getRGB();
+      }
+      int shade = 255 - (this.walls.hasRightWall(i) ? 80 : 0)
+          - (this.walls.hasBottomWall(i) ? 80 : 0);
+      return 0xFF000000 | shade * 0x010101;
+    }
+    int fromX = blockX * this.blockSize;
+    int fromY = blockY * this.blockSize;
+    int toX = Math.min(fromX + this.blockSize, cols);
+    int toY = Math.min(fromY + this.blockSize, this.walls.rows);
+    int step = Math.max(1, this.blockSize / SAMPLES);
+    int sampled = 0;
+    int standing = 0;
+    int color = 0;
+    for (int y = fromY; y < toY && color != PATH.getRGB(); y += step) {
+      for (int x = fromX; x < toX && color != PATH.getRGB(); x += step) {
+        int i = y * cols + x;
+        sampled++;
+        if (this.walls.hasRightWall(i)) {
+          standing++;
+        }
+        if (this.walls.hasBottomWall(i)) {
+          standing++;
+        }
+        if (this.onPath.get(i)) {
+          color = PATH.getRGB();
+        } else if (this.showVisited && this.visitedCells.get(i)) {
+          color = VISITED.getRGB();
+        }
+      }
+    }
+    if (color == 0) {
+      int shade = 255 - 160 * standing / (2 * sampled);
+      color = 0xFF000000 | shade * 0x010101;
+    }
+    return color;
+  }
+
+  // EFFECT: to paint the block of the given cell in the overview in the given color
+  void paintBlockOf(Cell cell, Color color) {
+    this.fill(cell.x / this.blockSize * this.cellSize, cell.y / this.blockSize * this.cellSize,
+        this.cellSize, this.cellSize, color);
+  }
+
+  // EFFECT: to paint the visited cells and path cells that are new since the last update,
+  // or the whole view if the lists were replaced, showVisited was toggled, the view moved
+  // or more than REPAINT_CELLS cells are new
+  // toggling showVisited keeps the sets of painted cells, they are the same lists
+  void update(ArrayList<Cell> visited, ArrayList<Cell> path, boolean showVisited) {
+    if (visited != this.visited || path != this.path
+        || visited.size() < this.paintedVisited || path.size() < this.paintedPath) {
+      this.repaint(visited, path, showVisited);
+      return;
+    }
+    if (showVisited != this.showVisited) {
+      this.showVisited = showVisited;
+      this.stale = true;
+    }
+    int cols = this.walls.cols;
+    if (visited.size() - this.paintedVisited + path.size() - this.paintedPath
+        > REPAINT_CELLS) {
+      for (int i = this.paintedPath; i < path.size(); i++) {
+        this.onPath.set(path.get(i).findIndex(cols));
+      }
+      for (int i = this.paintedVisited; i < visited.size(); i++) {
+        this.visitedCells.set(visited.get(i).findIndex(cols));
+      }
+      this.paintedPath = path.size();
+      this.paintedVisited = visited.size();
+      this.stale = true;
+    }
+    if (this.stale) {
+      this.paintView();
+    }
+    while (this.paintedPath < path.size()) {
+      Cell cell = path.get(this.paintedPath);
+      this.onPath.set(cell.findIndex(cols));
+      if (this.detailed()) {
+        cell.drawPath(this);
+      } else {
+        this.paintBlockOf(cell, PATH);
+      }
+      this.paintedPath++;
+    }
+    while (this.paintedVisited < visited.size()) {
+      Cell cell = visited.get(this.paintedVisited);
+      int i = cell.findIndex(cols);
+      this.visitedCells.set(i);
+      if (showVisited && !this.onPath.get(i) && this.detailed()) {
+        cell.drawVisited(this);
+      } else if (showVisited && !this.onPath.get(i)) {
+        this.paintBlock(cell.x / this.blockSize, cell.y / this.blockSize);
+      }
+      this.paintedVisited++;
+    }
+  }
+
+  // EFFECT: to erase the wall between the two given neighboring cells, which the walls
+  // no longer have, along with the corners it leaves bare
+  void openWall(int cell1, int cell2) {
+    int low = Math.min(cell1, cell2);
+    int high = Math.max(cell1, cell2);
+    Cell cell = this.cellList.get(low);
+    boolean right = high == low + 1;
+    if (!this.detailed()) {
+      this.paintBlock(cell.x / this.blockSize, cell.y / this.blockSize);
+    } else if (right) {
+      cell.placeWallHelper(this, true, BACKGROUND);
+      this.paintCorner(cell.x + 1, cell.y);
+      this.paintCorner(cell.x + 1, cell.y + 1);
+    } else {
+      cell.placeWallHelper(this, false, BACKGROUND);
+      this.paintCorner(cell.x, cell.y + 1);
+      this.paintCorner(cell.x + 1, cell.y + 1);
+    }
+  }
+
+  // EFFECT: to paint the corner at the top left of the cell with the given coordinates,
+  // which may lie one past the last column or row, in the wall color if an inner wall
+  // meets there and in the background color otherwise
+  void paintCorner(int x, int y) {
+    this.fill(x * this.cellSize, y * this.cellSize, 1, 1,
+        this.hasCorner(x, y) ? WALL : BACKGROUND);
+  }
+
+  // to find whether an inner wall meets the corner at the top left of the cell with the
+  // given coordinates
+  boolean hasCorner(int x, int y) {
+    return this.hasInnerRightWall(x - 1, y - 1) || this.hasInnerRightWall(x - 1, y)
+        || this.hasInnerBottomWall(x - 1, y - 1) || this.hasInnerBottomWall(x, y - 1);
+  }
+
+  // to find whether the cell with the given coordinates is inside the maze and has a wall
+  // on its right that is not on the border
+  boolean hasInnerRightWall(int x, int y) {
+    return x >= 0 && x < this.walls.cols - 1 && y >= 0 && y < this.walls.rows
+        && this.walls.hasRightWall(y * this.walls.cols + x);
+  }
+
+  // to find whether the cell with the given coordinates is inside the maze and has a wall
+  // below it that is not on the border
+  boolean hasInnerBottomWall(int x, int y) {
+    return x >= 0 && x < this.walls.cols && y >= 0 && y < this.walls.rows - 1
+        && this.walls.hasBottomWall(y * this.walls.cols + x);
+  }
+
+  // to find the column of the view at the middle of the given column of cells
+  int screenX(int x) {
+    return x / this.blockSize * this.cellSize + this.cellSize / 2 - this.left;
+  }
+
+  // to find the row of the view at the middle of the given row of cells
+  int screenY(int y) {
+    return y / this.blockSize * this.cellSize + this.cellSize / 2 - this.top;
+  }
+
+  // EFFECT: to zoom in one step around the middle of the view, halving the blocks of the
+  // overview first and then doubling the size of a cell up to MAX_CELL_SIZE
+  void zoomIn() {
+    if (this.blockSize > 1) {
+      this.zoomTo(this.cellSize, this.blockSize / 2);
+    } else if (this.cellSize * 2 <= MAX_CELL_SIZE) {
+      this.zoomTo(this.cellSize * 2, 1);
+    }
+  }
+
+  // EFFECT: to zoom out one step around the middle of the view, halving the size of a cell
+  // down to a pixel and then doubling the blocks of the overview until one block holds the
+  // whole maze
+  void zoomOut() {
+    if (this.cellSize > 1) {
+      this.zoomTo(this.cellSize / 2, this.blockSize);
+    } else if (this.blockSize < Math.max(this.walls.cols, this.walls.rows)) {
+      this.zoomTo(this.cellSize, this.blockSize * 2);
+    }
+  }
+
+  // EFFECT: to change the zoom to the given sizes, keeping the cell at the middle of the
+  // view in the middle
+  void zoomTo(int cellSize, int blockSize) {
+    double middleX = (this.left + this.raster.width / 2.0) * this.blockSize / this.cellSize;
+    double middleY = (this.top + this.raster.height / 2.0) * this.blockSize / this.cellSize;
+    this.cellSize = cellSize;
+    this.blockSize = blockSize;
+    this.stale = true;
+    this.moveTo((int) (middleX * cellSize / blockSize - this.raster.width / 2.0),
+        (int) (middleY * cellSize / blockSize - this.raster.height / 2.0));
+  }
+
+  // EFFECT: to move the view by the given number of pixels
+  void pan(int dx, int dy) {
+    this.moveTo(this.left + dx, this.top + dy);
+  }
+
+  // EFFECT: to move the view so the given cell is in it, if it is not already
+  void show(Cell cell) {
+    int x = this.screenX(cell.x);
+    int y = this.screenY(cell.y);
+    if (x < 0 || y < 0 || x >= this.raster.width || y >= this.raster.height) {
+      this.pan(x - this.raster.width / 2, y - this.raster.height / 2);
+    }
+  }
+
+  // EFFECT: to move the top left corner of the view to the given pixel of the zoomed maze,
+  // kept inside the maze, and have the view painted again if it moved
+  void moveTo(int left, int top) {
+    int width = (this.walls.cols + this.blockSize - 1) / this.blockSize * this.cellSize + 1;
+    int height = (this.walls.rows + this.blockSize - 1) / this.blockSize * this.cellSize + 1;
+    left = Math.max(0, Math.min(left, width - this.raster.width));
+    top = Math.max(0, Math.min(top, height - this.raster.height));
+    this.stale = this.stale || left != this.left || top != this.top;
+    this.left = left;
+    this.top = top;
+  }
+}
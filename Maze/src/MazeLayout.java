@@ -0,0 +1,19 @@
+// to represent a finished maze: the size, seed and bias it was generated from and the
+// walls left standing once its spanning tree was complete
+// nothing writes to the walls of a layout once it is built, so a layout can be shared
+// between threads and worlds
+final class MazeLayout {
+  final int rows;
+  final int cols;
+  final long seed;
+  final String bias;
+  final WallGrid walls;
+
+  MazeLayout(int rows, int cols, long seed, String bias, WallGrid walls) {
+    this.rows = rows;
+    this.cols = cols;
+    this.seed = seed;
+    this.bias = bias;
+    this.walls = walls;
+  }
+}
@@ -0,0 +1,127 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+// to keep the numbers that show where the world spends its time: the nanoseconds spent
+// building, searching, animating the path and drawing, and the bytes allocated between
+// two frames
+// the counters of the union-find and of the search live in those objects so their hot
+// loops only bump a field, this class reads them when a snapshot is asked for
+class MazeMetrics {
+  // the names of the numbers of a snapshot, in the order values lists them
+  static final String[] NAMES = {"generateNanos", "searchNanos", "pathNanos", "renderNanos",
+    "lastRenderNanos", "frames", "unionFinds", "unionFindHops", "unions", "nodesExpanded",
+    "frontierHighWater", "pathLength", "frameBytes", "maxFrameBytes"};
+
+  long generateNanos; // the time spent knocking down walls, including drawing the edges
+  long searchNanos; // the time spent visiting cells
+  long pathNanos; // the time spent animating the path back from the end
+  long renderNanos; // the time spent in makeScene
+  long lastRenderNanos; // the time the last frame took in makeScene
+  long frames; // the number of frames drawn
+  long frameBytes; // the bytes allocated by the world's thread between the last two frames
+  long maxFrameBytes; // the most bytes allocated between any two frames
+  long allocatedMark; // the bytes the thread had allocated at the last frame, -1 if unknown
+
+  MazeMetrics() {
+    this.reset();
+  }
+
+  // EFFECT: to start every number over, for a new maze
+  void reset() {
+    this.generateNanos = 0;
+    this.searchNanos = 0;
+    this.pathNanos = 0;
+    this.renderNanos = 0;
+    this.lastRenderNanos = 0;
+    this.frames = 0;
+    this.frameBytes = 0;
+    this.maxFrameBytes = 0;
+    this.allocatedMark = MazeMetrics.allocatedBytes();
+  }
+
+  // to find how many bytes the current thread has allocated since it started
+  // returns -1 if the virtual machine cannot count them
+  static long allocatedBytes() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean counting = (com.sun.management.ThreadMXBean) threads;
+      if (counting.isThreadAllocatedMemorySupported()
+          && counting.isThreadAllocatedMemoryEnabled()) {
+        return counting.getCurrentThreadAllocatedBytes();
+      }
+    }
+    return -1;
+  }
+
+  // EFFECT: to record a frame that took the given nanoseconds to draw, and the bytes
+  // allocated since the frame before it
+  void frame(long nanos) {
+    this.frames++;
+    this.renderNanos += nanos;
+    this.lastRenderNanos = nanos;
+    long allocated = MazeMetrics.allocatedBytes();
+    if (allocated >= 0 && this.allocatedMark >= 0) {
+      this.frameBytes = allocated - this.allocatedMark;
+      this.maxFrameBytes = Math.max(this.maxFrameBytes, this.frameBytes);
+    }
+    this.allocatedMark = allocated;
+  }
+
+  // to list the numbers of a snapshot in the order of NAMES, with the counters of the
+  // given union-find and search, either of which may be null
+  long[] values(UnionFind sets, ASolver solver) {
+    long[] values = this.values(0, 0, 0, 0, 0, 0);
+    if (sets != null) {
+      values[6] = sets.finds;
+      values[7] = sets.hops;
+      values[8] = sets.unions;
+    }
+    if (solver != null) {
+      values[9] = solver.visitedCount;
+      values[10] = solver.maxFrontier;
+      values[11] = solver.pathLength();
+    }
+    return values;
+  }
+
+  // to list the numbers of a snapshot in the order of NAMES, with the given counters of a
+  // union-find and a search, for counters that were copied out of them by a MazeWorker
+  long[] values(long finds, long hops, long unions, long expanded, long frontier,
+      long pathLength) {
+    long[] values = {this.generateNanos, this.searchNanos, this.pathNanos, this.renderNanos,
+      this.lastRenderNanos, this.frames, finds, hops, unions, expanded, frontier, pathLength,
+      this.frameBytes, this.maxFrameBytes};
+    return values;
+  }
+
+  // to write a snapshot as a flat json object, one number for every name
+  String toJson(UnionFind sets, ASolver solver) {
+    return this.toJson(this.values(sets, solver));
+  }
+
+  // to write the given numbers, in the order of NAMES, as a flat json object
+  String toJson(long[] values) {
+    StringBuilder json = new StringBuilder("{");
+    for (int i = 0; i < NAMES.length; i++) {
+      if (i > 0) {
+        json.append(", ");
+      }
+      json.append('"').append(NAMES[i]).append("\": ").append(values[i]);
+    }
+    return json.append('}').toString();
+  }
+
+  // to write a snapshot as one "name: value" line for every name, for the overlay
+  String[] lines(UnionFind sets, ASolver solver) {
+    return this.lines(this.values(sets, solver));
+  }
+
+  // to write the given numbers, in the order of NAMES, as one "name: value" line each
+  String[] lines(long[] values) {
+    String[] lines = new String[NAMES.length];
+    for (int i = 0; i < NAMES.length; i++) {
+      lines[i] = NAMES[i] + ": " + values[i];
+    }
+    return lines;
+  }
+}
@@ -0,0 +1,40 @@
+// to represent how far a MazeWorker had got with its job at one moment: the edges its
+// generator had added and the counters of its union-find while it builds, and the index
+// of the maze once it is built; the cells its search had visited, its biggest frontier
+// and, once the search is over, its path
+// nothing in a snapshot changes once it is published, and the logs it points into only
+// ever grow past the counts it holds, so the world reads a snapshot and the first counts
+// of its logs without a lock while the worker goes on writing past them
+final class MazeSnapshot {
+  final int edges; // the edges added so far, the first ones of edgeLog
+  final int[] edgeLog; // the edges in the order they were added, null while searching
+  final long finds; // the calls to find of the union-find of the generator
+  final long hops; // the steps up a parent taken by those calls
+  final long unions; // the sets the union-find merged
+  final int visited; // the cells visited so far, the first ones of visitLog
+  final int[] visitLog; // the cells in the order they were visited, null while building
+  final int maxFrontier; // the most cells that waited in the frontier of the search
+  final int[] path; // the cells from the goal back to the start, empty until it is found
+  final PathIndex exitIndex; // the built maze hung from its exit, null until it is built
+  // the worker hangs its next maze in the same index, so the world lets go of the index
+  // before it has the worker build another maze
+  final boolean done; // whether the job is over, nothing is published after it
+  final long nanos; // the time the worker has spent on the job
+
+  MazeSnapshot(int edges, int[] edgeLog, long finds, long hops, long unions, int visited,
+      int[] visitLog, int maxFrontier, int[] path, PathIndex exitIndex, boolean done,
+      long nanos) {
+    this.edges = edges;
+    this.edgeLog = edgeLog;
+    this.finds = finds;
+    this.hops = hops;
+    this.unions = unions;
+    this.visited = visited;
+    this.visitLog = visitLog;
+    this.maxFrontier = maxFrontier;
+    this.path = path;
+    this.exitIndex = exitIndex;
+    this.done = done;
+    this.nanos = nanos;
+  }
+}
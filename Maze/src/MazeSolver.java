@@ -0,0 +1,80 @@
+// to search the passages of a maze for a path from a start cell to a goal cell, either
+// breadth first or depth first
+// a cell is marked in seen the moment it enters the frontier, so it enters at most once
+// and a plain array is big enough for the frontier whether it is used as a queue or as
+// a stack
+class MazeSolver extends ASolver {
+  boolean depthFirst; // true to use the frontier as a stack, false to use it as a queue
+  int[] frontier; // the cells waiting to be visited, between head and tail
+  int head; // where the next cell leaves the frontier when it is a queue
+  int tail; // where the next cell enters the frontier
+
+  MazeSolver(AWallGrid walls, int start, int goal, boolean depthFirst) {
+    super(walls, start, goal);
+    this.depthFirst = depthFirst;
+    this.frontier = new int[walls.cellCount()];
+    this.restart(0);
+  }
+
+  // EFFECT: to start the search over from the start, with only the start in the frontier
+  void restart(long seed) {
+    super.restart(seed);
+    this.head = 0;
+    this.tail = 0;
+    this.push(this.start, this.start);
+  }
+
+  // to name the search for the counters on the screen
+  String name() {
+    if (this.depthFirst) {
+      return "DFS";
+    } else {
+      return "BFS";
+    }
+  }
+
+  // EFFECT: to record that the given cell was reached from the given parent and add it
+  // to the frontier
+  void push(int cell, int from) {
+    this.seen.set(cell);
+    this.parent[cell] = from;
+    this.frontier[this.tail] = cell;
+    this.tail++;
+    this.noteFrontier(this.tail - this.head);
+  }
+
+  // to find whether the search is over, because the goal was found or there is
+  // nothing left to visit
+  boolean isDone() {
+    return this.found || this.head == this.tail;
+  }
+
+  // EFFECT: to visit the next cell of the frontier and add the cells it has passages to
+  // that have not been seen yet
+  // returns the visited cell, or -1 if the search is already over
+  int step() {
+    if (this.isDone()) {
+      return -1;
+    }
+    int next;
+    if (this.depthFirst) {
+      this.tail--;
+      next = this.frontier[this.tail];
+    } else {
+      next = this.frontier[this.head];
+      this.head++;
+    }
+    this.visit(next);
+    if (next == this.goal) {
+      this.found = true;
+    } else {
+      int count = this.walls.neighbors(next, this.around);
+      for (int i = 0; i < count; i++) {
+        if (!this.seen.get(this.around[i])) {
+          this.push(this.around[i], next);
+        }
+      }
+    }
+    return next;
+  }
+}
@@ -0,0 +1,168 @@
+// to build and search a maze on a thread of its own, so the world's thread only takes in
+// what the worker has done and draws it, and how fast the maze is built and searched no
+// longer depends on how often a frame is drawn
+// the worker builds with a generator of its own, whose walls the world never reads, and
+// logs every edge it adds; the world knocks the same walls down in its own grid as it
+// takes them in. a search is handed over whole: the world leaves it alone until the
+// worker has published that it is done, and its visitOrder is the log of its cells
+// a finished maze is also hung from its exit by the worker, for the hint of the manual mode
+// the worker publishes a MazeSnapshot at most every publishNanos and once at the end of a
+// job, through a volatile field, so the world only ever reads one field to see it
+class MazeWorker {
+  static final int CHECK_EVERY = 1024; // the steps between two looks at the clock and at
+  // whether the job was stopped
+  static final long PUBLISH_NANOS = 4000000; // the time between two snapshots by default,
+  // a quarter of a frame at 60 hertz
+
+  int rows;
+  int cols;
+  long publishNanos; // the least time between two snapshots during a job
+  MazeGenerator generator; // the generator of the worker, made by the first build and reset
+  // for every later one
+  int[] edgeLog; // the edges the generator added, in the order it added them
+  PathIndex exitIndex; // the maze of the generator hung from its exit once it is built,
+  // made by the first build and hung again by every later one, once the world no longer
+  // holds it
+  ASolver search; // the search handed over to the worker
+  Thread thread; // the thread doing the current job, null when there is none
+  volatile boolean stopped; // whether the current job should end before it is done
+  volatile MazeSnapshot latest; // the last snapshot published, null before the first job
+
+  MazeWorker(int rows, int cols, long publishNanos) {
+    this.rows = rows;
+    this.cols = cols;
+    this.publishNanos = publishNanos;
+    this.edgeLog = new int[Math.max(0, rows * cols - 1)];
+  }
+
+  // EFFECT: to stop the current job and start building the maze of the given seed and bias
+  // on a new thread
+  // returns the snapshot of the build before its first step, taken before the thread
+  // starts, since by the time the caller reads latest the worker may be past it
+  MazeSnapshot build(long seed, String bias) {
+    this.stop();
+    if (this.generator == null) {
+      this.generator = new MazeGenerator(this.rows, this.cols, seed, bias);
+    } else {
+      this.generator.reset(seed, bias);
+    }
+    MazeSnapshot first = this.buildSnapshot(false, 0);
+    this.latest = first;
+    this.start(this::runBuild);
+    return first;
+  }
+
+  // EFFECT: to stop the current job and go on with the given search on a new thread, from
+  // wherever it has got to
+  // returns the snapshot of the search where it was handed over, taken before the thread
+  // starts
+  MazeSnapshot search(ASolver search) {
+    this.stop();
+    this.search = search;
+    MazeSnapshot first = this.searchSnapshot(false, 0);
+    this.latest = first;
+    this.start(this::runSearch);
+    return first;
+  }
+
+  // EFFECT: to run the given job on a new thread that does not keep the program running
+  void start(Runnable job) {
+    this.thread = new Thread(job, "maze-worker");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  // EFFECT: to end the current job where it is and wait for its thread, the last snapshot
+  // it published stays
+  void stop() {
+    if (this.thread != null) {
+      this.stopped = true;
+      this.await();
+      this.stopped = false;
+    }
+  }
+
+  // EFFECT: to wait until the current job is over, after which everything the worker
+  // wrote is seen by the waiting thread
+  // an interrupt does not cut the wait short, it is passed on once the job is over
+  void await() {
+    boolean interrupted = false;
+    while (this.thread != null) {
+      try {
+        this.thread.join();
+        this.thread = null;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // EFFECT: to add the edges of the maze one at a time, logging each one, until the maze is
+  // built or the job is stopped
+  void runBuild() {
+    long begin = System.nanoTime();
+    long published = begin;
+    while (!this.generator.isDone()) {
+      int edge = this.generator.step();
+      this.edgeLog[this.generator.added - 1] = edge;
+      if (this.generator.added % CHECK_EVERY == 0) {
+        if (this.stopped) {
+          return;
+        }
+        long now = System.nanoTime();
+        if (now - published >= this.publishNanos) {
+          this.latest = this.buildSnapshot(false, now - begin);
+          published = now;
+        }
+      }
+    }
+    if (this.exitIndex == null) {
+      this.exitIndex = new PathIndex(this.generator.walls, this.rows * this.cols - 1);
+    } else {
+      this.exitIndex.build();
+    }
+    this.latest = this.buildSnapshot(true, System.nanoTime() - begin);
+  }
+
+  // EFFECT: to visit the cells of the search one at a time until it is over or the job is
+  // stopped
+  void runSearch() {
+    long begin = System.nanoTime();
+    long published = begin;
+    int steps = 0;
+    while (!this.search.isDone()) {
+      this.search.step();
+      steps++;
+      if (steps % CHECK_EVERY == 0) {
+        if (this.stopped) {
+          return;
+        }
+        long now = System.nanoTime();
+        if (now - published >= this.publishNanos) {
+          this.latest = this.searchSnapshot(false, now - begin);
+          published = now;
+        }
+      }
+    }
+    this.latest = this.searchSnapshot(true, System.nanoTime() - begin);
+  }
+
+  // to take a snapshot of the build after the given nanoseconds of work, with the index
+  // of the maze once it is done
+  MazeSnapshot buildSnapshot(boolean done, long nanos) {
+    UnionFind sets = this.generator.sets;
+    return new MazeSnapshot(this.generator.added, this.edgeLog, sets.finds, sets.hops,
+        sets.unions, 0, null, 0, new int[0], done ? this.exitIndex : null, done, nanos);
+  }
+
+  // to take a snapshot of the search after the given nanoseconds of work, with its path
+  // once it is done
+  MazeSnapshot searchSnapshot(boolean done, long nanos) {
+    int[] path = done ? this.search.path() : new int[0];
+    return new MazeSnapshot(0, null, 0, 0, 0, this.search.visitedCount,
+        this.search.visitOrder, this.search.maxFrontier, path, null, done, nanos);
+  }
+}
@@ -0,0 +1,97 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+// to represent an array of longs outside the java heap, indexed by a long so it can hold
+// more than two billion of them
+// the longs live in direct byte buffers of 2 ^ chunkBits longs each, made the first time
+// a long of theirs is written, so a chunk that was never written reads as zeros and costs
+// nothing, and the garbage collector only ever sees the handful of buffer objects
+// a chunk that is no longer needed can be let go early, which lets a queue that only
+// moves forward keep just the part between its head and its tail
+// the virtual machine caps direct memory at the size of the heap unless it is run with a
+// bigger -XX:MaxDirectMemorySize
+// the chunks can also be mapped from a file, then they are backed by the page cache
+// instead of direct memory and only the pages that are read are ever loaded
+class OffHeapLongs {
+  static final int CHUNK_BITS = 24; // 16 million longs, 128 megabytes, to a chunk by default
+
+  long length;
+  int chunkBits; // the longs of a chunk are 2 ^ chunkBits
+  long chunkMask; // the bits of an index that pick the long inside its chunk
+  ByteBuffer[] chunks; // the chunks in order, null for a chunk that holds only zeros
+
+  OffHeapLongs(long length, int chunkBits) {
+    if (length < 0 || chunkBits < 0 || chunkBits > 27) {
+      throw new IllegalArgumentException("An off heap array needs a length of at least 0 and "
+          + "chunks of 2 ^ 0 to 2 ^ 27 longs: " + length + " longs in chunks of 2 ^ "
+          + chunkBits);
+    }
+    this.length = length;
+    this.chunkBits = chunkBits;
+    this.chunkMask = (1L << chunkBits) - 1;
+    this.chunks = new ByteBuffer[(int) ((length + this.chunkMask) >>> chunkBits)];
+  }
+
+  // to map the given number of little endian longs of the given file, starting at the
+  // given byte offset, read only and a chunk of 2 ^ chunkBits longs at a time
+  // nothing is read until a long is asked for, so mapping costs the same for any length
+  static OffHeapLongs map(FileChannel file, long offset, long length, int chunkBits)
+      throws IOException {
+    OffHeapLongs longs = new OffHeapLongs(length, chunkBits);
+    for (int i = 0; i < longs.chunks.length; i++) {
+      long first = (long) i << chunkBits;
+      long count = Math.min(longs.chunkMask + 1, length - first);
+      longs.chunks[i] = file.map(FileChannel.MapMode.READ_ONLY, offset + 8 * first, 8 * count)
+          .order(ByteOrder.LITTLE_ENDIAN);
+    }
+    return longs;
+  }
+
+  // to find the long at the given index
+  long get(long index) {
+    ByteBuffer chunk = this.chunks[(int) (index >>> this.chunkBits)];
+    if (chunk == null) {
+      return 0;
+    }
+    return chunk.getLong((int) (index & this.chunkMask) << 3);
+  }
+
+  // EFFECT: to set the long at the given index to the given value, making its chunk if
+  // it is not there yet
+  void set(long index, long value) {
+    int i = (int) (index >>> this.chunkBits);
+    ByteBuffer chunk = this.chunks[i];
+    if (chunk == null) {
+      chunk = ByteBuffer.allocateDirect(8 << this.chunkBits).order(ByteOrder.nativeOrder());
+      this.chunks[i] = chunk;
+    }
+    chunk.putLong((int) (index & this.chunkMask) << 3, value);
+  }
+
+  // EFFECT: to set every bit of the given mask in the long at the given index
+  void or(long index, long mask) {
+    this.set(index, this.get(index) | mask);
+  }
+
+  // EFFECT: to let go of every chunk that lies wholly below the given index, its longs
+  // read as zeros again
+  void release(long below) {
+    long end = Math.min(below >>> this.chunkBits, this.chunks.length);
+    for (int i = 0; i < end; i++) {
+      this.chunks[i] = null;
+    }
+  }
+
+  // to count the bytes of the chunks that are made
+  long byteSize() {
+    long size = 0;
+    for (int i = 0; i < this.chunks.length; i++) {
+      if (this.chunks[i] != null) {
+        size += this.chunks[i].capacity();
+      }
+    }
+    return size;
+  }
+}
@@ -0,0 +1,61 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+// to build and search a maze too big for the java heap from the command line
+//   java -Xmx256m -XX:MaxDirectMemorySize=48g OffHeapMaze rows cols seed bias solver [file]
+//   java -Xmx256m -XX:MaxDirectMemorySize=48g OffHeapMaze file solver
+// the maze is built a row at a time by eller's algorithm straight into an off heap grid,
+// so the heap only ever holds one row, then searched from the top left cell to the bottom
+// right one breadth first ("b") or depth first ("d") with the marks and the frontier off
+// the heap too
+// given a file, the maze and its path are saved to it as a MazeFile; given only a file,
+// the maze saved in it is mapped and searched instead of built
+class OffHeapMaze {
+  public static void main(String[] args) throws IOException {
+    String solver = args.length > 0 ? args[args.length - 1] : "";
+    if (args.length == 6) {
+      solver = args[4];
+    }
+    if ((args.length != 2 && args.length != 5 && args.length != 6)
+        || (!solver.equals("b") && !solver.equals("d"))) {
+      throw new IllegalArgumentException(
+          "Usage: OffHeapMaze rows cols seed bias b|d [file] or OffHeapMaze file b|d");
+    }
+    long begin = System.nanoTime();
+    OffHeapWallGrid walls;
+    long seed;
+    String bias;
+    if (args.length == 2) {
+      MazeFile file = MazeFile.open(Paths.get(args[0]));
+      walls = file.offHeapWalls();
+      seed = file.seed;
+      bias = file.bias;
+    } else {
+      walls = new OffHeapWallGrid(Long.parseLong(args[0]), Integer.parseInt(args[1]),
+          OffHeapLongs.CHUNK_BITS);
+      seed = Long.parseLong(args[2]);
+      bias = args[3];
+      new EllerGenerator(walls.cols, seed, bias).fill(walls);
+    }
+    long built = System.nanoTime();
+    OffHeapSolver search = new OffHeapSolver(walls, 0, walls.cellCount() - 1,
+        solver.equals("d"), OffHeapLongs.CHUNK_BITS);
+    search.solve();
+    long solved = System.nanoTime();
+    System.out.println(walls.rows + "x" + walls.cols + ": "
+        + (args.length == 2 ? "opened" : "built") + " in " + (built - begin) / 1000000
+        + " ms, searched in " + (solved - built) / 1000000 + " ms, " + search.visitedCount
+        + " cells visited, path of " + search.pathLength() + " cells, "
+        + (walls.open.byteSize() + search.marks.byteSize() + search.frontier.byteSize())
+        + " bytes off the heap");
+    if (args.length == 6) {
+      try (OutputStream out = Files.newOutputStream(Paths.get(args[5]))) {
+        MazeFile.save(walls, seed, bias, search, out);
+      }
+      System.out.println("saved in " + (System.nanoTime() - solved) / 1000000 + " ms to "
+          + args[5]);
+    }
+  }
+}
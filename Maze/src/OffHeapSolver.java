@@ -0,0 +1,146 @@
+// to search an off heap maze for a path from a start cell to a goal cell, either breadth
+// first or depth first, keeping everything that grows with the maze off the heap too
+// instead of the index of its parent, every cell keeps four bits: 0 while it is unseen,
+// otherwise the side its parent is on, or START for the start, so the marks of a maze take
+// half a byte a cell and the path is followed back from the goal one side at a time
+// the frontier is an OffHeapLongs used as a queue or a stack like in MazeSolver; a queue
+// lets go of its chunks once its head has passed them, so it only holds about as many
+// chunks as there are cells waiting
+class OffHeapSolver {
+  static final int UP = 1; // the parent is the cell above
+  static final int LEFT = 2; // the parent is the cell on the left
+  static final int RIGHT = 3; // the parent is the cell on the right
+  static final int DOWN = 4; // the parent is the cell below
+  static final int START = 5; // the cell is the start, its own parent
+
+  OffHeapWallGrid walls;
+  long start;
+  long goal;
+  boolean depthFirst; // true to use the frontier as a stack, false to use it as a queue
+  OffHeapLongs marks; // the four bits of cell i are bits 4i to 4i + 3, 16 cells to a long
+  OffHeapLongs frontier; // the cells waiting to be visited, between head and tail
+  long head; // where the next cell leaves the frontier when it is a queue
+  long tail; // where the next cell enters the frontier
+  long visitedCount; // the number of cells visited so far
+  boolean found; // whether the goal has been reached
+  long[] around = new long[4]; // the cells a cell has passages to, filled by walls.neighbors
+
+  OffHeapSolver(OffHeapWallGrid walls, long start, long goal, boolean depthFirst,
+      int chunkBits) {
+    this.walls = walls;
+    this.start = start;
+    this.goal = goal;
+    this.depthFirst = depthFirst;
+    this.marks = new OffHeapLongs((walls.cellCount() + 15) >>> 4, chunkBits);
+    this.frontier = new OffHeapLongs(walls.cellCount(), chunkBits);
+    this.head = 0;
+    this.tail = 0;
+    this.visitedCount = 0;
+    this.found = false;
+    this.push(start, START);
+  }
+
+  // to find the mark of the given cell, 0 if it has not been seen
+  int mark(long cell) {
+    return (int) (this.marks.get(cell >>> 4) >>> (4 * cell)) & 15;
+  }
+
+  // EFFECT: to mark the given cell as seen from its parent on the given side and add it to
+  // the frontier
+  void push(long cell, int side) {
+    this.marks.or(cell >>> 4, (long) side << (4 * cell));
+    this.frontier.set(this.tail, cell);
+    this.tail++;
+  }
+
+  // to find whether the search is over, because the goal was found or there is
+  // nothing left to visit
+  boolean isDone() {
+    return this.found || this.head == this.tail;
+  }
+
+  // EFFECT: to visit the next cell of the frontier and add the cells it has passages to
+  // that have not been seen yet
+  // returns the visited cell, or -1 if the search is already over
+  long step() {
+    if (this.isDone()) {
+      return -1;
+    }
+    long next;
+    if (this.depthFirst) {
+      this.tail--;
+      next = this.frontier.get(this.tail);
+    } else {
+      next = this.frontier.get(this.head);
+      this.head++;
+      if ((this.head & this.frontier.chunkMask) == 0) {
+        this.frontier.release(this.head);
+      }
+    }
+    this.visitedCount++;
+    if (next == this.goal) {
+      this.found = true;
+    } else {
+      int count = this.walls.neighbors(next, this.around);
+      for (int i = 0; i < count; i++) {
+        long cell = this.around[i];
+        if (this.mark(cell) == 0) {
+          this.push(cell, OffHeapSolver.sideOf(next, cell, this.walls.cols));
+        }
+      }
+    }
+    return next;
+  }
+
+  // EFFECT: to run the search to the end
+  // returns whether the goal was found
+  boolean solve() {
+    while (this.step() != -1) {
+      // every call visits one cell
+    }
+    return this.found;
+  }
+
+  // to find the side the given parent is on, seen from the given cell next to it in a
+  // grid of the given number of columns
+  static int sideOf(long parent, long cell, int cols) {
+    if (parent == cell - cols) {
+      return UP;
+    } else if (parent == cell - 1) {
+      return LEFT;
+    } else if (parent == cell + 1) {
+      return RIGHT;
+    } else {
+      return DOWN;
+    }
+  }
+
+  // to find the parent of the given seen cell, the start is its own parent
+  long parent(long cell) {
+    int side = this.mark(cell);
+    if (side == UP) {
+      return cell - this.walls.cols;
+    } else if (side == LEFT) {
+      return cell - 1;
+    } else if (side == RIGHT) {
+      return cell + 1;
+    } else if (side == DOWN) {
+      return cell + this.walls.cols;
+    } else {
+      return cell;
+    }
+  }
+
+  // to count the cells on the path from the start to the goal, both included
+  // returns 0 if the goal has not been found
+  long pathLength() {
+    if (!this.found) {
+      return 0;
+    }
+    long length = 1;
+    for (long cell = this.goal; cell != this.start; cell = this.parent(cell)) {
+      length++;
+    }
+    return length;
+  }
+}
@@ -0,0 +1,86 @@
+// to represent the walls of a maze too big for the java heap, with two bits per cell like
+// WallGrid but kept in an OffHeapLongs and addressed by long cells
+// the bits are the other way around from WallGrid: a set bit means the wall is down, so
+// a chunk that was never written is a block of standing walls and costs no memory
+// mazes this big are built a row at a time by EllerGenerator, which hands over its rows
+// in the layout WallGrid uses
+class OffHeapWallGrid {
+  long rows;
+  int cols;
+  OffHeapLongs open; // the open bits of cell i are bits 2i and 2i + 1, 32 cells to a long
+
+  OffHeapWallGrid(long rows, int cols, int chunkBits) {
+    this(rows, cols, new OffHeapLongs(OffHeapWallGrid.words(rows, cols), chunkBits));
+  }
+
+  // to wrap the given open bits of a grid of the given size, like the ones of a MazeFile
+  OffHeapWallGrid(long rows, int cols, OffHeapLongs open) {
+    this.rows = rows;
+    this.cols = cols;
+    this.open = open;
+  }
+
+  // to count the longs that hold the wall bits of a grid of the given size
+  static long words(long rows, int cols) {
+    return (2 * rows * cols + 63) >>> 6;
+  }
+
+  // to count the cells in the grid
+  long cellCount() {
+    return this.rows * this.cols;
+  }
+
+  // to find whether the wall on the right of the given cell is standing
+  boolean hasRightWall(long cell) {
+    return (this.open.get(cell >>> 5) & (1L << (2 * cell))) == 0;
+  }
+
+  // to find whether the wall below the given cell is standing
+  boolean hasBottomWall(long cell) {
+    return (this.open.get(cell >>> 5) & (1L << (2 * cell + 1))) == 0;
+  }
+
+  // EFFECT: to knock down the walls of the given row that are down in the given row of
+  // wall bits, laid out the way WallGrid lays out a row that starts on a long
+  // the bits past the last cell of the given row must be set, they stand for walls and
+  // leave the next row alone
+  void openRow(long y, long[] rowBits) {
+    long first = 2 * y * this.cols;
+    int shift = (int) (first & 63);
+    long words = this.open.length;
+    for (int i = 0; i < rowBits.length; i++) {
+      long down = ~rowBits[i];
+      long word = (first >>> 6) + i;
+      if (down != 0 && word < words) {
+        this.open.or(word, down << shift);
+        if (shift != 0 && word + 1 < words) {
+          this.open.or(word + 1, down >>> (64 - shift));
+        }
+      }
+    }
+  }
+
+  // EFFECT: to write the cells that the given cell has a passage to into the given array,
+  // in the order up, left, right, down
+  // returns the number of cells written, at most 4
+  int neighbors(long cell, long[] out) {
+    int count = 0;
+    if (cell >= this.cols && !this.hasBottomWall(cell - this.cols)) {
+      out[count] = cell - this.cols;
+      count++;
+    }
+    if (cell % this.cols != 0 && !this.hasRightWall(cell - 1)) {
+      out[count] = cell - 1;
+      count++;
+    }
+    if (cell % this.cols != this.cols - 1 && !this.hasRightWall(cell)) {
+      out[count] = cell + 1;
+      count++;
+    }
+    if (cell < this.cellCount() - this.cols && !this.hasBottomWall(cell)) {
+      out[count] = cell + this.cols;
+      count++;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,114 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// to build very large mazes on every core at once: the grid is cut into bands of whole rows,
+// every band is built as a maze of its own by a MazeGenerator with the same bias, and then
+// the bands are joined by opening one passage through every seam between two bands
+// a band spans its rows, so the only edges left between bands are the vertical edges of
+// a seam and kruskal's would open exactly one of them, the first in a random order
+// every band starts on a long of the wall bits, so bands built at the same time never
+// write to the same long, and a band's seed depends only on the maze seed and its place,
+// so the same seed builds the same maze whatever the number of threads
+class ParallelMazeGenerator {
+  static final int BAND_CELLS = 1 << 22; // the most cells in a band, unless a row is longer
+
+  // to build the whole maze with the given size, seed and bias on the common pool
+  static MazeLayout generate(int rows, int cols, long seed, String bias) {
+    return ParallelMazeGenerator.generate(rows, cols, seed, bias,
+        ParallelMazeGenerator.bandRows(rows, cols), ForkJoinPool.commonPool());
+  }
+
+  // to build the whole maze with the given size, seed and bias out of bands of the given
+  // number of rows, on the given pool
+  static MazeLayout generate(int rows, int cols, long seed, String bias, int bandRows,
+      ForkJoinPool pool) {
+    if (bandRows < rows && (long) bandRows * cols % 32 != 0) {
+      throw new IllegalArgumentException("The cells of a band must fill whole longs: "
+          + bandRows + " rows of " + cols + " cells");
+    }
+    WallGrid walls = new WallGrid(rows, cols);
+    int bands = (rows + bandRows - 1) / bandRows;
+    pool.invoke(new BandTask(walls, seed, bias, bandRows, 0, bands));
+    for (int seam = 1; seam < bands; seam++) {
+      int column = (int) Long.remainderUnsigned(
+          RandomPermutation.mix(ParallelMazeGenerator.bandSeed(seed, seam) ^ cols), cols);
+      walls.removeBottomWall((seam * bandRows - 1) * cols + column);
+    }
+    return new MazeLayout(rows, cols, seed, bias, walls);
+  }
+
+  // to find how many rows go into a band of a maze of the given size: as many as fit in
+  // BAND_CELLS cells, but always a number of rows whose cells fill whole longs of wall bits
+  static int bandRows(int rows, int cols) {
+    int step = 32 / ParallelMazeGenerator.gcd(cols, 32);
+    int bandRows = Math.max(1, BAND_CELLS / cols) / step * step;
+    return Math.min(Math.max(bandRows, step), rows);
+  }
+
+  // to find the greatest common divisor of the two given numbers
+  static int gcd(int a, int b) {
+    while (b != 0) {
+      int rest = a % b;
+      a = b;
+      b = rest;
+    }
+    return a;
+  }
+
+  // to find the seed of the given band, the first band keeps the maze seed so a maze of one
+  // band is the maze MazeGenerator builds from the same seed
+  static long bandSeed(long seed, int band) {
+    if (band == 0) {
+      return seed;
+    } else {
+      return RandomPermutation.mix(seed + band);
+    }
+  }
+}
+
+// to build a range of bands of a maze, splitting the range in half until a task has a
+// single band to build
+class BandTask extends RecursiveAction {
+  private static final long serialVersionUID = 1L; // a task is never serialized, a
+  // RecursiveAction only asks for one
+  WallGrid walls; // the walls of the whole maze, each band knocks down walls in its rows
+  long seed;
+  String bias;
+  int bandRows;
+  int firstBand;
+  int lastBand; // the band after the last band of the range
+
+  BandTask(WallGrid walls, long seed, String bias, int bandRows, int firstBand, int lastBand) {
+    this.walls = walls;
+    this.seed = seed;
+    this.bias = bias;
+    this.bandRows = bandRows;
+    this.firstBand = firstBand;
+    this.lastBand = lastBand;
+  }
+
+  // EFFECT: to build every band of the range
+  protected void compute() {
+    if (this.lastBand - this.firstBand == 1) {
+      this.buildBand(this.firstBand);
+    } else {
+      int middle = (this.firstBand + this.lastBand) >>> 1;
+      RecursiveAction.invokeAll(
+          new BandTask(this.walls, this.seed, this.bias, this.bandRows, this.firstBand, middle),
+          new BandTask(this.walls, this.seed, this.bias, this.bandRows, middle, this.lastBand));
+    }
+  }
+
+  // EFFECT: to build the given band as a maze of its own and copy its walls into the rows
+  // of the band, the border below the band stays up until the seams are opened
+  void buildBand(int band) {
+    int firstRow = band * this.bandRows;
+    int rows = Math.min(this.bandRows, this.walls.rows - firstRow);
+    MazeLayout layout = MazeGenerator.generate(rows, this.walls.cols,
+        ParallelMazeGenerator.bandSeed(this.seed, band), this.bias);
+    long[] bandBits = layout.walls.bits;
+    int firstWord = (int) ((2L * firstRow * this.walls.cols) >>> 6);
+    int words = Math.min(bandBits.length, this.walls.bits.length - firstWord);
+    System.arraycopy(bandBits, 0, this.walls.bits, firstWord, words);
+  }
+}
@@ -0,0 +1,138 @@
+import java.util.Arrays;
+
+// to answer questions about the path between any two cells of a finished maze without
+// searching it again: the maze is a spanning tree, so it is hung from a root cell once and
+// the path between two cells runs up from each of them to their lowest common ancestor
+// every cell keeps its parent, its depth and one jump pointer further up the tree, chosen
+// so that the jumps form a skew binary ladder: any ancestor is reached in O(log n) jumps,
+// and the whole index takes three ints per cell
+// a maze with cycles still gets an index, but its answers follow the breadth first tree
+// of the maze from the root, which is not always the shortest way between two cells
+class PathIndex {
+  AWallGrid walls;
+  int root;
+  int[] parent; // the next cell toward the root, the root is its own parent
+  int[] depth; // the number of passages between every cell and the root
+  int[] jump; // an ancestor of every cell, the root jumps to itself
+  int[] queue; // the cells in the order build reaches them
+  int[] around = new int[4]; // the cells a cell has passages to, filled by walls.neighbors
+
+  PathIndex(AWallGrid walls, int root) {
+    this.walls = walls;
+    this.root = root;
+    int cells = walls.cellCount();
+    this.parent = new int[cells];
+    this.depth = new int[cells];
+    this.jump = new int[cells];
+    this.queue = new int[cells];
+    this.build();
+  }
+
+  // EFFECT: to hang the maze from the root breadth first, so every cell is reached after its
+  // parent and its jump can be worked out from the parent's
+  // every array is made once, so hanging the walls again after they change allocates nothing
+  void build() {
+    int cells = this.walls.cellCount();
+    Arrays.fill(this.depth, -1);
+    int[] queue = this.queue;
+    int[] around = this.around;
+    int head = 0;
+    int tail = 1;
+    queue[0] = this.root;
+    this.parent[this.root] = this.root;
+    this.jump[this.root] = this.root;
+    this.depth[this.root] = 0;
+    while (head < tail) {
+      int cell = queue[head];
+      head++;
+      int count = this.walls.neighbors(cell, around);
+      for (int i = 0; i < count; i++) {
+        int next = around[i];
+        if (this.depth[next] == -1) {
+          this.depth[next] = this.depth[cell] + 1;
+          this.parent[next] = cell;
+          this.jump[next] = this.jumpFrom(cell);
+          queue[tail] = next;
+          tail++;
+        }
+      }
+    }
+    if (tail < cells) {
+      throw new IllegalArgumentException("The maze must join every cell: " + tail + " of "
+          + cells + " cells reached from " + this.root);
+    }
+  }
+
+  // to find the jump of a child of the given cell: when the jump of the cell and the jump
+  // of that jump span as many levels, the child skips both, otherwise it jumps to the cell
+  int jumpFrom(int cell) {
+    int up = this.jump[cell];
+    if (this.depth[cell] - this.depth[up] == this.depth[up] - this.depth[this.jump[up]]) {
+      return this.jump[up];
+    } else {
+      return cell;
+    }
+  }
+
+  // to find the ancestor of the given cell at the given depth, which must be no deeper
+  // than the cell
+  int ancestor(int cell, int depth) {
+    while (this.depth[cell] > depth) {
+      if (this.depth[this.jump[cell]] >= depth) {
+        cell = this.jump[cell];
+      } else {
+        cell = this.parent[cell];
+      }
+    }
+    return cell;
+  }
+
+  // to find the deepest cell that is an ancestor of both given cells
+  int lowestCommonAncestor(int a, int b) {
+    if (this.depth[a] > this.depth[b]) {
+      a = this.ancestor(a, this.depth[b]);
+    } else {
+      b = this.ancestor(b, this.depth[a]);
+    }
+    // cells at the same depth have jumps at the same depth, so the two climb in step
+    while (a != b) {
+      if (this.jump[a] != this.jump[b]) {
+        a = this.jump[a];
+        b = this.jump[b];
+      } else {
+        a = this.parent[a];
+        b = this.parent[b];
+      }
+    }
+    return a;
+  }
+
+  // to count the passages on the path between the two given cells
+  int distance(int a, int b) {
+    return this.depth[a] + this.depth[b] - 2 * this.depth[this.lowestCommonAncestor(a, b)];
+  }
+
+  // to count the cells on the path between the two given cells, both included, the way
+  // ASolver.pathLength counts them
+  int pathLength(int a, int b) {
+    return this.distance(a, b) + 1;
+  }
+
+  // to list the cells on the path from the first given cell to the second one
+  int[] path(int from, int to) {
+    int meet = this.lowestCommonAncestor(from, to);
+    int[] path = new int[this.depth[from] + this.depth[to] - 2 * this.depth[meet] + 1];
+    int i = 0;
+    for (int cell = from; cell != meet; cell = this.parent[cell]) {
+      path[i] = cell;
+      i++;
+    }
+    int j = path.length - 1;
+    for (int cell = to; cell != meet; cell = this.parent[cell]) {
+      path[j] = cell;
+      j--;
+    }
+    path[i] = meet;
+    return path;
+  }
+}
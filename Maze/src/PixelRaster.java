@@ -0,0 +1,113 @@
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+import javalib.worldimages.ComputedPixelImage;
+
+// to represent a picture as the argb pixels behind a BufferedImage, one int a pixel and
+// row after row, so a row of a rectangle is painted by one Arrays.fill and a row of
+// pixels that repeats is painted by one System.arraycopy
+// a raster of a ComputedPixelImage paints straight into the pixels of that image, so the
+// world hands javalib one finished picture a frame; a raster of its own needs no window,
+// so a maze can be painted and saved without one
+// where javalib does not let its pixels be taken, the raster paints pixels of its own and
+// show copies the ones that changed into the picture through its public methods
+class PixelRaster {
+  int width;
+  int height;
+  BufferedImage image; // the picture the pixels belong to
+  int[] pixels; // the pixel at (x, y) is pixels[y * width + x]
+  ComputedPixelImage picture; // the picture show copies the pixels into, null if they are
+  // the pixels of the picture
+  int[] shown; // the pixels as show last copied them into the picture
+
+  PixelRaster(int width, int height) {
+    this(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB));
+  }
+
+  // to paint into the pixels of the given picture, which must keep one int a pixel
+  PixelRaster(BufferedImage image) {
+    this.width = image.getWidth();
+    this.height = image.getHeight();
+    this.image = image;
+    this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+  }
+
+  // to paint into the pixels of the given javalib picture
+  // javalib keeps the BufferedImage of the picture to itself, so it is taken from its
+  // private field; a javalib without that field, or one that keeps it locked or in
+  // another kind of image, gets a raster that copies its pixels into the picture instead
+  static PixelRaster of(ComputedPixelImage picture) {
+    try {
+      Field image = ComputedPixelImage.class.getDeclaredField("image");
+      image.setAccessible(true);
+      return new PixelRaster((BufferedImage) image.get(picture));
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return PixelRaster.copying(picture);
+    }
+  }
+
+  // to paint into pixels of its own that show copies into the given javalib picture,
+  // which starts out with every pixel 0 like the raster
+  static PixelRaster copying(ComputedPixelImage picture) {
+    PixelRaster raster = new PixelRaster(picture.width, picture.height);
+    raster.picture = picture;
+    raster.shown = new int[raster.pixels.length];
+    return raster;
+  }
+
+  // EFFECT: to copy the pixels painted since the last time into the picture of a raster
+  // that has pixels of its own, a run of changed pixels of one color in a row at a time
+  // through ComputedPixelImage.setPixels
+  void show() {
+    if (this.picture != null) {
+      for (int i = 0; i < this.pixels.length; i++) {
+        int color = this.pixels[i];
+        if (color != this.shown[i]) {
+          int end = i + 1;
+          while (end % this.width != 0 && this.pixels[end] == color
+              && this.shown[end] != color) {
+            end++;
+          }
+          this.picture.setPixels(i % this.width, i / this.width, end - i, 1,
+              new Color(color, true));
+          Arrays.fill(this.shown, i, end, color);
+          i = end - 1;
+        }
+      }
+    }
+  }
+
+  // EFFECT: to paint the given rectangle, which must lie inside the picture, in the given
+  // argb color
+  void fill(int x, int y, int width, int height, int color) {
+    int start = y * this.width + x;
+    for (int row = 0; row < height; row++) {
+      Arrays.fill(this.pixels, start, start + width, color);
+      start += this.width;
+    }
+  }
+
+  // EFFECT: to paint the row of pixels with the given index like the one with the other
+  // given index
+  void copyRow(int from, int to) {
+    System.arraycopy(this.pixels, from * this.width, this.pixels, to * this.width,
+        this.width);
+  }
+
+  // to find the argb color of the pixel at the given coordinates
+  int get(int x, int y) {
+    return this.pixels[y * this.width + x];
+  }
+
+  // EFFECT: to write the picture to the given stream as a png
+  void writePng(OutputStream out) throws IOException {
+    ImageIO.write(this.image, "png", out);
+  }
+}
@@ -0,0 +1,144 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+// to write a png a few rows of pixels at a time, so a picture far bigger than memory can be
+// saved while it is painted: only one row of pixels and the chunk being filled are kept
+// the picture is 8 bit rgb; every row is filtered by subtracting the row above it, which
+// turns the many rows of a maze that repeat the one above into zeros for the deflater,
+// and the compressed bytes go out in IDAT chunks of CHUNK_BYTES as they come
+class PngWriter {
+  static final int CHUNK_BYTES = 1 << 16; // the most compressed bytes in one IDAT chunk
+  static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+  OutputStream out;
+  int width;
+  int height;
+  int written; // the rows of pixels written so far
+  Deflater deflater;
+  byte[] previous; // the bytes of the last row written, all zeros before the first row
+  byte[] current; // the filter byte and the filtered bytes of the row being written
+  byte[] chunk; // the compressed bytes waiting for the next IDAT chunk
+  int chunkFill; // the compressed bytes waiting in chunk
+  CRC32 crc;
+
+  // EFFECT: to write the signature and the header of a png of the given size to the given
+  // stream, compressed at the given level of Deflater
+  PngWriter(OutputStream out, int width, int height, int level) throws IOException {
+    if (width < 1 || height < 1 || width > (Integer.MAX_VALUE - 1) / 3) {
+      throw new IllegalArgumentException("A png needs a width of 1 to "
+          + (Integer.MAX_VALUE - 1) / 3 + " and a height of at least 1: " + width + "x"
+          + height);
+    }
+    this.out = out;
+    this.width = width;
+    this.height = height;
+    this.written = 0;
+    this.deflater = new Deflater(level);
+    this.previous = new byte[3 * width];
+    this.current = new byte[3 * width + 1];
+    this.chunk = new byte[CHUNK_BYTES];
+    this.chunkFill = 0;
+    this.crc = new CRC32();
+    out.write(SIGNATURE);
+    byte[] header = new byte[13];
+    PngWriter.putInt(header, 0, width);
+    PngWriter.putInt(header, 4, height);
+    header[8] = 8; // bits a sample
+    header[9] = 2; // rgb
+    this.writeChunk("IHDR", header, header.length);
+  }
+
+  // EFFECT: to write the given number of rows of pixels from the top of the given raster,
+  // which must be as wide as the picture, after the rows written so far
+  void writeRows(PixelRaster raster, int rows) throws IOException {
+    if (raster.width != this.width || rows > this.height - this.written) {
+      throw new IllegalArgumentException("The png is " + this.width + " pixels wide with "
+          + (this.height - this.written) + " rows left, not " + raster.width + " wide with "
+          + rows + " rows");
+    }
+    int[] pixels = raster.pixels;
+    byte[] row = this.current;
+    byte[] above = this.previous;
+    row[0] = 2; // the up filter
+    for (int y = 0; y < rows; y++) {
+      int start = y * this.width;
+      for (int x = 0; x < this.width; x++) {
+        int pixel = pixels[start + x];
+        int i = 3 * x;
+        byte red = (byte) (pixel >>> 16);
+        byte green = (byte) (pixel >>> 8);
+        byte blue = (byte) pixel;
+        row[i + 1] = (byte) (red - above[i]);
+        row[i + 2] = (byte) (green - above[i + 1]);
+        row[i + 3] = (byte) (blue - above[i + 2]);
+        above[i] = red;
+        above[i + 1] = green;
+        above[i + 2] = blue;
+      }
+      this.deflater.setInput(row);
+      while (!this.deflater.needsInput()) {
+        this.deflate();
+      }
+    }
+    this.written += rows;
+  }
+
+  // EFFECT: to compress what the deflater can give into the waiting chunk, and write the
+  // chunk once it is full
+  void deflate() throws IOException {
+    int filled = this.chunkFill;
+    filled += this.deflater.deflate(this.chunk, filled, CHUNK_BYTES - filled);
+    if (filled == CHUNK_BYTES) {
+      this.writeChunk("IDAT", this.chunk, filled);
+      filled = 0;
+    }
+    this.chunkFill = filled;
+  }
+
+  // EFFECT: to finish the compressed data and write the end of the png once every row has
+  // been written, the stream is left open
+  void finish() throws IOException {
+    if (this.written != this.height) {
+      throw new IllegalStateException("The png has " + (this.height - this.written)
+          + " rows left to write");
+    }
+    this.deflater.finish();
+    while (!this.deflater.finished()) {
+      this.deflate();
+    }
+    if (this.chunkFill > 0) {
+      this.writeChunk("IDAT", this.chunk, this.chunkFill);
+      this.chunkFill = 0;
+    }
+    this.deflater.end();
+    this.writeChunk("IEND", new byte[0], 0);
+  }
+
+  // EFFECT: to write a chunk of the given type with the first given number of bytes of the
+  // given data, framed by its length and its checksum
+  void writeChunk(String type, byte[] data, int length) throws IOException {
+    byte[] frame = new byte[8];
+    byte[] name = type.getBytes(StandardCharsets.US_ASCII);
+    PngWriter.putInt(frame, 0, length);
+    System.arraycopy(name, 0, frame, 4, 4);
+    this.out.write(frame);
+    this.out.write(data, 0, length);
+    this.crc.reset();
+    this.crc.update(name);
+    this.crc.update(data, 0, length);
+    PngWriter.putInt(frame, 0, (int) this.crc.getValue());
+    this.out.write(frame, 0, 4);
+  }
+
+  // EFFECT: to put the given int into the given bytes at the given index, the high byte
+  // first
+  static void putInt(byte[] bytes, int index, int value) {
+    bytes[index] = (byte) (value >>> 24);
+    bytes[index + 1] = (byte) (value >>> 16);
+    bytes[index + 2] = (byte) (value >>> 8);
+    bytes[index + 3] = (byte) value;
+  }
+}
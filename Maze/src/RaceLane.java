@@ -0,0 +1,22 @@
+// to represent one search of a race, and how far it has got as far as other threads can
+// tell: the count of its visited cells is published every few steps, and every cell
+// before that count in the visitOrder of the search is written and stays as it is
+class RaceLane {
+  String key; // the key of the search in ASolver.KEYS
+  ASolver search; // the search, only its own thread touches it until the lane is done
+  volatile int visited; // the cells the search had visited when it last published
+  volatile long nanos; // the time from the start of the race to the end of the search,
+  // -1 until the search is over
+
+  RaceLane(String key, ASolver search) {
+    this.key = key;
+    this.search = search;
+    this.visited = 0;
+    this.nanos = -1;
+  }
+
+  // to find whether the search is over, after which it is read by any thread
+  boolean isDone() {
+    return this.nanos >= 0;
+  }
+}
@@ -0,0 +1,104 @@
+import java.awt.Color;
+import java.util.ArrayList;
+
+import javalib.impworld.*;
+import javalib.worldimages.*;
+
+// to show a race of searches side by side over the picture of the world: a small picture
+// of the whole maze for every search, painted with the cells that search has visited so
+// far and its path once it is done, over its name, the cells it expanded and, once it is
+// done, its time and place
+// every tick takes in the cells a lane published since the tick before from the visitOrder
+// of its search, which the lane only writes past what it has published
+class RaceView {
+  static final int GAP = 10; // the pixels around and between the panels
+  static final int LABEL = 40; // the pixels under a panel for its label
+
+  SolverRace race;
+  MazeLayer[] panels; // the picture of the maze of every lane
+  ArrayList<ArrayList<Cell>> visited; // the cells every lane has visited, as taken in
+  ArrayList<ArrayList<Cell>> paths; // the path of every lane, empty until it is done
+  ArrayList<Cell> cellList;
+  int width; // the pixels across the whole view
+  int side; // the most pixels on a side of a panel
+
+  // to show the given race over the given cells in a view of the given size
+  RaceView(SolverRace race, ArrayList<Cell> cellList, int width, int height) {
+    int lanes = race.lanes.length;
+    this.race = race;
+    this.cellList = cellList;
+    this.width = width;
+    this.side = Math.max(2, Math.min((width - GAP * (lanes + 1)) / lanes,
+        height - 2 * GAP - LABEL));
+    this.panels = new MazeLayer[lanes];
+    this.visited = new ArrayList<ArrayList<Cell>>();
+    this.paths = new ArrayList<ArrayList<Cell>>();
+    AWallGrid walls = race.walls;
+    int cells = Math.max(walls.rows, walls.cols);
+    int cellSize = Math.max(1, Math.min(MazeLayer.MAX_CELL_SIZE, (this.side - 1) / cells));
+    int blockSize = (cells + this.side - 2) / (this.side - 1);
+    int panelWidth = (walls.cols + blockSize - 1) / blockSize * cellSize + 1;
+    int panelHeight = (walls.rows + blockSize - 1) / blockSize * cellSize + 1;
+    for (int i = 0; i < lanes; i++) {
+      this.panels[i] = new MazeLayer(walls, cellList, cellSize, panelWidth, panelHeight);
+      if (blockSize > 1) {
+        this.panels[i].blockSize = blockSize;
+        this.panels[i].paintView();
+      }
+      this.visited.add(new ArrayList<Cell>());
+      this.paths.add(new ArrayList<Cell>());
+    }
+  }
+
+  // EFFECT: to take in the cells every lane has visited since the last tick, and the path
+  // of every lane that is done and was not before
+  void takeIn() {
+    for (int i = 0; i < this.panels.length; i++) {
+      RaceLane lane = this.race.lanes[i];
+      boolean done = lane.isDone();
+      ArrayList<Cell> visited = this.visited.get(i);
+      int count = lane.visited;
+      int[] log = lane.search.visitOrder;
+      for (int j = visited.size(); j < count; j++) {
+        visited.add(this.cellList.get(log[j]));
+      }
+      ArrayList<Cell> path = this.paths.get(i);
+      if (done && path.isEmpty()) {
+        for (int cell : lane.search.path()) {
+          path.add(this.cellList.get(cell));
+        }
+      }
+      this.panels[i].update(visited, path, true);
+    }
+  }
+
+  // to find the two lines of the label of the given lane: its name and place once it is
+  // done, then the cells it expanded and its time once it is done
+  String[] label(RaceLane lane) {
+    if (lane.isDone()) {
+      return new String[] {lane.search.name() + " #" + this.race.place(lane),
+          lane.visited + " expanded in " + lane.nanos / 100000 / 10.0 + " ms"};
+    }
+    return new String[] {lane.search.name(), lane.visited + " expanded so far"};
+  }
+
+  // EFFECT: to draw the panels and their labels side by side over the top of the given
+  // scene
+  void draw(WorldScene scene) {
+    int height = this.panels[0].raster.height;
+    scene.placeImageXY(new RectangleImage(this.width, height + 2 * GAP + LABEL,
+        OutlineMode.SOLID, new Color(255, 255, 255, 230)), this.width / 2,
+        (height + 2 * GAP + LABEL) / 2);
+    for (int i = 0; i < this.panels.length; i++) {
+      MazeLayer panel = this.panels[i];
+      panel.raster.show();
+      int middle = GAP + i * (this.side + GAP) + this.side / 2;
+      scene.placeImageXY(panel.image, middle, GAP + height / 2);
+      String[] label = this.label(this.race.lanes[i]);
+      scene.placeImageXY(new TextImage(label[0], 12, FontStyle.BOLD, Color.BLACK), middle,
+          GAP + height + LABEL / 4);
+      scene.placeImageXY(new TextImage(label[1], 12, Color.BLACK), middle,
+          GAP + height + 3 * LABEL / 4);
+    }
+  }
+}
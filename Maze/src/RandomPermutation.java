@@ -0,0 +1,67 @@
+// to shuffle the numbers from 0 to size - 1 without storing them: the number at a position
+// of the shuffle is worked out on demand by a small feistel network keyed by the seed
+// the network swaps numbers around inside the smallest power of two that holds size, and
+// numbers that land past the end are sent through it again until they fall back inside,
+// which takes fewer than two passes on average
+class RandomPermutation {
+  int size;
+  int leftBits; // the number of high bits in the left half of the network
+  int rightBits; // the number of low bits in the right half of the network
+  long[] roundKeys = new long[4]; // one key for every round of the network
+
+  RandomPermutation(int size, long seed) {
+    this.reset(size, seed);
+  }
+
+  // EFFECT: to become the shuffle of the numbers from 0 to the given size - 1 keyed by the
+  // given seed, reusing the round keys
+  void reset(int size, long seed) {
+    this.size = size;
+    int bits = 2;
+    while ((1L << bits) < size) {
+      bits++;
+    }
+    this.leftBits = bits / 2;
+    this.rightBits = bits - this.leftBits;
+    long key = seed;
+    for (int i = 0; i < this.roundKeys.length; i++) {
+      key = RandomPermutation.mix(key + i);
+      this.roundKeys[i] = key;
+    }
+  }
+
+  // to scramble the bits of the given number, the finalizer of splitmix64
+  static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  // to send the given number once through the feistel network
+  // the halves may differ by a bit, so they trade widths along with places every round
+  long encrypt(long value) {
+    int highBits = this.leftBits;
+    int lowBits = this.rightBits;
+    long left = value >>> lowBits;
+    long right = value & ((1L << lowBits) - 1);
+    for (int i = 0; i < this.roundKeys.length; i++) {
+      long scrambled = RandomPermutation.mix(right ^ this.roundKeys[i]);
+      long next = left ^ (scrambled & ((1L << highBits) - 1));
+      left = right;
+      right = next;
+      int swap = highBits;
+      highBits = lowBits;
+      lowBits = swap;
+    }
+    return (left << lowBits) | right;
+  }
+
+  // to find the number at the given position of the shuffle
+  int get(int position) {
+    long value = this.encrypt(position);
+    while (value >= this.size) {
+      value = this.encrypt(value);
+    }
+    return (int) value;
+  }
+}
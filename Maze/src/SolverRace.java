@@ -0,0 +1,179 @@
+import java.util.concurrent.CountDownLatch;
+
+// to race searches of the same finished maze against each other, every one on a thread
+// of its own with all of its state to itself: the walls of a finished maze are only ever
+// read, so the searches share them and nothing else
+// the threads wait at a gate until every one of them is ready, then all start at once, so
+// the time of every search is taken while the others run, and it is the wall-clock time
+// from the start of the race to the end of that search
+// from the command line it races the searches over a maze of every shape, a new maze for
+// every round, and writes a line of csv for every search
+//   java SolverRace rows cols seed [keys] [rounds]
+class SolverRace {
+  static final String CSV_HEADER = "round,bias,key,solver,nanos,expanded,pathLength,place";
+  static final int CHECK_EVERY = 1024; // the steps between two counts published by a lane
+  static final String[] SHAPES = {"h", "v", "noBias"};
+
+  AWallGrid walls;
+  RaceLane[] lanes;
+  Thread[] threads; // the thread of every lane, null until the race starts and once over
+  CountDownLatch ready; // counted down by every lane at the gate
+  CountDownLatch gate; // opened once every lane is ready
+  long begin; // the time on System.nanoTime when the gate opened
+  volatile boolean stopped; // whether the lanes should end before their searches are done
+
+  // to race the searches of the given keys from the first cell to the last one of the
+  // given finished walls, a weighted search takes the costs of its passages from the
+  // given seed
+  SolverRace(AWallGrid walls, String keys, long seed) {
+    if (keys.isEmpty()) {
+      throw new IllegalArgumentException("A race needs at least one search");
+    }
+    this.walls = walls;
+    this.lanes = new RaceLane[keys.length()];
+    for (int i = 0; i < keys.length(); i++) {
+      String key = keys.substring(i, i + 1);
+      if (ASolver.KEYS.indexOf(key) < 0) {
+        throw new IllegalArgumentException("The searches of a race must be some of "
+            + ASolver.KEYS + ": " + keys);
+      }
+      this.lanes[i] = new RaceLane(key, ASolver.forKey(key, walls, 0,
+          walls.cellCount() - 1, seed));
+    }
+  }
+
+  // EFFECT: to start every lane on a thread of its own and open the gate once all of them
+  // are waiting at it
+  void start() {
+    this.ready = new CountDownLatch(this.lanes.length);
+    this.gate = new CountDownLatch(1);
+    this.threads = new Thread[this.lanes.length];
+    for (int i = 0; i < this.lanes.length; i++) {
+      RaceLane lane = this.lanes[i];
+      this.threads[i] = new Thread(() -> this.run(lane), "race-" + lane.key);
+      this.threads[i].setDaemon(true);
+      this.threads[i].start();
+    }
+    SolverRace.awaitUninterruptibly(this.ready);
+    this.begin = System.nanoTime();
+    this.gate.countDown();
+  }
+
+  // EFFECT: to run the search of the given lane from the gate to its end, publishing how
+  // many cells it has visited every CHECK_EVERY steps
+  void run(RaceLane lane) {
+    this.ready.countDown();
+    SolverRace.awaitUninterruptibly(this.gate);
+    ASolver search = lane.search;
+    int steps = 0;
+    while (!search.isDone()) {
+      search.step();
+      steps++;
+      if (steps % CHECK_EVERY == 0) {
+        if (this.stopped) {
+          return;
+        }
+        lane.visited = search.visitedCount;
+      }
+    }
+    long end = System.nanoTime();
+    lane.visited = search.visitedCount;
+    lane.nanos = end - this.begin;
+  }
+
+  // EFFECT: to wait for the given latch to open, passing an interrupt on once it has
+  static void awaitUninterruptibly(CountDownLatch latch) {
+    boolean interrupted = false;
+    while (latch.getCount() > 0) {
+      try {
+        latch.await();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // EFFECT: to wait until every lane is over, after which everything the lanes wrote is
+  // seen by the waiting thread
+  void await() {
+    boolean interrupted = false;
+    for (int i = 0; this.threads != null && i < this.threads.length; i++) {
+      while (this.threads[i].isAlive()) {
+        try {
+          this.threads[i].join();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    }
+    this.threads = null;
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // EFFECT: to end every lane where it is and wait for their threads
+  void stop() {
+    this.stopped = true;
+    this.await();
+  }
+
+  // to find whether every search of the race has ended
+  boolean isDone() {
+    for (RaceLane lane : this.lanes) {
+      if (!lane.isDone()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // to find the place of the given lane among the lanes that are done, 1 for the fastest,
+  // or 0 if it is not done
+  int place(RaceLane lane) {
+    if (!lane.isDone()) {
+      return 0;
+    }
+    int place = 1;
+    for (RaceLane other : this.lanes) {
+      if (other != lane && other.isDone() && other.nanos < lane.nanos) {
+        place++;
+      }
+    }
+    return place;
+  }
+
+  // to write the given lane of a race that is done as a line of csv, in the order of
+  // CSV_HEADER after the given round and bias
+  String toCsv(int round, String bias, RaceLane lane) {
+    return round + "," + bias + "," + lane.key + "," + lane.search.name() + ","
+        + lane.nanos + "," + lane.search.visitedCount + "," + lane.search.pathLength() + ","
+        + this.place(lane);
+  }
+
+  public static void main(String[] args) {
+    if (args.length < 3 || args.length > 5) {
+      throw new IllegalArgumentException("Usage: SolverRace rows cols seed [keys] [rounds]");
+    }
+    int rows = Integer.parseInt(args[0]);
+    int cols = Integer.parseInt(args[1]);
+    long seed = Long.parseLong(args[2]);
+    String keys = args.length > 3 ? args[3] : ASolver.KEYS;
+    int rounds = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+    System.out.println(CSV_HEADER);
+    for (int round = 0; round < rounds; round++) {
+      for (String bias : SHAPES) {
+        MazeLayout layout = MazeGenerator.generate(rows, cols, seed + round, bias);
+        SolverRace race = new SolverRace(layout.walls, keys, seed + round);
+        race.start();
+        race.await();
+        for (RaceLane lane : race.lanes) {
+          System.out.println(race.toCsv(round, bias, lane));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,43 @@
+// to represent how much work one phase of the world may do in a single tick: at most a
+// number of steps, at most an amount of time, or as much as it takes to finish the phase
+// a tick always does at least one step, so a phase never stalls however tight the time is
+class TickBudget {
+  static final int CLOCK_EVERY = 32; // the number of steps between two looks at the clock
+
+  int steps; // the most steps in a tick, 0 for no limit on steps
+  long nanos; // the most nanoseconds in a tick, 0 for no limit on time
+
+  TickBudget(int steps, long nanos) {
+    this.steps = steps;
+    this.nanos = nanos;
+  }
+
+  // to make a budget of the given number of steps a tick
+  static TickBudget steps(int steps) {
+    return new TickBudget(steps, 0);
+  }
+
+  // to make a budget of the given number of milliseconds a tick
+  static TickBudget millis(long millis) {
+    return new TickBudget(0, millis * 1000000);
+  }
+
+  // to make a budget that finishes the phase in a single tick
+  static TickBudget instant() {
+    return new TickBudget(0, 0);
+  }
+
+  // to find whether a tick that started at the given time on System.nanoTime and has done
+  // the given number of steps may do another one
+  // the clock is only read every CLOCK_EVERY steps, which matters for steps as small as
+  // one cell of the path animation
+  boolean allows(int done, long start) {
+    if (done == 0) {
+      return true;
+    } else if (this.steps > 0 && done >= this.steps) {
+      return false;
+    } else {
+      return this.nanos == 0 || done % CLOCK_EVERY != 0 || System.nanoTime() - start < this.nanos;
+    }
+  }
+}
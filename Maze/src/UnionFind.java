@@ -0,0 +1,67 @@
+// to represent the disjoint sets of cells that kruskal's algorithm merges into one tree
+// every cell is addressed by its index in the cell list, so the parent and the size of
+// every set live in primitive arrays instead of a map of boxed integers
+class UnionFind {
+  int[] parent; // the parent of every cell, a cell is a representative if it is its own parent
+  int[] size; // the number of cells in a set, only kept up to date for the representatives
+  long finds; // the number of calls to find, for the metrics of the world
+  long hops; // the number of steps up a parent taken by all the calls to find
+  long unions; // the number of sets merged
+
+  UnionFind(int n) {
+    this.parent = new int[n];
+    this.size = new int[n];
+    this.reset();
+  }
+
+  // EFFECT: to make every cell the representative of a set that contains only itself, and
+  // start the counters over
+  void reset() {
+    this.finds = 0;
+    this.hops = 0;
+    this.unions = 0;
+    for (int i = 0; i < this.parent.length; i++) {
+      this.parent[i] = i;
+      this.size[i] = 1;
+    }
+  }
+
+  // to find the representative of the set the given cell belongs to
+  // EFFECT: halves the path from the cell to its representative on the way up, so
+  // the walk never recurses and chains stay short for the following calls
+  int find(int index) {
+    this.finds++;
+    while (this.parent[index] != index) {
+      this.parent[index] = this.parent[this.parent[index]];
+      index = this.parent[index];
+      this.hops++;
+    }
+    return index;
+  }
+
+  // to find whether the two given cells belong to the same set
+  boolean sameSet(int index1, int index2) {
+    return this.find(index1) == this.find(index2);
+  }
+
+  // EFFECT: to merge the sets of the two given cells by hanging the representative of the
+  // smaller set under the representative of the larger one, on a tie the first cell's set
+  // is hung under the second cell's set
+  // returns false if the cells already belonged to the same set
+  boolean union(int index1, int index2) {
+    int root1 = this.find(index1);
+    int root2 = this.find(index2);
+    if (root1 == root2) {
+      return false;
+    }
+    if (this.size[root1] > this.size[root2]) {
+      this.parent[root2] = root1;
+      this.size[root1] += this.size[root2];
+    } else {
+      this.parent[root1] = root2;
+      this.size[root2] += this.size[root1];
+    }
+    this.unions++;
+    return true;
+  }
+}
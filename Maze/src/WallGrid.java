@@ -0,0 +1,86 @@
+import java.util.Arrays;
+
+// to represent the walls of a maze with two bits per cell packed into longs: the even bit
+// of a cell is the wall on its right and the odd bit is the wall below it, and a set bit
+// means the wall is standing
+// these are the walls a maze is built in, the border is never removed
+class WallGrid extends AWallGrid {
+  long[] bits; // the wall bits of cell i are bits 2i and 2i + 1, 32 cells to a long
+
+  WallGrid(int rows, int cols) {
+    this(rows, cols, new long[(int) ((2L * rows * cols + 63) >>> 6)]);
+    this.raiseAll();
+  }
+
+  // to wrap the given wall bits of a grid of the given size as they are
+  WallGrid(int rows, int cols, long[] bits) {
+    super(rows, cols);
+    this.bits = bits;
+  }
+
+  // EFFECT: to stand every wall of the grid back up
+  void raiseAll() {
+    Arrays.fill(this.bits, -1L);
+  }
+
+  // to find whether the wall on the right of the given cell is standing
+  boolean hasRightWall(int cell) {
+    long bit = 2L * cell;
+    return (this.bits[(int) (bit >>> 6)] & (1L << bit)) != 0;
+  }
+
+  // to find whether the wall below the given cell is standing
+  boolean hasBottomWall(int cell) {
+    long bit = 2L * cell + 1;
+    return (this.bits[(int) (bit >>> 6)] & (1L << bit)) != 0;
+  }
+
+  // EFFECT: to knock down the wall on the right of the given cell
+  void removeRightWall(int cell) {
+    long bit = 2L * cell;
+    this.bits[(int) (bit >>> 6)] &= ~(1L << bit);
+  }
+
+  // EFFECT: to knock down the wall below the given cell
+  void removeBottomWall(int cell) {
+    long bit = 2L * cell + 1;
+    this.bits[(int) (bit >>> 6)] &= ~(1L << bit);
+  }
+
+  // EFFECT: to knock down the wall between the two given cells, where cell2 is either
+  // on the right of cell1 or below it
+  void removeWall(int cell1, int cell2) {
+    if (cell2 == cell1 + 1) {
+      this.removeRightWall(cell1);
+    } else {
+      this.removeBottomWall(cell1);
+    }
+  }
+
+  // to count the walls that have been knocked down
+  long passageCount() {
+    long wallBits = 2L * this.cellCount();
+    long standing = 0;
+    for (int i = 0; i < this.bits.length; i++) {
+      standing += Long.bitCount(this.bits[i]);
+    }
+    // the unused bits after the last cell are always set
+    return wallBits - (standing - (64L * this.bits.length - wallBits));
+  }
+
+  // to count the longs that hold the wall bits
+  long wordCount() {
+    return this.bits.length;
+  }
+
+  // to find the long of wall bits at the given index turned around, so a set bit means
+  // the wall is down like in OffHeapWallGrid and MazeFile
+  long openWord(long index) {
+    return ~this.bits[(int) index];
+  }
+
+  // to find how many bytes the wall bits take up
+  long byteSize() {
+    return 8L * this.bits.length;
+  }
+}
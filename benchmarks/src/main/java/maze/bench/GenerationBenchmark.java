@@ -0,0 +1,83 @@
+package maze.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+// to measure building a square maze of each size and bias: handing out the edges in
+// kruskal's order, the headless generator, and the world building it one edge a tick
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class GenerationBenchmark {
+  @Param({"100", "500", "1000"})
+  int size;
+
+  @Param({"noBias", "h", "v"})
+  String bias;
+
+  long seed; // a new seed for every call, so no two calls build the same maze
+
+  // to hold a world that has not started building its maze yet, made again for every call
+  // of onTickLoop alone: that call builds a whole maze a tick at a time, which takes long
+  // enough next to the setup for JMH to time it on its own
+  @State(Scope.Thread)
+  public static class FreshWorld {
+    Object maze;
+    long seed;
+
+    // EFFECT: to make a fresh world of the size and bias of the benchmark, outside of the
+    // measurement
+    @Setup(Level.Invocation)
+    public void newMaze(BenchmarkParams params) throws Throwable {
+      int size = Integer.parseInt(params.getParam("size"));
+      this.seed++;
+      this.maze = MazeAccess.newMaze(size, size, this.seed);
+      MazeAccess.pressBias(this.maze, params.getParam("bias"));
+    }
+  }
+
+  // to hand out every edge of the grid in the order kruskal's considers them, which took
+  // building and sorting a list of every edge before
+  @Benchmark
+  public void edgeStream(Blackhole hole) throws Throwable {
+    this.seed++;
+    Object stream = (Object) MazeAccess.NEW_EDGE_STREAM.invokeExact(this.size, this.size,
+        this.seed, this.bias);
+    while ((boolean) MazeAccess.HAS_NEXT.invokeExact(stream)) {
+      hole.consume((int) MazeAccess.NEXT.invokeExact(stream));
+    }
+  }
+
+  // to build a whole maze without a world
+  @Benchmark
+  public Object generate() throws Throwable {
+    this.seed++;
+    return (Object) MazeAccess.GENERATE.invokeExact(this.size, this.size, this.seed, this.bias);
+  }
+
+  // to build a whole maze through the world, one edge on every call of onTick
+  @Benchmark
+  public Object onTickLoop(FreshWorld world) throws Throwable {
+    while (MazeAccess.rendering(world.maze)) {
+      MazeAccess.ON_TICK.invokeExact(world.maze);
+    }
+    return world.maze;
+  }
+}
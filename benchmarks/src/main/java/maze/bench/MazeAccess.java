@@ -0,0 +1,160 @@
+package maze.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.BitSet;
+import java.util.Random;
+
+// to reach the game from the benchmarks: the game lives in the default package, which no
+// other package can name, and JMH will not run benchmarks from the default package, so
+// every class and member used here is looked up once into a constant method handle that
+// the JIT compiles down to a direct call
+final class MazeAccess {
+  static final MethodHandle NEW_MAZE;
+  static final MethodHandle ON_TICK;
+  static final MethodHandle ON_KEY_RELEASED;
+  static final MethodHandle MAKE_SCENE;
+  static final MethodHandle SET_BUDGETS;
+  static final MethodHandle STEPS;
+  static final MethodHandle INSTANT;
+  static final MethodHandle RENDER;
+  static final MethodHandle BFS;
+  static final MethodHandle DFS;
+  static final MethodHandle ASTAR;
+  static final MethodHandle BIDIRECTIONAL;
+  static final MethodHandle WEIGHTED;
+  static final MethodHandle ANIMATE_PATH;
+  static final MethodHandle MAZE_WALLS;
+  static final MethodHandle GENERATE;
+  static final MethodHandle LAYOUT_WALLS;
+  static final MethodHandle NEW_EDGE_STREAM;
+  static final MethodHandle HAS_NEXT;
+  static final MethodHandle NEXT;
+  static final MethodHandle FOR_KEY;
+  static final MethodHandle SOLVE;
+  static final MethodHandle CELL_COUNT;
+  static final MethodHandle RENDER_WALLS;
+
+  static {
+    try {
+      Class<?> maze = Class.forName("Maze");
+      Class<?> budget = Class.forName("TickBudget");
+      Class<?> walls = Class.forName("WallGrid");
+      Class<?> grid = Class.forName("AWallGrid");
+      Class<?> generator = Class.forName("MazeGenerator");
+      Class<?> layout = Class.forName("MazeLayout");
+      Class<?> stream = Class.forName("EdgeStream");
+      Class<?> solver = Class.forName("ASolver");
+      MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(maze, MethodHandles.lookup());
+      NEW_MAZE = lookup.findConstructor(maze,
+          MethodType.methodType(void.class, int.class, int.class, Random.class))
+          .asType(MethodType.methodType(Object.class, int.class, int.class, Random.class));
+      ON_TICK = lookup.findVirtual(maze, "onTick", MethodType.methodType(void.class))
+          .asType(MethodType.methodType(void.class, Object.class));
+      ON_KEY_RELEASED = lookup.findVirtual(maze, "onKeyReleased",
+          MethodType.methodType(void.class, String.class))
+          .asType(MethodType.methodType(void.class, Object.class, String.class));
+      MAKE_SCENE = lookup.findVirtual(maze, "makeScene",
+          MethodType.methodType(Class.forName("javalib.impworld.WorldScene")))
+          .asType(MethodType.methodType(Object.class, Object.class));
+      SET_BUDGETS = lookup.findVirtual(maze, "setBudgets",
+          MethodType.methodType(void.class, budget, budget, budget))
+          .asType(MethodType.methodType(void.class, Object.class, Object.class, Object.class,
+              Object.class));
+      STEPS = lookup.findStatic(budget, "steps", MethodType.methodType(budget, int.class))
+          .asType(MethodType.methodType(Object.class, int.class));
+      INSTANT = lookup.findStatic(budget, "instant", MethodType.methodType(budget))
+          .asType(MethodType.methodType(Object.class));
+      RENDER = MazeAccess.flag(lookup, maze, "render");
+      BFS = MazeAccess.flag(lookup, maze, "bfs");
+      DFS = MazeAccess.flag(lookup, maze, "dfs");
+      ASTAR = MazeAccess.flag(lookup, maze, "astar");
+      BIDIRECTIONAL = MazeAccess.flag(lookup, maze, "bidirectional");
+      WEIGHTED = MazeAccess.flag(lookup, maze, "weighted");
+      ANIMATE_PATH = MazeAccess.flag(lookup, maze, "animatePath");
+      MAZE_WALLS = lookup.findGetter(maze, "walls", grid)
+          .asType(MethodType.methodType(Object.class, Object.class));
+      GENERATE = lookup.findStatic(generator, "generate",
+          MethodType.methodType(layout, int.class, int.class, long.class, String.class))
+          .asType(MethodType.methodType(Object.class, int.class, int.class, long.class,
+              String.class));
+      LAYOUT_WALLS = lookup.findGetter(layout, "walls", walls)
+          .asType(MethodType.methodType(Object.class, Object.class));
+      NEW_EDGE_STREAM = lookup.findConstructor(stream,
+          MethodType.methodType(void.class, int.class, int.class, long.class, String.class))
+          .asType(MethodType.methodType(Object.class, int.class, int.class, long.class,
+              String.class));
+      HAS_NEXT = lookup.findVirtual(stream, "hasNext", MethodType.methodType(boolean.class))
+          .asType(MethodType.methodType(boolean.class, Object.class));
+      NEXT = lookup.findVirtual(stream, "next", MethodType.methodType(int.class))
+          .asType(MethodType.methodType(int.class, Object.class));
+      FOR_KEY = lookup.findStatic(solver, "forKey",
+          MethodType.methodType(solver, String.class, grid, int.class, int.class, long.class))
+          .asType(MethodType.methodType(Object.class, String.class, Object.class, int.class,
+              int.class, long.class));
+      SOLVE = lookup.findVirtual(solver, "solve", MethodType.methodType(boolean.class))
+          .asType(MethodType.methodType(boolean.class, Object.class));
+      CELL_COUNT = lookup.findVirtual(grid, "cellCount", MethodType.methodType(int.class))
+          .asType(MethodType.methodType(int.class, Object.class));
+      RENDER_WALLS = lookup.findStatic(Class.forName("MazeLayer"), "render",
+          MethodType.methodType(Class.forName("PixelRaster"), grid, BitSet.class,
+              BitSet.class, int.class))
+          .asType(MethodType.methodType(Object.class, Object.class, BitSet.class,
+              BitSet.class, int.class));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private MazeAccess() {
+  }
+
+  // to look up the getter of the given boolean field of the given class
+  private static MethodHandle flag(MethodHandles.Lookup lookup, Class<?> owner, String name)
+      throws ReflectiveOperationException {
+    return lookup.findGetter(owner, name, boolean.class)
+        .asType(MethodType.methodType(boolean.class, Object.class));
+  }
+
+  // to make a world of the given size whose phases each take one step a tick
+  static Object newMaze(int rows, int cols, long seed) throws Throwable {
+    Object maze = (Object) NEW_MAZE.invokeExact(rows, cols, new Random(seed));
+    Object oneStep = (Object) STEPS.invokeExact(1);
+    SET_BUDGETS.invokeExact(maze, oneStep, oneStep, oneStep);
+    return maze;
+  }
+
+  // to make a world of the given size and bias that is already built
+  static Object builtMaze(int rows, int cols, long seed, String bias) throws Throwable {
+    Object maze = MazeAccess.newMaze(rows, cols, seed);
+    Object instant = (Object) INSTANT.invokeExact();
+    Object oneStep = (Object) STEPS.invokeExact(1);
+    SET_BUDGETS.invokeExact(maze, instant, oneStep, oneStep);
+    MazeAccess.pressBias(maze, bias);
+    ON_TICK.invokeExact(maze);
+    SET_BUDGETS.invokeExact(maze, oneStep, oneStep, oneStep);
+    return maze;
+  }
+
+  // EFFECT: to start building a new maze of the given bias in the given world
+  static void pressBias(Object maze, String bias) throws Throwable {
+    if (bias.equals("h") || bias.equals("v")) {
+      ON_KEY_RELEASED.invokeExact(maze, bias);
+    } else {
+      ON_KEY_RELEASED.invokeExact(maze, "n");
+    }
+  }
+
+  // to find whether the given world is still building its maze
+  static boolean rendering(Object maze) throws Throwable {
+    return (boolean) RENDER.invokeExact(maze);
+  }
+
+  // to find whether the given world is still searching or animating a path
+  static boolean searching(Object maze) throws Throwable {
+    return (boolean) BFS.invokeExact(maze) || (boolean) DFS.invokeExact(maze)
+        || (boolean) ASTAR.invokeExact(maze) || (boolean) BIDIRECTIONAL.invokeExact(maze)
+        || (boolean) WEIGHTED.invokeExact(maze) || (boolean) ANIMATE_PATH.invokeExact(maze);
+  }
+}
@@ -0,0 +1,73 @@
+package maze.bench;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// to measure makeScene on a built and solved square maze of each size: a frame with a
+// search step painted since the last one, and a frame that paints the whole view again,
+// and painting the whole maze at four pixels a cell without a window
+// a frame is too short to set up on its own, so the tick that visits the next cell is
+// measured with the frame after it, the way they come in the game; a tick of one cell is
+// a few dozen nanoseconds against the frame's hundred microseconds
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+  @Param({"50", "200", "1000"})
+  int size;
+
+  Object maze; // a world that is searching its built maze
+  BitSet none = new BitSet(); // no visited cells and no path for the whole maze
+
+  // EFFECT: to build the maze, start a breadth first search on it and paint the first
+  // frame, once for every trial
+  @Setup(Level.Trial)
+  public void buildMaze() throws Throwable {
+    this.maze = MazeAccess.builtMaze(this.size, this.size, 1, "noBias");
+    MazeAccess.ON_KEY_RELEASED.invokeExact(this.maze, "b");
+    MazeAccess.MAKE_SCENE.invoke(this.maze);
+  }
+
+  // to visit one more cell and render a frame that only has to paint what that tick
+  // changed, starting the search over once it is done
+  @Benchmark
+  public Object makeScene() throws Throwable {
+    if (!MazeAccess.searching(this.maze)) {
+      MazeAccess.ON_KEY_RELEASED.invokeExact(this.maze, "r");
+      MazeAccess.ON_KEY_RELEASED.invokeExact(this.maze, "b");
+    }
+    MazeAccess.ON_TICK.invokeExact(this.maze);
+    return (Object) MazeAccess.MAKE_SCENE.invokeExact(this.maze);
+  }
+
+  // to render a frame after showing or hiding the visited cells, which paints the whole
+  // view again
+  @Benchmark
+  public Object makeSceneRepaint() throws Throwable {
+    MazeAccess.ON_KEY_RELEASED.invokeExact(this.maze, "s");
+    return (Object) MazeAccess.MAKE_SCENE.invokeExact(this.maze);
+  }
+
+  // to paint the whole maze, not just the view, into a raster of its own
+  @Benchmark
+  public Object renderWhole() throws Throwable {
+    Object walls = (Object) MazeAccess.MAZE_WALLS.invokeExact(this.maze);
+    return (Object) MazeAccess.RENDER_WALLS.invokeExact(walls, this.none, this.none, 4);
+  }
+}
@@ -0,0 +1,73 @@
+package maze.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// to measure searching a built square maze of each size and bias from the first cell to
+// the last, with each search key of the world: "b" bfs, "d" dfs, "a" a*, "t" bfs from
+// both ends, "w" dijkstra's over weighted passages
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SolveBenchmark {
+  @Param({"100", "500", "1000"})
+  int size;
+
+  @Param({"noBias", "h", "v"})
+  String bias;
+
+  @Param({"b", "d", "a", "t", "w"})
+  String key;
+
+  Object maze; // a world whose maze is built
+  Object walls; // the walls of that maze
+
+  // EFFECT: to build the maze once for every trial
+  @Setup(Level.Trial)
+  public void buildMaze() throws Throwable {
+    this.maze = MazeAccess.builtMaze(this.size, this.size, 1, this.bias);
+    this.walls = (Object) MazeAccess.MAZE_WALLS.invokeExact(this.maze);
+  }
+
+  // EFFECT: to clear the last search off the world, outside of the measurement
+  @Setup(Level.Invocation)
+  public void refresh() throws Throwable {
+    MazeAccess.ON_KEY_RELEASED.invokeExact(this.maze, "r");
+    MazeAccess.ON_TICK.invokeExact(this.maze);
+  }
+
+  // to search the maze and animate the path through the world, one cell of each on every
+  // call of onTick, the way bfs() and dfs() run on screen
+  @Benchmark
+  public Object onTickSearch() throws Throwable {
+    MazeAccess.ON_KEY_RELEASED.invokeExact(this.maze, this.key);
+    while (MazeAccess.searching(this.maze)) {
+      MazeAccess.ON_TICK.invokeExact(this.maze);
+    }
+    return this.maze;
+  }
+
+  // to search the maze to the end without a world
+  @Benchmark
+  public boolean solve() throws Throwable {
+    int goal = (int) MazeAccess.CELL_COUNT.invokeExact(this.walls) - 1;
+    Object solver = (Object) MazeAccess.FOR_KEY.invokeExact(this.key, this.walls, 0, goal,
+        1L);
+    return (boolean) MazeAccess.SOLVE.invokeExact(solver);
+  }
+}